@@ -0,0 +1,284 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.RuleMatch;
+
+import java.util.*;
+
+/**
+ * Keeps the analysis and the matches of the last check of a text, so that checking the text again
+ * after an edit only needs to analyze and check the sentences and paragraphs that have changed.
+ * Use with {@link JLanguageTool#check(org.languagetool.markup.AnnotatedText, boolean, JLanguageTool.ParagraphHandling, RuleMatchListener, JLanguageTool.Mode, CheckSession)}.
+ * Results are looked up by content, not by position, so a session can be used for any text, it
+ * just won't save any work if the text is unrelated to the last one. The result of a check with a
+ * session is the same as without one.
+ * <p>Not thread-safe: use it for only one check at a time.
+ * @since 4.3
+ */
+@Experimental
+public class CheckSession {
+
+  // state of the last successful check:
+  private InputSentence configKey;
+  private JLanguageTool.ParagraphHandling paraMode;
+  private Map<SentenceKey, AnalyzedSentence> analyzedSentences = new HashMap<>();
+  private Map<SentenceKey, List<RuleMatch>> sentenceMatches = new HashMap<>();
+  private Map<String, RuleMatch[]> textMatches = new HashMap<>();
+  private List<String> textMatchesSentences = Collections.emptyList();  // the text 'textMatches' are valid for
+  private Map<String, Map<ParagraphKey, RuleMatch[]>> paragraphMatches = new HashMap<>();
+
+  // state of the check in progress, becomes the state of the last check if it succeeds:
+  private InputSentence newConfigKey;
+  private JLanguageTool.ParagraphHandling newParaMode;
+  private List<String> newSentences;
+  private Map<SentenceKey, AnalyzedSentence> newAnalyzedSentences;
+  private Map<SentenceKey, List<RuleMatch>> newSentenceMatches;
+  private Map<String, RuleMatch[]> newTextMatches;
+  private Map<String, Map<ParagraphKey, RuleMatch[]>> newParagraphMatches;
+  // depending on the mode, a check might not run the sentence-level or the text-level rules:
+  private boolean sentenceRulesChecked;
+  private boolean textRulesChecked;
+
+  private int analyzedSentenceCount;
+  private int reusedSentenceCount;
+  private int checkedParagraphCount;
+  private int reusedParagraphCount;
+
+  /**
+   * @param configKey everything besides the text and {@code paraMode} that the analysis and the matches depend on
+   */
+  void begin(InputSentence configKey, JLanguageTool.ParagraphHandling paraMode, List<String> sentences) {
+    if (!configKey.equals(this.configKey) || paraMode != this.paraMode) {
+      clear();
+    }
+    newConfigKey = configKey;
+    newParaMode = paraMode;
+    newSentences = sentences;
+    newAnalyzedSentences = new HashMap<>();
+    newSentenceMatches = new HashMap<>();
+    newTextMatches = new HashMap<>();
+    newParagraphMatches = new HashMap<>();
+    sentenceRulesChecked = false;
+    textRulesChecked = false;
+    analyzedSentenceCount = 0;
+    reusedSentenceCount = 0;
+    checkedParagraphCount = 0;
+    reusedParagraphCount = 0;
+  }
+
+  void commit() {
+    configKey = newConfigKey;
+    paraMode = newParaMode;
+    analyzedSentences = newAnalyzedSentences;
+    // matches are looked up by content, so those of a check before the last one are still valid:
+    if (sentenceRulesChecked) {
+      sentenceMatches = newSentenceMatches;
+    }
+    if (textRulesChecked) {
+      textMatches = newTextMatches;
+      textMatchesSentences = newSentences;
+      paragraphMatches = newParagraphMatches;
+    }
+  }
+
+  /**
+   * Forget the last check, e.g. to free memory.
+   */
+  public void clear() {
+    configKey = null;
+    paraMode = null;
+    analyzedSentences = new HashMap<>();
+    sentenceMatches = new HashMap<>();
+    textMatches = new HashMap<>();
+    textMatchesSentences = Collections.emptyList();
+    paragraphMatches = new HashMap<>();
+  }
+
+  AnalyzedSentence getAnalyzedSentence(String sentence, boolean lastSentence) {
+    SentenceKey key = new SentenceKey(sentence, lastSentence);
+    AnalyzedSentence result = newAnalyzedSentences.get(key);
+    if (result == null) {
+      result = analyzedSentences.get(key);
+      if (result != null) {
+        newAnalyzedSentences.put(key, result);
+      }
+    }
+    if (result != null) {
+      reusedSentenceCount++;
+    }
+    return result;
+  }
+
+  void putAnalyzedSentence(String sentence, boolean lastSentence, AnalyzedSentence analyzedSentence) {
+    newAnalyzedSentences.put(new SentenceKey(sentence, lastSentence), analyzedSentence);
+    analyzedSentenceCount++;
+  }
+
+  /**
+   * Matches of the sentence-level rules, with positions relative to the sentence.
+   */
+  List<RuleMatch> getSentenceMatches(String sentence, boolean lastSentence) {
+    sentenceRulesChecked = true;
+    SentenceKey key = new SentenceKey(sentence, lastSentence);
+    List<RuleMatch> result = newSentenceMatches.get(key);
+    if (result == null) {
+      result = sentenceMatches.get(key);
+      if (result != null) {
+        newSentenceMatches.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  void putSentenceMatches(String sentence, boolean lastSentence, List<RuleMatch> matches) {
+    newSentenceMatches.put(new SentenceKey(sentence, lastSentence), matches);
+  }
+
+  /**
+   * Matches of a text-level rule that considers the complete text, only available if
+   * the sentences haven't changed since the last check.
+   */
+  RuleMatch[] getTextMatches(String ruleKey) {
+    textRulesChecked = true;
+    if (!newSentences.equals(textMatchesSentences)) {
+      return null;
+    }
+    RuleMatch[] result = textMatches.get(ruleKey);
+    if (result != null) {
+      newTextMatches.put(ruleKey, result);
+    }
+    return result;
+  }
+
+  void putTextMatches(String ruleKey, RuleMatch[] matches) {
+    newTextMatches.put(ruleKey, matches);
+  }
+
+  /**
+   * Matches of a paragraph-local text-level rule, with positions relative to the paragraph.
+   */
+  RuleMatch[] getParagraphMatches(String ruleKey, List<String> paragraph, boolean lastParagraph) {
+    textRulesChecked = true;
+    ParagraphKey key = new ParagraphKey(paragraph, lastParagraph);
+    RuleMatch[] result = newParagraphMatches.getOrDefault(ruleKey, Collections.emptyMap()).get(key);
+    if (result == null) {
+      result = paragraphMatches.getOrDefault(ruleKey, Collections.emptyMap()).get(key);
+      if (result != null) {
+        newParagraphMatches.computeIfAbsent(ruleKey, k -> new HashMap<>()).put(key, result);
+      }
+    }
+    if (result != null) {
+      reusedParagraphCount++;
+    }
+    return result;
+  }
+
+  void putParagraphMatches(String ruleKey, List<String> paragraph, boolean lastParagraph, RuleMatch[] matches) {
+    newParagraphMatches.computeIfAbsent(ruleKey, k -> new HashMap<>()).put(new ParagraphKey(paragraph, lastParagraph), matches);
+    checkedParagraphCount++;
+  }
+
+  /**
+   * The number of sentences that had to be analyzed in the last check.
+   */
+  public int getAnalyzedSentenceCount() {
+    return analyzedSentenceCount;
+  }
+
+  /**
+   * The number of sentences whose analysis could be re-used from the check before in the last check.
+   */
+  public int getReusedSentenceCount() {
+    return reusedSentenceCount;
+  }
+
+  /**
+   * The number of paragraphs paragraph-local text-level rules had to check in the last check,
+   * summed up over all these rules.
+   */
+  public int getCheckedParagraphCount() {
+    return checkedParagraphCount;
+  }
+
+  /**
+   * The number of paragraphs whose matches of paragraph-local text-level rules could be
+   * re-used in the last check, summed up over all these rules.
+   */
+  public int getReusedParagraphCount() {
+    return reusedParagraphCount;
+  }
+
+  @Override
+  public String toString() {
+    return "analyzed=" + analyzedSentenceCount + ", reused=" + reusedSentenceCount +
+            ", checkedParagraphs=" + checkedParagraphCount + ", reusedParagraphs=" + reusedParagraphCount;
+  }
+
+  /**
+   * The analysis of the last sentence differs from that of the same sentence in another position,
+   * as its last token is marked as the end of a paragraph.
+   */
+  private static class SentenceKey {
+    private final String sentence;
+    private final boolean lastSentence;
+
+    SentenceKey(String sentence, boolean lastSentence) {
+      this.sentence = sentence;
+      this.lastSentence = lastSentence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      SentenceKey other = (SentenceKey) o;
+      return lastSentence == other.lastSentence && sentence.equals(other.sentence);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * sentence.hashCode() + (lastSentence ? 1 : 0);
+    }
+  }
+
+  private static class ParagraphKey {
+    private final List<String> sentences;
+    private final boolean lastParagraph;
+
+    ParagraphKey(List<String> sentences, boolean lastParagraph) {
+      this.sentences = sentences;
+      this.lastParagraph = lastParagraph;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ParagraphKey other = (ParagraphKey) o;
+      return lastParagraph == other.lastParagraph && sentences.equals(other.sentences);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * sentences.hashCode() + (lastParagraph ? 1 : 0);
+    }
+  }
+
+}
@@ -20,8 +20,11 @@ package org.languagetool;
 
 import org.languagetool.rules.CategoryId;
 
-import java.util.Objects;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 /**
  * For internal use only. Used as a key for caching check results.
@@ -57,6 +60,55 @@ class InputSentence {
   public String getText() {
     return text;
   }
+
+  /**
+   * A 128 bit hash of all fields, used as the key in {@link SerializedMatchesStore}.
+   * Unlike {@link #hashCode()}, this is stable across JVM runs.
+   * @return two longs, the high and the low part of the hash
+   * @since 4.3
+   */
+  long[] getDigest() {
+    StringBuilder sb = new StringBuilder(text.length() + 200);
+    sb.append(text).append('\u0000');
+    appendLanguage(sb, lang);
+    appendLanguage(sb, motherTongue);
+    appendSorted(sb, disabledRules);
+    appendSorted(sb, disabledRuleCategories);
+    appendSorted(sb, enabledRules);
+    appendSorted(sb, enabledRuleCategories);
+    if (userConfig != null) {
+      sb.append(userConfig.getAcceptedWords()).append('\u0000');
+      sb.append(userConfig.getMaxSpellingSuggestions()).append('\u0000');
+      sb.append(new TreeMap<>(userConfig.getConfigValues())).append('\u0000');
+    }
+    sb.append(mode);
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+      ByteBuffer buffer = ByteBuffer.wrap(hash);
+      return new long[] {buffer.getLong(), buffer.getLong()};
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);  // every JVM supports SHA-256
+    }
+  }
+
+  private static void appendLanguage(StringBuilder sb, Language lang) {
+    if (lang != null) {
+      sb.append(lang.getClass().getName()).append('/').append(lang.getLocale());
+    }
+    sb.append('\u0000');
+  }
+
+  private static void appendSorted(StringBuilder sb, Set<?> set) {
+    if (set != null) {
+      List<String> items = new ArrayList<>();
+      for (Object item : set) {
+        items.add(item.toString());
+      }
+      Collections.sort(items);
+      sb.append(items);
+    }
+    sb.append('\u0000');
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -30,7 +30,10 @@ import org.languagetool.rules.neuralnetwork.Word2VecModel;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.FalseFriendRuleLoader;
 import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternRuleAutomaton;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.rules.patterns.PatternRuleLoader;
+import org.languagetool.rules.patterns.RegexPredicate;
 import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.xml.sax.SAXException;
 
@@ -160,6 +163,11 @@ public class JLanguageTool {
   private boolean listUnknownWords;
   private Set<String> unknownWords;
   private boolean cleanOverlappingMatches;
+  private RuleTimingListener ruleTimingListener;
+  private long lastAnalysisNanos;
+  private long lastRuleMatchingNanos;
+  private PatternRuleIndex patternRuleIndex;
+  private PatternRuleAutomaton patternRuleAutomaton;
 
   /**
    * Constants for correct paragraph-rule handling.
@@ -270,6 +278,7 @@ public class JLanguageTool {
     try {
       activateDefaultPatternRules();
       activateDefaultFalseFriendRules();
+      patternRuleIndex = language.getUseDataBroker().getPatternRuleIndex();
     } catch (Exception e) {
       throw new RuntimeException("Could not activate rules", e);
     }
@@ -367,6 +376,54 @@ public class JLanguageTool {
     this.cleanOverlappingMatches = cleanOverlappingMatches;
   }
 
+  /**
+   * Set a listener that gets notified about the time each rule needs for matching,
+   * e.g. a {@link RuleTimings} object to find the rules that use most of the CPU.
+   * Set to {@code null} (the default) to disable timing.
+   * @since 4.3
+   */
+  public void setRuleTimingListener(@Nullable RuleTimingListener ruleTimingListener) {
+    this.ruleTimingListener = ruleTimingListener;
+  }
+
+  /**
+   * @since 4.3
+   */
+  @Nullable
+  public RuleTimingListener getRuleTimingListener() {
+    return ruleTimingListener;
+  }
+
+  /**
+   * The time the last call to one of the {@code check()} methods spent analyzing
+   * (tokenizing, tagging, disambiguating) the sentences, in nanoseconds.
+   * @since 4.3
+   */
+  public long getLastAnalysisNanos() {
+    return lastAnalysisNanos;
+  }
+
+  /**
+   * The time the last call to one of the {@code check()} methods spent matching the
+   * rules against the analyzed sentences, in nanoseconds.
+   * @since 4.3
+   */
+  public long getLastRuleMatchingNanos() {
+    return lastRuleMatchingNanos;
+  }
+
+  /**
+   * If set to {@code true}, all pattern rules of the language are compiled into one
+   * automaton that finds the rules which might match a sentence in a single pass over the
+   * sentence. Only these rules are then checked with the usual per-rule matching.
+   * This uses more memory but can be faster for languages with many pattern rules.
+   * @since 4.3
+   */
+  @Experimental
+  public void setUsePatternRuleAutomaton(boolean usePatternRuleAutomaton) throws Exception {
+    patternRuleAutomaton = usePatternRuleAutomaton ? language.getUseDataBroker().getPatternRuleAutomaton() : null;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop with an exception if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -706,10 +763,28 @@ public class JLanguageTool {
       return check(new LinkedHashSet<>(getAllRules()), annotatedText, tokenizeText, paraMode, listener, mode);
   }
 
+  /**
+   * The same as {@link #check(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode)}, but
+   * sentences and paragraphs that haven't changed since the last check with the same {@code session}
+   * are not analyzed and checked again. The result is the same as without a session. With a session,
+   * sentences are always checked in the calling thread.
+   * @since 4.3
+   */
+  @Experimental
+  public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
+                               Mode mode, CheckSession session) throws Exception {
+    return check(new LinkedHashSet<>(getAllRules()), annotatedText, tokenizeText, paraMode, listener, mode, Objects.requireNonNull(session));
+  }
+
   /**
    * Checks a specific list of rules.
    */
   public List<RuleMatch> check(Set<Rule> rules, AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener, Mode mode) throws Exception {
+    return check(rules, annotatedText, tokenizeText, paraMode, listener, mode, null);
+  }
+
+  private List<RuleMatch> check(Set<Rule> rules, AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode,
+                                RuleMatchListener listener, Mode mode, @Nullable CheckSession session) throws Exception {
       List<String> sentences;
       if (tokenizeText) {
         sentences = sentenceTokenize(annotatedText.getPlainText());
@@ -718,10 +793,26 @@ public class JLanguageTool {
         sentences.add(annotatedText.getPlainText());
       }
       unknownWords = new HashSet<>();
-      List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+      long analysisStart = System.nanoTime();
+      List<AnalyzedSentence> analyzedSentences;
+      if (session == null) {
+        analyzedSentences = analyzeSentences(sentences);
+      } else {
+        session.begin(getSessionConfigKey(), paraMode, sentences);
+        analyzedSentences = analyzeSentences(sentences, session);
+      }
+      long ruleMatchingStart = System.nanoTime();
+      lastAnalysisNanos = ruleMatchingStart - analysisStart;
 
       // GTODO: Change list to set.
-      List<RuleMatch> ruleMatches = performCheck(analyzedSentences, sentences, new ArrayList<>(rules), paraMode, annotatedText, listener, mode);
+      List<RuleMatch> ruleMatches;
+      if (session == null) {
+        ruleMatches = performCheck(analyzedSentences, sentences, new ArrayList<>(rules), paraMode, annotatedText, listener, mode);
+      } else {
+        ruleMatches = performCheck(analyzedSentences, sentences, new ArrayList<>(rules), paraMode, annotatedText, listener, mode, session);
+        session.commit();
+      }
+      lastRuleMatchingNanos = System.nanoTime() - ruleMatchingStart;
       ruleMatches = new SameRuleGroupFilter().filter(ruleMatches);
       // no sorting: SameRuleGroupFilter sorts rule matches already
       if (cleanOverlappingMatches) {
@@ -778,6 +869,38 @@ public class JLanguageTool {
     return analyzedSentences;
   }
 
+  private List<AnalyzedSentence> analyzeSentences(List<String> sentences, CheckSession session) throws Exception {
+    List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
+    int j = 0;
+    for (String sentence : sentences) {
+      boolean lastSentence = ++j == sentences.size();
+      AnalyzedSentence analyzedSentence = session.getAnalyzedSentence(sentence, lastSentence);
+      if (analyzedSentence == null) {
+        analyzedSentence = getAnalyzedSentence(sentence);
+        if (lastSentence) {
+          AnalyzedTokenReadings[] anTokens = analyzedSentence.getTokens();
+          anTokens[anTokens.length - 1].setParagraphEnd();
+          analyzedSentence = new AnalyzedSentence(anTokens);
+        }
+        session.putAnalyzedSentence(sentence, lastSentence, analyzedSentence);
+      }
+      rememberUnknownWords(analyzedSentence);
+      analyzedSentences.add(analyzedSentence);
+      printSentenceInfo(analyzedSentence);
+    }
+    return analyzedSentences;
+  }
+
+  /**
+   * Everything besides the text that affects analysis and matches. The mode is left out as it only
+   * selects which rules run, not what they find, so sessions still help if clients alternate modes.
+   */
+  private InputSentence getSessionConfigKey() {
+    return new InputSentence("", language, motherTongue,
+            new HashSet<>(disabledRules), new HashSet<>(disabledRuleCategories),
+            new HashSet<>(enabledRules), new HashSet<>(enabledRuleCategories), userConfig, Mode.ALL);
+  }
+
   protected void printSentenceInfo(AnalyzedSentence analyzedSentence) {
     if (printStream != null) {
       printIfVerbose(analyzedSentence.toString());
@@ -805,6 +928,19 @@ public class JLanguageTool {
     }
   }
 
+  private List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences, List<Rule> allRules,
+                                       ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener, Mode mode,
+                                       CheckSession session) throws IOException {
+    Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1, listener, mode, session);
+    try {
+      return matcher.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * This is an internal method that's public only for technical reasons, please use one
    * of the {@link #check(String)} methods instead.
@@ -813,29 +949,59 @@ public class JLanguageTool {
   public List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
         List<Rule> rules, AnalyzedSentence analyzedSentence) throws Exception {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
-    for (Rule rule : rules) {
-      if (rule instanceof TextLevelRule) {
-        continue;
-      }
-      if (ignoreRule(rule)) {
-        continue;
-      }
-      if (rule instanceof PatternRule && ((PatternRule)rule).canBeIgnoredFor(analyzedSentence)) {
-        // this is a performance optimization, it should have no effect on matching logic
-        continue;
-      }
-      if (paraMode == ParagraphHandling.ONLYPARA) {
-        continue;
-      }
-      RuleMatch[] thisMatches = rule.match(analyzedSentence);
-      for (RuleMatch elem : thisMatches) {
-        sentenceMatches.add(elem);
+    PatternRuleIndex.Candidates candidates = patternRuleIndex != null ? patternRuleIndex.getCandidates(analyzedSentence) : null;
+    PatternRuleAutomaton.Candidates automatonCandidates = patternRuleAutomaton != null ? patternRuleAutomaton.getCandidates(analyzedSentence) : null;
+    // rules share compiled regular expressions, so remember their results for this sentence's tokens:
+    RegexPredicate.beginMemoization();
+    try {
+      for (Rule rule : rules) {
+        if (rule instanceof TextLevelRule) {
+          continue;
+        }
+        if (ignoreRule(rule)) {
+          continue;
+        }
+        // these are performance optimizations, they should have no effect on matching logic:
+        if (candidates != null && !candidates.mightMatch(rule)) {
+          continue;
+        }
+        if (automatonCandidates != null && !automatonCandidates.mightMatch(rule)) {
+          continue;
+        }
+        if (rule instanceof PatternRule && ((PatternRule)rule).canBeIgnoredFor(analyzedSentence)) {
+          continue;
+        }
+        if (paraMode == ParagraphHandling.ONLYPARA) {
+          continue;
+        }
+        RuleMatch[] thisMatches;
+        if (ruleTimingListener != null) {
+          long startTime = System.nanoTime();
+          thisMatches = match(rule, analyzedSentence, automatonCandidates);
+          ruleTimingListener.ruleTimed(rule, System.nanoTime() - startTime);
+        } else {
+          thisMatches = match(rule, analyzedSentence, automatonCandidates);
+        }
+        for (RuleMatch elem : thisMatches) {
+          sentenceMatches.add(elem);
+        }
       }
+    } finally {
+      RegexPredicate.endMemoization();
     }
     List<RuleMatch> ret = new SameRuleGroupFilter().filter(sentenceMatches);
     return ret;
   }
 
+  private RuleMatch[] match(Rule rule, AnalyzedSentence analyzedSentence,
+                            @Nullable PatternRuleAutomaton.Candidates automatonCandidates) throws Exception {
+    if (automatonCandidates != null && rule instanceof PatternRule) {
+      // only try the positions where the rule's prefix has been found:
+      return ((PatternRule) rule).match(analyzedSentence, automatonCandidates.getStartPositions(rule));
+    }
+    return rule.match(analyzedSentence);
+  }
+
   private boolean ignoreRule(Rule rule) {
     Category ruleCategory = rule.getCategory();
     boolean isCategoryDisabled = (disabledRuleCategories.contains(ruleCategory.getId()) || rule.getCategory().isDefaultOff())
@@ -899,6 +1065,38 @@ public class JLanguageTool {
     return thisMatch;
   }
 
+  /**
+   * Get the column at the end of {@code sentence}, given the column at its start.
+   * @since 4.3
+   */
+  protected int getColumnCountAfter(String sentence, int columnCount) throws Exception {
+    int lineBreakPos = sentence.lastIndexOf('\n');
+    if (lineBreakPos == -1) {
+      return columnCount + sentence.length();
+    }
+    if (lineBreakPos == 0) {
+      int newColumnCount = sentence.length();
+      if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
+        newColumnCount--;
+      }
+      return newColumnCount;
+    }
+    return sentence.length() - lineBreakPos;
+  }
+
+  /**
+   * @throws ErrorRateTooHighException if more than {@code maxErrorsPerWordRate} of the words have an error
+   * @since 4.3
+   */
+  protected void checkErrorRate(int matchCount, int wordCount) {
+    float errorsPerWord = matchCount / (float)wordCount;
+    //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + matchCount + " / " + wordCount + ")");
+    if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCount > 25) {
+      throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
+              "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + language.getName());
+    }
+  }
+
   protected void rememberUnknownWords(AnalyzedSentence analyzedText) {
     if (listUnknownWords) {
       AnalyzedTokenReadings[] atr = analyzedText.getTokensWithoutWhitespace();
@@ -1171,14 +1369,23 @@ public class JLanguageTool {
     private final List<AnalyzedSentence> analyzedSentences;
     private final RuleMatchListener listener;
     private final Mode mode;
+    private final CheckSession session;
 
     private int charCount;
     private int lineCount;
     private int columnCount;
 
+    private Map<String, Rule> rulesByKey;  // lazily built, only needed to decode matches from the cache's second tier
+
     TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
                       RuleMatchListener listener, Mode mode) {
+      this(rules, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode, null);
+    }
+
+    TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount,
+                      RuleMatchListener listener, Mode mode, @Nullable CheckSession session) {
       this.rules = rules;
       if (sentences.size() != analyzedSentences.size()) {
         throw new IllegalArgumentException("sentences and analyzedSentences do not have the same length : " + sentences.size() + " != " + analyzedSentences.size());
@@ -1192,6 +1399,7 @@ public class JLanguageTool {
       this.columnCount = columnCount;
       this.listener = listener;
       this.mode = Objects.requireNonNull(mode);
+      this.session = session;
     }
 
     @Override
@@ -1211,30 +1419,34 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private List<RuleMatch> getTextLevelRuleMatches() throws Exception {
+    List<RuleMatch> getTextLevelRuleMatches() throws Exception {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       for (Rule rule : rules) {
         if (rule instanceof TextLevelRule && !ignoreRule(rule) && paraMode != ParagraphHandling.ONLYNONPARA) {
-          RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          TextLevelRule textLevelRule = (TextLevelRule) rule;
+          long startTime = System.nanoTime();
           List<RuleMatch> adaptedMatches = new ArrayList<>();
-          for (RuleMatch match : matches) {
-            LineColumnRange range = getLineColumnRange(match);
-            int newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos());
-            int newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1) + 1;
-            RuleMatch newMatch = new RuleMatch(match.getRule(), match.getSentence(), newFromPos, newToPos, match.getMessage(), match.getShortMessage());
-            newMatch.setUrl(match.getUrl());
-            newMatch.setLine(range.from.line);
-            newMatch.setEndLine(range.to.line);
-            if (match.getLine() == 0) {
-              newMatch.setColumn(range.from.column + 1);
-            } else {
-              newMatch.setColumn(range.from.column);
+          if (session != null && textLevelRule.isParagraphLocal()) {
+            addParagraphMatches(textLevelRule, adaptedMatches);
+          } else {
+            RuleMatch[] matches = null;
+            String ruleKey = null;
+            if (session != null) {
+              ruleKey = RuleMatchCodec.getRuleKey(rule);
+              matches = session.getTextMatches(ruleKey);
+            }
+            if (matches == null) {
+              matches = textLevelRule.match(analyzedSentences, annotatedText);
+            }
+            if (session != null) {
+              session.putTextMatches(ruleKey, matches);
             }
-            newMatch.setEndColumn(range.to.column);
-            newMatch.setSuggestedReplacements(match.getSuggestedReplacements());
-            newMatch.setSynonymsFor(match.getSynonymsFor());
-            newMatch.setType(match.getType());
-            adaptedMatches.add(newMatch);
+            for (RuleMatch match : matches) {
+              adaptedMatches.add(adaptTextLevelMatch(match, 0));
+            }
+          }
+          if (ruleTimingListener != null) {
+            ruleTimingListener.ruleTimed(rule, System.nanoTime() - startTime);
           }
           ruleMatches.addAll(adaptedMatches);
           if (listener != null) {
@@ -1247,27 +1459,85 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private List<RuleMatch> getOtherRuleMatches() {
+    /**
+     * Runs a paragraph-local rule on each paragraph whose matches aren't known from the session's last check.
+     */
+    private void addParagraphMatches(TextLevelRule rule, List<RuleMatch> adaptedMatches) throws Exception {
+      String ruleKey = RuleMatchCodec.getRuleKey(rule);
+      int from = 0;
+      int offset = 0;
+      for (int i = 0; i < analyzedSentences.size(); i++) {
+        boolean lastSentence = i == analyzedSentences.size() - 1;
+        if (lastSentence || analyzedSentences.get(i).hasParagraphEndMark(language)) {
+          List<String> paragraph = sentences.subList(from, i + 1);
+          RuleMatch[] matches = session.getParagraphMatches(ruleKey, paragraph, lastSentence);
+          if (matches == null) {
+            matches = rule.match(analyzedSentences.subList(from, i + 1), annotatedText);
+            session.putParagraphMatches(ruleKey, new ArrayList<>(paragraph), lastSentence, matches);
+          }
+          for (RuleMatch match : matches) {
+            adaptedMatches.add(adaptTextLevelMatch(match, offset));
+          }
+          for (int j = from; j <= i; j++) {
+            offset += analyzedSentences.get(j).getText().length();
+          }
+          from = i + 1;
+        }
+      }
+    }
+
+    /**
+     * @param offset position of the text the rule was run on, relative to the complete text
+     */
+    private RuleMatch adaptTextLevelMatch(RuleMatch match, int offset) {
+      int fromPos = match.getFromPos() + offset;
+      int toPos = match.getToPos() + offset;
+      LineColumnRange range = getLineColumnRange(fromPos, toPos);
+      int newFromPos = annotatedText.getOriginalTextPositionFor(fromPos);
+      int newToPos = annotatedText.getOriginalTextPositionFor(toPos - 1) + 1;
+      RuleMatch newMatch = new RuleMatch(match.getRule(), match.getSentence(), newFromPos, newToPos, match.getMessage(), match.getShortMessage());
+      newMatch.setUrl(match.getUrl());
+      newMatch.setLine(range.from.line);
+      newMatch.setEndLine(range.to.line);
+      if (match.getLine() == 0) {
+        newMatch.setColumn(range.from.column + 1);
+      } else {
+        newMatch.setColumn(range.from.column);
+      }
+      newMatch.setEndColumn(range.to.column);
+      newMatch.setSuggestedReplacements(match.getSuggestedReplacements());
+      newMatch.setSynonymsFor(match.getSynonymsFor());
+      newMatch.setType(match.getType());
+      return newMatch;
+    }
+
+    List<RuleMatch> getOtherRuleMatches() {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       int i = 0;
       int wordCounter = 0;
       for (AnalyzedSentence analyzedSentence : analyzedSentences) {
         String sentence = sentences.get(i++);
+        boolean lastSentence = i == sentences.size();
         wordCounter += analyzedSentence.getTokensWithoutWhitespace().length;
         try {
-          List<RuleMatch> sentenceMatches = null;
-          InputSentence cacheKey = null;
-          if (cache != null) {
-            cacheKey = new InputSentence(analyzedSentence.getText(), language, motherTongue,
-                    disabledRules, disabledRuleCategories,
-                    enabledRules, enabledRuleCategories, userConfig, mode);
-            sentenceMatches = cache.getIfPresent(cacheKey);
-          }
+          List<RuleMatch> sentenceMatches = session != null ? session.getSentenceMatches(sentence, lastSentence) : null;
           if (sentenceMatches == null) {
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules, analyzedSentence);
+            InputSentence cacheKey = null;
+            if (cache != null) {
+              cacheKey = new InputSentence(analyzedSentence.getText(), language, motherTongue,
+                      disabledRules, disabledRuleCategories,
+                      enabledRules, enabledRuleCategories, userConfig, mode);
+              sentenceMatches = cache.getIfPresent(cacheKey, analyzedSentence, this::getRuleByKey);
+            }
+            if (sentenceMatches == null) {
+              sentenceMatches = checkAnalyzedSentence(paraMode, rules, analyzedSentence);
+            }
+            if (cache != null) {
+              cache.put(cacheKey, sentenceMatches);
+            }
           }
-          if (cache != null) {
-            cache.put(cacheKey, sentenceMatches);
+          if (session != null) {
+            session.putSentenceMatches(sentence, lastSentence, sentenceMatches);
           }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch elem : sentenceMatches) {
@@ -1279,29 +1549,10 @@ public class JLanguageTool {
             }
           }
           ruleMatches.addAll(adaptedMatches);
-          float errorsPerWord = ruleMatches.size() / (float)wordCounter;
-          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + ruleMatches.size() + " / " + wordCounter + ")");
-          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCounter > 25) {
-            throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
-                    "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + language.getName());
-          }
+          checkErrorRate(ruleMatches.size(), wordCounter);
           charCount += sentence.length();
           lineCount += countLineBreaks(sentence);
-
-          // calculate matching column:
-          int lineBreakPos = sentence.lastIndexOf('\n');
-          if (lineBreakPos == -1) {
-            columnCount += sentence.length();
-          } else {
-            if (lineBreakPos == 0) {
-              columnCount = sentence.length();
-              if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
-                columnCount--;
-              }
-            } else {
-              columnCount = sentence.length() - lineBreakPos;
-            }
-          }
+          columnCount = getColumnCountAfter(sentence, columnCount);
         } catch (ErrorRateTooHighException e) {
           throw e;
         } catch (Exception e) {
@@ -1312,7 +1563,17 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private LineColumnRange getLineColumnRange(RuleMatch match) {
+    private Rule getRuleByKey(String key) {
+      if (rulesByKey == null) {
+        rulesByKey = new HashMap<>();
+        for (Rule rule : rules) {
+          rulesByKey.put(RuleMatchCodec.getRuleKey(rule), rule);
+        }
+      }
+      return rulesByKey.get(key);
+    }
+
+    private LineColumnRange getLineColumnRange(int matchFromPos, int matchToPos) {
       LineColumnPosition fromPos = new LineColumnPosition(-1, -1);
       LineColumnPosition toPos = new LineColumnPosition(-1, -1);
       LineColumnPosition pos = new LineColumnPosition(0, 0);
@@ -1326,10 +1587,10 @@ public class JLanguageTool {
           }
           pos.column += token.length();
           charCount += token.length();
-          if (charCount == match.getFromPos()) {
+          if (charCount == matchFromPos) {
             fromPos = new LineColumnPosition(pos.line, pos.column);
           }
-          if (charCount == match.getToPos()) {
+          if (charCount == matchToPos) {
             toPos = new LineColumnPosition(pos.line, pos.column);
           }
         }
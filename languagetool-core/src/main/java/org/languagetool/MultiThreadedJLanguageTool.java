@@ -20,12 +20,20 @@ package org.languagetool;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.ThreadFactory;
 
 import org.languagetool.markup.AnnotatedText;
@@ -47,6 +55,10 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
   private final int threadPoolSize;
   private final ExecutorService threadPool;
 
+  private ForkJoinPool workStealingPool;
+  private boolean workStealing;
+  private RuleTimings ruleCosts;
+
   public MultiThreadedJLanguageTool(Language language) throws Exception {
     this(language, null);
   }
@@ -94,6 +106,9 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
    */
   public void shutdown() {
     threadPool.shutdownNow();
+    if (workStealingPool != null) {
+      workStealingPool.shutdownNow();
+    }
   }
 
   /**
@@ -102,6 +117,29 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
    */
   public void shutdownWhenDone() {
     threadPool.shutdown();
+    if (workStealingPool != null) {
+      workStealingPool.shutdown();
+    }
+  }
+
+  /**
+   * If set to {@code true}, the text is split by sentence instead of splitting
+   * the rules into one chunk per thread. The sentences are checked with all rules
+   * on a work-stealing {@link ForkJoinPool}, so threads that are done with cheap
+   * sentences help out with the expensive ones. This gives better load balancing
+   * for long texts and keeps rules with the same id together so that
+   * {@link org.languagetool.rules.SameRuleGroupFilter} works as expected.
+   * @since 4.3
+   */
+  public void setWorkStealing(boolean workStealing) {
+    this.workStealing = workStealing;
+  }
+
+  /**
+   * @since 4.3
+   */
+  public boolean isWorkStealing() {
+    return workStealing;
   }
 
   private static int getDefaultThreadCount() {
@@ -127,6 +165,34 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     return threadPool;
   }
 
+  /**
+   * Use the measured rule costs to split the rules so that each thread gets about the
+   * same amount of work. Without costs, the rules are split into chunks of equal size,
+   * so one thread might get all the expensive rules (e.g. spell checking) while the
+   * others finish early. To learn the costs while checking, set the same object as
+   * the {@link #setRuleTimingListener(RuleTimingListener) rule timing listener}.
+   * Has no effect in {@link #setWorkStealing(boolean) work-stealing} mode.
+   * @param ruleCosts the costs or {@code null} to split into chunks of equal size
+   * @since 4.3
+   */
+  public void setRuleCosts(RuleTimings ruleCosts) {
+    this.ruleCosts = ruleCosts;
+  }
+
+  /**
+   * @return the work-stealing pool used to check sentences in parallel, see {@link #setWorkStealing(boolean)}
+   * @since 4.3
+   */
+  protected synchronized ForkJoinPool getWorkStealingPool() {
+    if (workStealingPool == null) {
+      workStealingPool = new ForkJoinPool(getThreadPoolSize(), new DaemonForkJoinWorkerThreadFactory(), null, false);
+      if (threadPool.isShutdown()) {
+        workStealingPool.shutdown();
+      }
+    }
+    return workStealingPool;
+  }
+
   @Override
   protected List<AnalyzedSentence> analyzeSentences(List<String> sentences) throws IOException {
     List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
@@ -169,6 +235,10 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     int lineCount = 0;
     int columnCount = 1;
 
+    if (workStealing) {
+      return performSentenceParallelCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, listener, mode);
+    }
+
     List<RuleMatch> ruleMatches = new ArrayList<>();
 
     ExecutorService executorService = getExecutorService();
@@ -186,9 +256,73 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     return ruleMatches;
   }
 
+  private List<RuleMatch> performSentenceParallelCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentences,
+       List<Rule> allRules, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener, Mode mode) {
+    // the positions of the sentences depend on all sentences before them, so they are
+    // calculated up front - this is cheap compared to rule matching:
+    int[] charCounts = new int[sentences.size()];
+    int[] lineCounts = new int[sentences.size()];
+    int[] columnCounts = new int[sentences.size()];
+    int charCount = 0;
+    int lineCount = 0;
+    int columnCount = 1;
+    try {
+      for (int i = 0; i < sentences.size(); i++) {
+        charCounts[i] = charCount;
+        lineCounts[i] = lineCount;
+        columnCounts[i] = columnCount;
+        String sentence = sentences.get(i);
+        charCount += sentence.length();
+        lineCount += countLineBreaks(sentence);
+        columnCount = getColumnCountAfter(sentence, columnCount);
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Could not calculate sentence positions (language: " + getLanguage() + ")", e);
+    }
+
+    ForkJoinPool pool = getWorkStealingPool();
+    ForkJoinTask<List<RuleMatch>> textLevelTask = null;
+    if (mode == Mode.ALL || mode == Mode.TEXTLEVEL_ONLY) {
+      TextCheckCallable textLevelCallable = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1, listener, mode);
+      textLevelTask = pool.submit(textLevelCallable::getTextLevelRuleMatches);
+    }
+    List<RuleMatch> ruleMatches = new ArrayList<>();
+    try {
+      if (mode == Mode.ALL || mode == Mode.ALL_BUT_TEXTLEVEL_ONLY) {
+        List<RuleMatch> sentenceMatches = pool.invoke(new SentenceCheckTask(0, sentences.size(), analyzedSentences, sentences,
+                allRules, paraMode, annotatedText, listener, mode, charCounts, lineCounts, columnCounts));
+        int wordCount = 0;
+        for (AnalyzedSentence analyzedSentence : analyzedSentences) {
+          wordCount += analyzedSentence.getTokensWithoutWhitespace().length;
+        }
+        checkErrorRate(sentenceMatches.size(), wordCount);
+        if (textLevelTask != null) {
+          ruleMatches.addAll(textLevelTask.get());
+        }
+        ruleMatches.addAll(sentenceMatches);
+      } else if (textLevelTask != null) {
+        ruleMatches.addAll(textLevelTask.get());
+      }
+    } catch (InterruptedException | ExecutionException e) {
+      throw new RuntimeException(e);
+    } finally {
+      if (textLevelTask != null) {
+        textLevelTask.cancel(true);
+      }
+    }
+    return ruleMatches;
+  }
+
   private List<Callable<List<RuleMatch>>> createTextCheckCallables(ParagraphHandling paraMode,
        AnnotatedText annotatedText, List<AnalyzedSentence> analyzedSentences, List<String> sentences,
        List<Rule> allRules, int charCount, int lineCount, int columnCount, RuleMatchListener listener, Mode mode) {
+    if (ruleCosts != null && !ruleCosts.getRuleIds().isEmpty()) {
+      List<Callable<List<RuleMatch>>> callables = new ArrayList<>();
+      for (List<Rule> subRules : splitRulesByCost(allRules, getThreadPoolSize())) {
+        callables.add(new TextCheckCallable(subRules, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount, listener, mode));
+      }
+      return callables;
+    }
     int threads = getThreadPoolSize();
     int totalRules = allRules.size();
     int chunkSize = totalRules / threads;
@@ -212,6 +346,110 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     return callables;
   }
 
+  /**
+   * Split the rules so that the sum of the costs is about the same for all chunks. Rules with the
+   * same id always end up in the same chunk, and each chunk keeps the original order of the rules.
+   */
+  List<List<Rule>> splitRulesByCost(List<Rule> allRules, int chunkCount) {
+    Map<String, List<Rule>> rulesById = new LinkedHashMap<>();
+    for (Rule rule : allRules) {
+      rulesById.computeIfAbsent(rule.getId(), k -> new ArrayList<>()).add(rule);
+    }
+    Map<String, Long> costs = new HashMap<>();
+    long knownCostSum = 0;
+    int knownCostCount = 0;
+    for (String ruleId : rulesById.keySet()) {
+      long cost = ruleCosts.getTotalNanos(ruleId);
+      if (cost > 0) {
+        costs.put(ruleId, cost);
+        knownCostSum += cost;
+        knownCostCount++;
+      }
+    }
+    // rules that haven't been timed yet are assumed to have average cost:
+    long defaultCost = knownCostCount > 0 ? Math.max(1, knownCostSum / knownCostCount) : 1;
+    List<String> ruleIds = new ArrayList<>(rulesById.keySet());
+    ruleIds.sort(Comparator.comparingLong((String id) -> costs.getOrDefault(id, defaultCost)).reversed());
+    // greedy: the most expensive rules first, each to the chunk with the lowest cost so far
+    long[] chunkCosts = new long[chunkCount];
+    Map<String, Integer> chunkForId = new HashMap<>();
+    for (String ruleId : ruleIds) {
+      int minChunk = 0;
+      for (int i = 1; i < chunkCount; i++) {
+        if (chunkCosts[i] < chunkCosts[minChunk]) {
+          minChunk = i;
+        }
+      }
+      chunkCosts[minChunk] += costs.getOrDefault(ruleId, defaultCost);
+      chunkForId.put(ruleId, minChunk);
+    }
+    List<List<Rule>> chunks = new ArrayList<>();
+    for (int i = 0; i < chunkCount; i++) {
+      chunks.add(new ArrayList<>());
+    }
+    for (Rule rule : allRules) {
+      chunks.get(chunkForId.get(rule.getId())).add(rule);
+    }
+    return chunks;
+  }
+
+  /**
+   * Checks a range of sentences, splitting it in halves until only one sentence is left.
+   * The results are merged in sentence order.
+   */
+  private class SentenceCheckTask extends RecursiveTask<List<RuleMatch>> {
+    private final int from;
+    private final int to;
+    private final List<AnalyzedSentence> analyzedSentences;
+    private final List<String> sentences;
+    private final List<Rule> rules;
+    private final ParagraphHandling paraMode;
+    private final AnnotatedText annotatedText;
+    private final RuleMatchListener listener;
+    private final Mode mode;
+    private final int[] charCounts;
+    private final int[] lineCounts;
+    private final int[] columnCounts;
+
+    private SentenceCheckTask(int from, int to, List<AnalyzedSentence> analyzedSentences, List<String> sentences,
+                              List<Rule> rules, ParagraphHandling paraMode, AnnotatedText annotatedText,
+                              RuleMatchListener listener, Mode mode, int[] charCounts, int[] lineCounts, int[] columnCounts) {
+      this.from = from;
+      this.to = to;
+      this.analyzedSentences = analyzedSentences;
+      this.sentences = sentences;
+      this.rules = rules;
+      this.paraMode = paraMode;
+      this.annotatedText = annotatedText;
+      this.listener = listener;
+      this.mode = mode;
+      this.charCounts = charCounts;
+      this.lineCounts = lineCounts;
+      this.columnCounts = columnCounts;
+    }
+
+    @Override
+    protected List<RuleMatch> compute() {
+      if (to - from <= 1) {
+        if (to == from) {
+          return new ArrayList<>();
+        }
+        TextCheckCallable callable = new TextCheckCallable(rules, sentences.subList(from, to), analyzedSentences.subList(from, to),
+                paraMode, annotatedText, charCounts[from], lineCounts[from], columnCounts[from], listener, mode);
+        return callable.getOtherRuleMatches();
+      }
+      int middle = (from + to) >>> 1;
+      SentenceCheckTask left = new SentenceCheckTask(from, middle, analyzedSentences, sentences, rules, paraMode,
+              annotatedText, listener, mode, charCounts, lineCounts, columnCounts);
+      SentenceCheckTask right = new SentenceCheckTask(middle, to, analyzedSentences, sentences, rules, paraMode,
+              annotatedText, listener, mode, charCounts, lineCounts, columnCounts);
+      right.fork();
+      List<RuleMatch> ruleMatches = left.compute();
+      ruleMatches.addAll(right.join());
+      return ruleMatches;
+    }
+  }
+
   private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
     private final String sentence;
 
@@ -249,4 +487,14 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       return thread;
     }
   }
+
+  private static class DaemonForkJoinWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setDaemon(true);
+      thread.setName("lt-multithread-ws");
+      return thread;
+    }
+  }
 }
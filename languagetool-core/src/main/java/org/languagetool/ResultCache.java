@@ -20,11 +20,22 @@ package org.languagetool;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -41,6 +52,10 @@ public class ResultCache {
 
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  private final LayerCounters<InputSentence, List<RuleMatch>> matchesCounters;
+  private final LayerCounters<SimpleInputSentence, AnalyzedSentence> sentenceCounters;
+
+  private volatile SerializedMatchesStore secondTier;
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -55,22 +70,106 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, int expireAfter, TimeUnit timeUnit) {
-    if (maxSize < 0) {
-      throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
-    }
+    this(checkSize(maxSize), new MatchesWeigher(), new SentenceWeigher(), expireAfter, timeUnit);
+  }
+
+  private ResultCache(long maxSize, Weigher<InputSentence, List<RuleMatch>> matchesWeigher,
+                      Weigher<SimpleInputSentence, AnalyzedSentence> sentenceWeigher, int expireAfter, TimeUnit timeUnit) {
+    matchesCounters = new LayerCounters<>(matchesWeigher);
+    sentenceCounters = new LayerCounters<>(sentenceWeigher);
     matchesCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
+            maximumWeight(maxSize/2).weigher(matchesCounters).
+            removalListener(this::onMatchesRemoval).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
     sentenceCache = CacheBuilder.newBuilder().
-            maximumWeight(maxSize/2).weigher(new SentenceWeigher()).
+            maximumWeight(maxSize/2).weigher(sentenceCounters).
+            removalListener(sentenceCounters).
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
   }
-  
-  class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
+
+  /**
+   * Create a cache that is limited by the estimated number of bytes its entries retain on the heap,
+   * instead of by the number of sentences. Half of the budget is used for the rule matches, the other
+   * half for the analyzed sentences. The sizes are estimates for a 64 bit JVM with compressed references.
+   * @param maxBytes maximum estimated heap size of the cached data in bytes
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @since 4.3
+   */
+  public static ResultCache createWithHeapBudget(long maxBytes, int expireAfter, TimeUnit timeUnit) {
+    return new ResultCache(checkSize(maxBytes), new RetainedSizeMatchesWeigher(), new RetainedSizeSentenceWeigher(), expireAfter, timeUnit);
+  }
+
+  private static long checkSize(long maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
+    }
+    return maxSize;
+  }
+
+  private void onMatchesRemoval(RemovalNotification<InputSentence, List<RuleMatch>> notification) {
+    matchesCounters.onRemoval(notification);
+    SerializedMatchesStore tier = secondTier;
+    if (tier != null && notification.wasEvicted() && notification.getKey() != null && notification.getValue() != null) {
+      putIntoSecondTier(tier, notification.getKey(), notification.getValue());
+    }
+  }
+
+  private static void putIntoSecondTier(SerializedMatchesStore tier, InputSentence key, List<RuleMatch> matches) {
+    long[] digest = key.getDigest();
+    tier.put(digest[0], digest[1], RuleMatchCodec.encode(matches));
+  }
+
+  /**
+   * Set a store that keeps the rule matches evicted from this cache in serialized form. Its
+   * entries are used by {@link #getIfPresent(InputSentence, AnalyzedSentence, Function)}.
+   * @param secondTier the store or {@code null} to not use a second tier
+   * @since 4.3
+   */
+  @Experimental
+  public void setSecondTier(@Nullable SerializedMatchesStore secondTier) {
+    this.secondTier = secondTier;
+  }
+
+  /** @since 4.3 */
+  @Experimental
+  @Nullable
+  public SerializedMatchesStore getSecondTier() {
+    return secondTier;
+  }
+
+  /**
+   * Copy all rule matches in this cache to the second tier and save it to {@code file}, e.g. on shutdown.
+   * Does nothing if no second tier has been set.
+   * @since 4.3
+   */
+  @Experimental
+  public void saveSecondTier(Path file) throws IOException {
+    SerializedMatchesStore tier = secondTier;
+    if (tier != null) {
+      for (Map.Entry<InputSentence, List<RuleMatch>> entry : matchesCache.asMap().entrySet()) {
+        putIntoSecondTier(tier, entry.getKey(), entry.getValue());
+      }
+      tier.save(file);
+    }
+  }
+
+  /**
+   * Load entries saved with {@link #saveSecondTier(Path)} into the second tier, e.g. on startup.
+   * Does nothing if no second tier has been set.
+   * @return the number of entries loaded
+   * @since 4.3
+   */
+  @Experimental
+  public int loadSecondTier(Path file) throws IOException {
+    SerializedMatchesStore tier = secondTier;
+    return tier != null ? tier.load(file) : 0;
+  }
+
+  static class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
     @Override
     public int weigh(InputSentence sentence, List<RuleMatch> matches) {
       // this is just a rough guesstimate so that the cacheSize given by the user
@@ -79,13 +178,143 @@ public class ResultCache {
     }
   }
   
-  class SentenceWeigher implements Weigher<SimpleInputSentence, AnalyzedSentence> {
+  static class SentenceWeigher implements Weigher<SimpleInputSentence, AnalyzedSentence> {
     @Override
     public int weigh(SimpleInputSentence sentence, AnalyzedSentence analyzedSentence) {
       return sentence.getText().length() / 75;
     }
   }
-  
+
+  static class RetainedSizeMatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
+    @Override
+    public int weigh(InputSentence sentence, List<RuleMatch> matches) {
+      return (int) Math.min(Integer.MAX_VALUE, RetainedSize.ofKey(sentence.getText()) + RetainedSize.of(matches));
+    }
+  }
+
+  static class RetainedSizeSentenceWeigher implements Weigher<SimpleInputSentence, AnalyzedSentence> {
+    @Override
+    public int weigh(SimpleInputSentence sentence, AnalyzedSentence analyzedSentence) {
+      return (int) Math.min(Integer.MAX_VALUE, RetainedSize.ofKey(sentence.getText()) + RetainedSize.of(analyzedSentence));
+    }
+  }
+
+  /**
+   * Rough estimates of the heap memory retained by cache entries, for a 64 bit JVM with compressed
+   * references. Strings that are usually shared (e.g. a reading's token, which is the same object
+   * as the token of its {@link AnalyzedTokenReadings}) are only counted once. The sentence that a
+   * {@link RuleMatch} refers to is not counted, as it's accounted for by the sentence layer.
+   */
+  static final class RetainedSize {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY_HEADER = 16;
+    private static final int STRING = 24;
+    private static final int ARRAY_LIST = 24;
+    private static final int HASH_SET = 16 + 48;  // HashSet plus its HashMap
+    private static final int HASH_SET_ENTRY = 32 + REFERENCE;  // HashMap.Node plus its share of the table
+    private static final int KEY = 64;  // InputSentence etc. without the text
+
+    private RetainedSize() {
+    }
+
+    static long ofKey(String text) {
+      return KEY + of(text);
+    }
+
+    static long of(String s) {
+      // assume two bytes per character, as on Java 8:
+      return s == null ? 0 : align(STRING) + align(ARRAY_HEADER + 2L * s.length());
+    }
+
+    static long of(AnalyzedSentence sentence) {
+      AnalyzedTokenReadings[] tokens = sentence.getTokens();
+      int nonBlankCount = sentence.getTokensWithoutWhitespace().length;
+      long size = align(OBJECT_HEADER + 5 * REFERENCE)
+              + referenceArray(tokens.length)
+              + referenceArray(nonBlankCount)
+              + align(ARRAY_HEADER + 4L * nonBlankCount)  // whitespace position mapping
+              + align(HASH_SET) + sentence.getTokenSet().size() * HASH_SET_ENTRY
+              + align(HASH_SET) + sentence.getLemmaSet().size() * HASH_SET_ENTRY;
+      for (AnalyzedTokenReadings token : tokens) {
+        size += of(token);
+      }
+      return size;
+    }
+
+    static long of(AnalyzedTokenReadings token) {
+      List<AnalyzedToken> readings = token.getReadings();
+      long size = align(OBJECT_HEADER + 3 * REFERENCE + 4 + 10)
+              + referenceArray(readings.size())
+              + of(token.getToken())
+              + align(ARRAY_LIST) + referenceArray(token.getChunkTags().size())
+              + token.getChunkTags().size() * align(OBJECT_HEADER + REFERENCE);
+      String annotations = token.getHistoricalAnnotations();
+      if (annotations != null && !annotations.isEmpty()) {
+        size += of(annotations);
+      }
+      for (AnalyzedToken reading : readings) {
+        size += align(OBJECT_HEADER + 4 * REFERENCE + 2) + of(reading.getPOSTag());
+        if (reading.getLemma() != null && !reading.getLemma().equals(token.getToken())) {
+          size += of(reading.getLemma());
+        }
+      }
+      return size;
+    }
+
+    static long of(List<RuleMatch> matches) {
+      long size = align(ARRAY_LIST) + referenceArray(matches.size());
+      for (RuleMatch match : matches) {
+        size += of(match);
+      }
+      return size;
+    }
+
+    static long of(RuleMatch match) {
+      // the match itself plus its position objects:
+      long size = align(OBJECT_HEADER + 11 * REFERENCE) + 3 * align(OBJECT_HEADER + 8)
+              + of(match.getMessage());
+      if (match.getShortMessage() != null && !match.getShortMessage().equals(match.getMessage())) {
+        size += of(match.getShortMessage());
+      }
+      List<String> replacements = match.getSuggestedReplacements();
+      size += align(ARRAY_LIST) + referenceArray(replacements.size());
+      for (String replacement : replacements) {
+        size += of(replacement);
+      }
+      return size;
+    }
+
+    private static long referenceArray(int length) {
+      return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    private static long align(long size) {
+      return (size + 7) & ~7L;
+    }
+  }
+
+  /**
+   * Hit/miss/eviction/load statistics of the rule matches cache.
+   * @since 4.3
+   */
+  public LayerStats getMatchesStats() {
+    return new LayerStats(matchesCache.stats(), matchesCounters, matchesCache.size());
+  }
+
+  /**
+   * Hit/miss/eviction/load statistics of the analyzed sentence cache.
+   * @since 4.3
+   */
+  public LayerStats getSentenceStats() {
+    return new LayerStats(sentenceCache.stats(), sentenceCounters, sentenceCache.size());
+  }
+
+  /**
+   * The average of the hit rates of the matches and the sentence cache,
+   * see {@link #getMatchesStats()} and {@link #getSentenceStats()} for the details.
+   */
   public double hitRate() {
     return (matchesCache.stats().hitRate() + sentenceCache.stats().hitRate()) / 2.0;
   }
@@ -102,15 +331,41 @@ public class ResultCache {
     return matchesCache.getIfPresent(key);
   }
 
+  /**
+   * Like {@link #getIfPresent(InputSentence)}, but also looks into the second tier, if any.
+   * Matches found there are moved back into the heap cache.
+   * @param sentence the sentence the matches refer to
+   * @param ruleLookup finds a rule by its id, or by its full id for pattern rules
+   * @since 4.3
+   */
+  @Nullable
+  List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) {
+    List<RuleMatch> matches = matchesCache.getIfPresent(key);
+    SerializedMatchesStore tier = secondTier;
+    if (matches == null && tier != null) {
+      long[] digest = key.getDigest();
+      byte[] data = tier.get(digest[0], digest[1]);
+      if (data != null) {
+        matches = RuleMatchCodec.decode(data, sentence, ruleLookup);
+        if (matches != null) {
+          matchesCache.put(key, matches);
+        }
+      }
+    }
+    return matches;
+  }
+
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
     return sentenceCache.getIfPresent(key);
   }
 
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
+    matchesCounters.loads.increment();
     matchesCache.put(key, sentenceMatches);
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
+    sentenceCounters.loads.increment();
     sentenceCache.put(key, aSentence);
   }
 
@@ -123,4 +378,101 @@ public class ResultCache {
   protected Cache<SimpleInputSentence, AnalyzedSentence> getSentenceCache() {
     return sentenceCache;
   }
+
+  /**
+   * Counts the results put into a cache layer and keeps track of the total weight of its entries
+   * by weighing entries again when they get removed.
+   */
+  private static class LayerCounters<K, V> implements Weigher<K, V>, RemovalListener<K, V> {
+    private final Weigher<K, V> weigher;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder weight = new LongAdder();
+
+    private LayerCounters(Weigher<K, V> weigher) {
+      this.weigher = weigher;
+    }
+
+    @Override
+    public int weigh(K key, V value) {
+      int w = weigher.weigh(key, value);
+      weight.add(w);
+      return w;
+    }
+
+    @Override
+    public void onRemoval(RemovalNotification<K, V> notification) {
+      if (notification.getKey() != null && notification.getValue() != null) {
+        weight.add(-weigher.weigh(notification.getKey(), notification.getValue()));
+      }
+    }
+  }
+
+  /**
+   * Statistics of one cache layer, i.e. the cache for rule matches or the one for analyzed sentences.
+   * @since 4.3
+   */
+  public static final class LayerStats {
+
+    private final CacheStats stats;
+    private final long loadCount;
+    private final long weight;
+    private final long size;
+
+    private LayerStats(CacheStats stats, LayerCounters<?, ?> counters, long size) {
+      this.stats = stats;
+      this.loadCount = counters.loads.sum();
+      this.weight = counters.weight.sum();
+      this.size = size;
+    }
+
+    public long getHitCount() {
+      return stats.hitCount();
+    }
+
+    public long getMissCount() {
+      return stats.missCount();
+    }
+
+    /**
+     * @return the hit rate, 1.0 if there have been no requests yet
+     */
+    public double getHitRate() {
+      return stats.hitRate();
+    }
+
+    /**
+     * The number of entries removed because of the size limit or because they expired.
+     */
+    public long getEvictionCount() {
+      return stats.evictionCount();
+    }
+
+    /**
+     * The number of results that have been computed and put into the cache.
+     */
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    /**
+     * The number of entries in the cache.
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * The total weight of the entries in the cache, i.e. the estimated number of bytes for a cache
+     * created with {@link #createWithHeapBudget(long, int, TimeUnit)}.
+     */
+    public long getWeight() {
+      return weight;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "hitRate=%.2f%%, hits=%d, misses=%d, evictions=%d, loads=%d, size=%d, weight=%d",
+              getHitRate() * 100, getHitCount(), getMissCount(), getEvictionCount(), loadCount, size, weight);
+    }
+  }
 }
@@ -0,0 +1,158 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of the rule matches of a sentence, as stored by {@link SerializedMatchesStore}.
+ * Rules are stored by id, the sentence is not stored at all, both need to be provided when decoding.
+ * @since 4.3
+ */
+final class RuleMatchCodec {
+
+  private static final int VERSION = 1;
+
+  private RuleMatchCodec() {
+  }
+
+  /**
+   * The id used to find the rule again when decoding, includes the sub id of pattern rules.
+   */
+  static String getRuleKey(Rule rule) {
+    return rule instanceof AbstractPatternRule ? ((AbstractPatternRule) rule).getFullId() : rule.getId();
+  }
+
+  static byte[] encode(List<RuleMatch> matches) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 128 * matches.size());
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(VERSION);
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        writeString(out, getRuleKey(match.getRule()));
+        out.writeInt(match.getFromPos());
+        out.writeInt(match.getToPos());
+        writeString(out, match.getMessage());
+        writeString(out, match.getShortMessage());
+        writeStrings(out, match.getSuggestedReplacements());
+        writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+        writeStrings(out, match.getSynonymsFor());
+        writeString(out, match.getType().name());
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException(e);  // can't happen for an in-memory stream
+    }
+  }
+
+  /**
+   * @param ruleLookup finds a rule by the key returned by {@link #getRuleKey(Rule)}, returns {@code null} if there's no such rule
+   * @return the matches or {@code null} if a rule could not be found or the data is from an incompatible version
+   */
+  @Nullable
+  static List<RuleMatch> decode(byte[] data, AnalyzedSentence sentence, Function<String, Rule> ruleLookup) {
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      if (in.readByte() != VERSION) {
+        return null;
+      }
+      int count = in.readInt();
+      List<RuleMatch> matches = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        Rule rule = ruleLookup.apply(readString(in));
+        if (rule == null) {
+          return null;
+        }
+        int fromPos = in.readInt();
+        int toPos = in.readInt();
+        String message = readString(in);
+        String shortMessage = readString(in);
+        RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, message, shortMessage);
+        match.setSuggestedReplacements(readStrings(in));
+        String url = readString(in);
+        if (url != null) {
+          match.setUrl(new URL(url));
+        }
+        match.setSynonymsFor(readStrings(in));
+        match.setType(RuleMatch.Type.valueOf(readString(in)));
+        matches.add(match);
+      }
+      return matches;
+    } catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeStrings(DataOutputStream out, @Nullable List<String> strings) throws IOException {
+    if (strings == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(strings.size());
+      for (String s : strings) {
+        writeString(out, s);
+      }
+    }
+  }
+
+  @Nullable
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    List<String> strings = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      strings.add(readString(in));
+    }
+    return strings;
+  }
+
+}
@@ -0,0 +1,38 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.Rule;
+
+/**
+ * Gets notified about the time each rule needs for matching. Use {@link RuleTimings}
+ * to collect statistics about these times.
+ * @since 4.3
+ */
+public interface RuleTimingListener {
+
+  /**
+   * Called after {@code rule} has been matched against one sentence or, for
+   * text-level rules, against the complete text. Might get called from
+   * several threads at the same time.
+   * @param nanos the time spent in the rule's {@code match()} method, in nanoseconds
+   */
+  void ruleTimed(Rule rule, long nanos);
+
+}
@@ -0,0 +1,200 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.Rule;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the number of calls, the total time and the distribution of times
+ * per rule id. Rules with the same id (e.g. the rules of a rule group) are counted
+ * together. Set an instance with {@link JLanguageTool#setRuleTimingListener(RuleTimingListener)}
+ * to profile rules, and with {@link MultiThreadedJLanguageTool#setRuleCosts(RuleTimings)}
+ * to balance the work of the threads by the measured costs. This class is thread-safe.
+ * @since 4.3
+ */
+public class RuleTimings implements RuleTimingListener, RuleTimingsMXBean {
+
+  private static final int SLOWEST_RULES_LIMIT = 20;
+
+  private final ConcurrentMap<String, Timing> timings = new ConcurrentHashMap<>();
+
+  @Override
+  public void ruleTimed(Rule rule, long nanos) {
+    timings.computeIfAbsent(rule.getId(), k -> new Timing()).add(nanos);
+  }
+
+  /**
+   * @return the ids of all rules that have been timed so far
+   */
+  public Set<String> getRuleIds() {
+    return Collections.unmodifiableSet(timings.keySet());
+  }
+
+  /**
+   * @return the number of {@code match()} calls of rules with the given id
+   */
+  public long getCount(String ruleId) {
+    Timing timing = timings.get(ruleId);
+    return timing != null ? timing.count.sum() : 0;
+  }
+
+  /**
+   * @return the time spent in {@code match()} calls of rules with the given id, in nanoseconds
+   */
+  public long getTotalNanos(String ruleId) {
+    Timing timing = timings.get(ruleId);
+    return timing != null ? timing.totalNanos.sum() : 0;
+  }
+
+  /**
+   * @param percentile a value between 0 and 100, e.g. {@code 99}
+   * @return an upper bound (accurate to about 25%) of the time in nanoseconds that the given
+   *   percentage of calls of rules with the given id needed, or {@code 0} if the rule has not been timed yet
+   */
+  public long getPercentileNanos(String ruleId, double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+    }
+    Timing timing = timings.get(ruleId);
+    return timing != null ? timing.getPercentileNanos(percentile) : 0;
+  }
+
+  @Override
+  public long getCallCount() {
+    long count = 0;
+    for (Timing timing : timings.values()) {
+      count += timing.count.sum();
+    }
+    return count;
+  }
+
+  @Override
+  public long getTotalNanos() {
+    long total = 0;
+    for (Timing timing : timings.values()) {
+      total += timing.totalNanos.sum();
+    }
+    return total;
+  }
+
+  @Override
+  public String[] getSlowestRules() {
+    List<String> ruleIds = new ArrayList<>(timings.keySet());
+    ruleIds.sort(Comparator.comparingLong((String ruleId) -> getTotalNanos(ruleId)).reversed());
+    List<String> result = new ArrayList<>();
+    for (String ruleId : ruleIds.subList(0, Math.min(SLOWEST_RULES_LIMIT, ruleIds.size()))) {
+      result.add(ruleId + ": count=" + getCount(ruleId) +
+              ", totalMillis=" + getTotalNanos(ruleId) / 1_000_000 +
+              ", p99Micros=" + getPercentileNanos(ruleId, 99) / 1000);
+    }
+    return result.toArray(new String[0]);
+  }
+
+  @Override
+  public void reset() {
+    timings.clear();
+  }
+
+  /**
+   * Register this object with the platform MBean server so the statistics
+   * can be inspected with JMX tools like jconsole.
+   * @param name a name that's unique among the registered {@code RuleTimings}, e.g. the language code
+   * @return the name the object has been registered with
+   */
+  public ObjectName registerMBean(String name) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName("org.languagetool:type=RuleTimings,name=" + ObjectName.quote(name));
+    server.registerMBean(this, objectName);
+    return objectName;
+  }
+
+  /**
+   * Counts and a histogram of the times. The histogram has {@code SUB_BUCKETS} linear
+   * buckets for each power of two so that percentiles don't need to keep all values.
+   */
+  static class Timing {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;  // ~18 minutes, larger values are counted in the last bucket
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    void add(long nanos) {
+      long value = Math.max(0, nanos);
+      count.increment();
+      totalNanos.add(value);
+      histogram.incrementAndGet(getBucket(value));
+    }
+
+    long getPercentileNanos(double percentile) {
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        total += histogram.get(i);
+      }
+      if (total == 0) {
+        return 0;
+      }
+      long threshold = (long) Math.ceil(total * percentile / 100.0);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += histogram.get(i);
+        if (seen >= threshold && seen > 0) {
+          return getUpperBound(i);
+        }
+      }
+      return getUpperBound(BUCKETS - 1);
+    }
+
+    static int getBucket(long nanos) {
+      if (nanos < SUB_BUCKETS) {
+        return (int) nanos;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+      if (exponent > MAX_EXPONENT) {
+        return BUCKETS - 1;
+      }
+      int subBucket = (int) ((nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long getUpperBound(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+        return bucket;
+      }
+      int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+      int subBucket = bucket % SUB_BUCKETS;
+      return ((SUB_BUCKETS + subBucket + 1L) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+  }
+
+}
@@ -0,0 +1,245 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An off-heap store for serialized cache entries, used as a second tier below the heap
+ * cache of {@link ResultCache}. Entries are appended to a ring buffer allocated outside of the
+ * Java heap, so the oldest entries get overwritten when the buffer is full. An index, also
+ * off-heap, maps the 128 bit key of an entry to its position. The store can be saved to
+ * and loaded from a file, so its entries survive restarts. The file contains the LanguageTool
+ * version and build date, and a file from another build is not loaded, as its rules may have
+ * changed and the entries would be stale.
+ * @since 4.3
+ */
+@Experimental
+public class SerializedMatchesStore {
+
+  private static final long FILE_MAGIC = 0x4c54_5253_4d53_0002L;
+  private static final int ENTRY_HEADER = 4 + 8 + 8;  // length, key
+  private static final int SLOT_SIZE = 8 + 8 + 8;     // key, position + 1 (0 = empty slot)
+  private static final int MAX_PROBES = 8;
+
+  private final ByteBuffer data;
+  private final ByteBuffer index;
+  private final int capacity;
+  private final int slotMask;
+  private final String build;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private long writePos;  // logical position, the physical one is writePos % capacity
+
+  /**
+   * @param capacityInBytes the size of the off-heap buffer for the entries, the index needs about 10% more
+   */
+  public SerializedMatchesStore(int capacityInBytes) {
+    this(capacityInBytes, JLanguageTool.VERSION + " " + JLanguageTool.BUILD_DATE);
+  }
+
+  /**
+   * @param build the LanguageTool build that creates the entries, files from other builds are not loaded
+   */
+  SerializedMatchesStore(int capacityInBytes, String build) {
+    if (capacityInBytes < 1024) {
+      throw new IllegalArgumentException("Capacity must be at least 1024 bytes: " + capacityInBytes);
+    }
+    this.capacity = capacityInBytes;
+    this.data = ByteBuffer.allocateDirect(capacityInBytes);
+    int slots = Integer.highestOneBit(Math.max(64, capacityInBytes / 256));
+    this.slotMask = slots - 1;
+    this.index = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+    this.build = build;
+  }
+
+  /**
+   * Store the data for the key, unless the data is larger than a quarter of the capacity.
+   */
+  public synchronized void put(long keyHi, long keyLo, byte[] value) {
+    int length = ENTRY_HEADER + value.length;
+    if (length > capacity / 4) {
+      return;
+    }
+    int physical = (int) (writePos % capacity);
+    if (physical + length > capacity) {
+      // entries don't wrap around, skip the rest of the buffer:
+      writePos += capacity - physical;
+      physical = 0;
+    }
+    data.putInt(physical, length);
+    data.putLong(physical + 4, keyHi);
+    data.putLong(physical + 12, keyLo);
+    ((Buffer) data).position(physical + ENTRY_HEADER);  // cast for Java 8 compatibility
+    data.put(value);
+    long entryPos = writePos;
+    writePos += align(length);
+    int slot = findSlotForPut(keyHi, keyLo);
+    int slotPos = slot * SLOT_SIZE;
+    index.putLong(slotPos, keyHi);
+    index.putLong(slotPos + 8, keyLo);
+    index.putLong(slotPos + 16, entryPos + 1);
+  }
+
+  /**
+   * @return the data stored for the key or {@code null}
+   */
+  public synchronized byte[] get(long keyHi, long keyLo) {
+    int slot = (int) keyLo & slotMask;
+    for (int i = 0; i < MAX_PROBES; i++) {
+      int slotPos = ((slot + i) & slotMask) * SLOT_SIZE;
+      long entryPos = index.getLong(slotPos + 16) - 1;
+      if (entryPos >= 0 && index.getLong(slotPos) == keyHi && index.getLong(slotPos + 8) == keyLo) {
+        byte[] value = isLive(entryPos) ? read(entryPos, keyHi, keyLo) : null;
+        if (value != null) {
+          hits.increment();
+          return value;
+        }
+        break;
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * The number of entries that can currently be found.
+   */
+  public synchronized int getEntryCount() {
+    return getLiveEntryPositions().length;
+  }
+
+  /**
+   * Write all entries that can currently be found to {@code file}, oldest first.
+   */
+  public synchronized void save(Path file) throws IOException {
+    long[] positions = getLiveEntryPositions();
+    Arrays.sort(positions);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+      out.writeLong(FILE_MAGIC);
+      out.writeUTF(build);
+      out.writeInt(positions.length);
+      for (long entryPos : positions) {
+        int physical = (int) (entryPos % capacity);
+        int length = data.getInt(physical);
+        out.writeLong(data.getLong(physical + 4));
+        out.writeLong(data.getLong(physical + 12));
+        byte[] value = new byte[length - ENTRY_HEADER];
+        ((Buffer) data).position(physical + ENTRY_HEADER);
+        data.get(value);
+        out.writeInt(value.length);
+        out.write(value);
+      }
+    }
+  }
+
+  /**
+   * Add the entries from a file written by {@link #save(Path)}.
+   * @return the number of entries read
+   * @throws IOException also if the file has been written by another LanguageTool build
+   */
+  public int load(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      if (in.readLong() != FILE_MAGIC) {
+        throw new IOException("Not a serialized matches file or unsupported version: " + file);
+      }
+      String fileBuild = in.readUTF();
+      if (!fileBuild.equals(build)) {
+        throw new IOException("Serialized matches file " + file + " is from LanguageTool " + fileBuild + ", not from " + build);
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        long keyHi = in.readLong();
+        long keyLo = in.readLong();
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        put(keyHi, keyLo, value);
+      }
+      return count;
+    }
+  }
+
+  private int findSlotForPut(long keyHi, long keyLo) {
+    int slot = (int) keyLo & slotMask;
+    int oldestSlot = slot;
+    long oldestPos = Long.MAX_VALUE;
+    for (int i = 0; i < MAX_PROBES; i++) {
+      int probe = (slot + i) & slotMask;
+      int slotPos = probe * SLOT_SIZE;
+      long entryPos = index.getLong(slotPos + 16) - 1;
+      if (entryPos < 0 || !isLive(entryPos) ||
+          (index.getLong(slotPos) == keyHi && index.getLong(slotPos + 8) == keyLo)) {
+        return probe;
+      }
+      if (entryPos < oldestPos) {
+        oldestPos = entryPos;
+        oldestSlot = probe;
+      }
+    }
+    return oldestSlot;
+  }
+
+  private boolean isLive(long entryPos) {
+    return entryPos >= writePos - capacity;
+  }
+
+  private byte[] read(long entryPos, long keyHi, long keyLo) {
+    int physical = (int) (entryPos % capacity);
+    int length = data.getInt(physical);
+    if (length < ENTRY_HEADER || data.getLong(physical + 4) != keyHi || data.getLong(physical + 12) != keyLo) {
+      return null;
+    }
+    byte[] value = new byte[length - ENTRY_HEADER];
+    ((Buffer) data).position(physical + ENTRY_HEADER);
+    data.get(value);
+    return value;
+  }
+
+  private long[] getLiveEntryPositions() {
+    long[] positions = new long[slotMask + 1];
+    int count = 0;
+    for (int slot = 0; slot <= slotMask; slot++) {
+      long entryPos = index.getLong(slot * SLOT_SIZE + 16) - 1;
+      if (entryPos >= 0 && isLive(entryPos)) {
+        positions[count++] = entryPos;
+      }
+    }
+    return Arrays.copyOf(positions, count);
+  }
+
+  private static long align(long length) {
+    return (length + 3) & ~3L;
+  }
+
+}
@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 import java.util.Scanner;
 import java.util.Objects;
 import java.util.Arrays;
+import java.util.WeakHashMap;
 import java.util.ResourceBundle;
 import java.util.PropertyResourceBundle;
 import java.text.MessageFormat;
@@ -48,6 +49,7 @@ import java.util.function.Function;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.base.Optional;
 
@@ -105,6 +107,7 @@ import org.languagetool.tagging.disambiguation.*;
 import org.languagetool.tagging.disambiguation.rules.*;
 import org.languagetool.tokenizers.*;
 import org.languagetool.chunking.Chunker;
+import org.languagetool.synthesis.BaseSynthesizer;
 import org.languagetool.synthesis.Synthesizer;
 import org.languagetool.languagemodel.*;
 import org.languagetool.rules.neuralnetwork.TwoLayerClassifier;
@@ -429,6 +432,15 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
     private Word2VecModel word2VecModel;
     private ResourceBundle messageBundle;
     private List<AbstractPatternRule> patternRules;
+    private PatternRuleIndex patternRuleIndex;
+    private PatternRuleAutomaton patternRuleAutomaton;
+    private int languageModelCacheSize;
+
+    // language code -> word form cache size of the synthesizers, see setSynthesizerCacheSize():
+    private static final Map<String, Integer> synthesizerCacheSizes = new HashMap<>();
+    // language code -> synthesizers created by the brokers of that language, weakly referenced,
+    // guards synthesizerCacheSizes too:
+    private static final Map<String, Set<BaseSynthesizer>> synthesizers = new HashMap<>();
     private Disambiguator disambiguator;
 
     private RuleFilterCreator ruleFilterCreator;
@@ -962,10 +974,26 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
               }
           }
       }
+      patternRuleIndex = new PatternRuleIndex(rules);
       patternRules = rules;
       return patternRules;
   }
 
+  @Override
+  @Nullable
+  public PatternRuleIndex getPatternRuleIndex() {
+      return patternRuleIndex;
+  }
+
+  @Override
+  @Nullable
+  public synchronized PatternRuleAutomaton getPatternRuleAutomaton() {
+      if (patternRuleAutomaton == null && patternRules != null) {
+          patternRuleAutomaton = new PatternRuleAutomaton(patternRules);
+      }
+      return patternRuleAutomaton;
+  }
+
   /**
    * See:
    * {@link ResourceDataBroker#getFromResourceDirAsStream(String)}
@@ -1231,7 +1259,8 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
    }
 
    /**
-    * Always return a null model, subclasses should override to return a real model.
+    * Always return a null model, subclasses should override to return a real model, usually by calling
+    * {@link #createLanguageModelFromResourcePath()}, which also applies the {@link #setLanguageModelCacheSize(int) count cache}.
     *
     * @return {@code null}.
     */
@@ -1240,6 +1269,103 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
        return null;
    }
 
+   /**
+    * Set the number of ngram counts to cache in front of the language model of this broker's language,
+    * see {@link CachingLanguageModel}. Must be called before the language model is loaded.
+    *
+    * @param size the maximum number of counts to cache, {@code 0} to not use a cache (the default)
+    * @since 4.3
+    */
+   public void setLanguageModelCacheSize(int size) {
+       if (size < 0) {
+           throw new IllegalArgumentException("Cache size must be >= 0: " + size);
+       }
+       languageModelCacheSize = size;
+   }
+
+   /**
+    * @since 4.3
+    */
+   public int getLanguageModelCacheSize() {
+       return languageModelCacheSize;
+   }
+
+   /**
+    * Set the number of word forms to cache in the synthesizers of a language, see {@link BaseSynthesizer#setCacheSize(int)}.
+    * Unlike {@link #setLanguageModelCacheSize(int)}, this applies to the synthesizers of all brokers of the language, as
+    * e.g. pattern rules use the synthesizer of their own {@link Language} object. It also applies to synthesizers that
+    * already exist.
+    *
+    * @param langCode the language code, e.g. {@code de}
+    * @param size the maximum number of lemma/tag combinations to cache per synthesizer, {@code 0} to not use a cache (the default)
+    * @since 4.3
+    */
+   public static void setSynthesizerCacheSize(String langCode, int size) {
+       if (size < 0) {
+           throw new IllegalArgumentException("Cache size must be >= 0: " + size);
+       }
+       synchronized (synthesizers) {
+           synthesizerCacheSizes.put(langCode, size);
+           for (BaseSynthesizer synthesizer : synthesizers.getOrDefault(langCode, Collections.emptySet())) {
+               synthesizer.setCacheSize(size);
+           }
+       }
+   }
+
+   /**
+    * @since 4.3
+    */
+   public static int getSynthesizerCacheSize(String langCode) {
+       synchronized (synthesizers) {
+           return synthesizerCacheSizes.getOrDefault(langCode, 0);
+       }
+   }
+
+   /**
+    * Get the hit and miss statistics of the {@link #setSynthesizerCacheSize(String, int) synthesizer caches}, summed up
+    * over the synthesizers of each language.
+    *
+    * @return language code -> statistics, only for the languages whose synthesizers have a cache
+    * @since 4.3
+    */
+   public static Map<String, CacheStats> getSynthesizerCacheStats() {
+       Map<String, CacheStats> result = new TreeMap<>();
+       synchronized (synthesizers) {
+           for (Map.Entry<String, Set<BaseSynthesizer>> entry : synthesizers.entrySet()) {
+               CacheStats sum = null;
+               for (BaseSynthesizer synthesizer : entry.getValue()) {
+                   CacheStats stats = synthesizer.getCacheStats();
+                   if (stats != null) {
+                       sum = sum == null ? stats : sum.plus(stats);
+                   }
+               }
+               if (sum != null) {
+                   result.put(entry.getKey(), sum);
+               }
+           }
+       }
+       return result;
+   }
+
+   /**
+    * Apply the {@link #setSynthesizerCacheSize(String, int) cache size} of this broker's language to a new synthesizer.
+    * Sub-classes should call this for the synthesizer they create in {@link #getSynthesizer()}.
+    *
+    * @param synthesizer The new synthesizer.
+    * @return the synthesizer
+    * @since 4.3
+    */
+   protected <S extends Synthesizer> S initSynthesizer(S synthesizer) {
+       if (synthesizer instanceof BaseSynthesizer) {
+           String langCode = language.getLocale().getLanguage();
+           synchronized (synthesizers) {
+               ((BaseSynthesizer) synthesizer).setCacheSize(synthesizerCacheSizes.getOrDefault(langCode, 0));
+               synthesizers.computeIfAbsent(langCode, k -> Collections.newSetFromMap(new WeakHashMap<>())).add((BaseSynthesizer) synthesizer);
+           }
+       }
+       return synthesizer;
+   }
+
    /**
     * Get the predictor for the specified rule.  Note: this has the side effect of loading the language model.
     * GTODO More doco
@@ -1277,14 +1403,20 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
     * If no index-[n] subdirs are found then the /[language short code]/ngram-index is passed to {@link getLuceneIndexSearchersFromResourcePath}
     * instead, i.e. we assume we have just a single index.  If you require more fine grain controlled then consider calling {@link getLuceneIndexSearchersFromResourcePath} yourself.
     *
+    * If a {@link #setLanguageModelCacheSize(int) cache size} is set, the model is wrapped in a {@link CachingLanguageModel}.
+    *
     * @return A LuceneLanguageModel built from a resource dir with path /[language short code]/ngram-index.
     */
-   public LuceneLanguageModel createLanguageModelFromResourcePath() throws Exception {
+   public LanguageModel createLanguageModelFromResourcePath() throws Exception {
        final String dir = String.format(NGRAM_INDEX_DIR_NAME, language.getLocale().getLanguage());
        if (!resourceDirPathExists(dir)){
            return null;
        }
-       return createLuceneLanguageModel(getResourceDirPath(dir));
+       LuceneLanguageModel model = createLuceneLanguageModel(getResourceDirPath(dir));
+       if (languageModelCacheSize > 0) {
+           return new CachingLanguageModel(model, languageModelCacheSize);
+       }
+       return model;
    }
 
    /**
@@ -1388,6 +1520,35 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
        }
    }
 
+   /**
+    * Creates a {@link MappedNgramLanguageModel} from a directory in the file system that contains files
+    * {@code 1grams.counts}, {@code 2grams.counts} etc. as created by {@code org.languagetool.dev.bigdata.LuceneToNgramCountTable}.
+    *
+    * @since 4.3
+    */
+   public static MappedNgramLanguageModel createMappedNgramLanguageModel(Path dir) throws Exception {
+       Objects.requireNonNull(dir, "The directory must be provided.");
+       if (!Files.isDirectory(dir)) {
+           throw new IllegalArgumentException(String.format("Path %1$s is not a directory.", dir));
+       }
+       Map<Integer, NgramCountTable> tables = new HashMap<>();
+       try {
+           for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+               Path file = dir.resolve(String.format(MappedNgramLanguageModel.TABLE_FILE_NAME, ngramSize));
+               if (Files.exists(file)) {
+                   tables.put(ngramSize, NgramCountTable.open(file));
+               }
+           }
+       } catch (Exception e) {
+           tables.values().forEach(NgramCountTable::close);
+           throw e;
+       }
+       if (tables.isEmpty()) {
+           throw new IllegalArgumentException(String.format("No ngram count tables found in: %1$s", dir));
+       }
+       return new MappedNgramLanguageModel(tables);
+   }
+
    public List<String> loadSpellingIgnoreWordsFromResourcePath(String baseSpellingFile, String ignoreFile) throws Exception {
        List<String> words = new ArrayList<>();
        if (resourceDirPathExists(baseSpellingFile)) {
@@ -2097,7 +2258,8 @@ public class DefaultResourceDataBroker implements ResourceDataBroker {
      }
 
      /**
-      * Get the synthesizer, always returns null, sub-classes should provide their own implementations.
+      * Get the synthesizer, always returns null, sub-classes should provide their own implementations
+      * and pass the synthesizer they create to {@link #initSynthesizer(Synthesizer)}.
       * @return null
       */
      @Override @Nullable
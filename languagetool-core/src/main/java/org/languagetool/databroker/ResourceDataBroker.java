@@ -30,6 +30,8 @@ import com.optimaize.langdetect.profiles.LanguageProfile;
 
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.FalseFriendPatternRule;
+import org.languagetool.rules.patterns.PatternRuleAutomaton;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.rules.patterns.RuleFilterCreator;
 import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tokenizers.SentenceTokenizer;
@@ -113,6 +115,25 @@ public interface ResourceDataBroker extends AutoCloseable {
    */
   List<AbstractPatternRule> getPatternRules() throws Exception;
 
+  /**
+   * Get the index of the rules returned by {@link #getPatternRules()}, used to quickly find
+   * the rules that might match a sentence. The index is built when the pattern rules are loaded.
+   * @return the index or {@code null} if the pattern rules haven't been loaded yet
+   * @since 4.3
+   */
+  @Nullable
+  PatternRuleIndex getPatternRuleIndex();
+
+  /**
+   * Get the rules returned by {@link #getPatternRules()} compiled into one automaton,
+   * used to quickly find the rules that might match a sentence. The automaton is built
+   * on first access.
+   * @return the automaton or {@code null} if the pattern rules haven't been loaded yet
+   * @since 4.3
+   */
+  @Nullable
+  PatternRuleAutomaton getPatternRuleAutomaton();
+
   /**
    * Get the disambiguator.
    */
@@ -0,0 +1,276 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the ngram counts of another language model, as the same counts (e.g. of function words
+ * or the words of a confusion pair) are requested again and again. The cache keeps up to about
+ * {@code maxSize} counts and evicts the least recently used ones (per segment). It's keyed by the 64 bit hash of
+ * the tokens, so it needs no objects per entry; the cache is split into segments that are locked
+ * independently. Note that a hash collision would return the count of another ngram, which is
+ * extremely unlikely.
+ * @since 4.3
+ */
+public class CachingLanguageModel extends BaseLanguageModel {
+
+  private static final int SEGMENT_BITS = 4;
+
+  private final BaseLanguageModel lm;
+  private final Segment[] segments;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private volatile long totalTokenCount = -1;
+
+  /**
+   * @param maxSize the maximum number of ngram counts to keep
+   */
+  public CachingLanguageModel(BaseLanguageModel lm, int maxSize) {
+    this.lm = Objects.requireNonNull(lm);
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    int segmentCount = 1 << SEGMENT_BITS;
+    int segmentSize = Math.max(1, (maxSize + segmentCount - 1) / segmentCount);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(segmentSize);
+    }
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    // the number of tokens selects the index, so "a b" as one token must not get the key of "a", "b":
+    long key = NgramCountTable.hash(tokens) ^ tokens.size();
+    Segment segment = segments[(int) (key >>> (64 - SEGMENT_BITS))];
+    long count = segment.get(key);
+    if (count >= 0) {
+      hits.increment();
+      return count;
+    }
+    misses.increment();
+    count = lm.getCount(tokens);
+    if (count >= 0 && segment.put(key, count)) {
+      evictions.increment();
+    }
+    return count;
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCount(Collections.singletonList(token1));
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    long count = totalTokenCount;
+    if (count < 0) {
+      count = lm.getTotalTokenCount();
+      totalTokenCount = count;
+    }
+    return count;
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * The number of hits divided by the number of lookups, or 0 if there were no lookups.
+   */
+  public double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * The number of counts currently cached.
+   */
+  public long getSize() {
+    long size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  @Override
+  public void close() {
+    lm.close();
+  }
+
+  @Override
+  public String toString() {
+    return "CachingLanguageModel{size=" + getSize() + ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+            ", evictions=" + getEvictionCount() + ", lm=" + lm + "}";
+  }
+
+  /**
+   * A hash map from long to long with chained buckets and a doubly linked list
+   * in access order, all kept in arrays.
+   */
+  private static final class Segment {
+
+    private final int capacity;
+    private final long[] keys;
+    private final long[] values;
+    private final int[] chainNext;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] buckets;
+    private int size;
+    private int head = -1;  // most recently used
+    private int tail = -1;  // least recently used
+
+    private Segment(int capacity) {
+      this.capacity = capacity;
+      keys = new long[capacity];
+      values = new long[capacity];
+      chainNext = new int[capacity];
+      prev = new int[capacity];
+      next = new int[capacity];
+      int bucketCount = 1;
+      while (bucketCount < capacity) {
+        bucketCount <<= 1;
+      }
+      buckets = new int[bucketCount];
+      Arrays.fill(buckets, -1);
+    }
+
+    /**
+     * @return the value or -1 if the key is not in the cache
+     */
+    private synchronized long get(long key) {
+      int entry = find(key);
+      if (entry < 0) {
+        return -1;
+      }
+      moveToHead(entry);
+      return values[entry];
+    }
+
+    /**
+     * @return whether another entry was evicted
+     */
+    private synchronized boolean put(long key, long value) {
+      int entry = find(key);
+      if (entry >= 0) {
+        values[entry] = value;
+        moveToHead(entry);
+        return false;
+      }
+      boolean evicted = false;
+      if (size < capacity) {
+        entry = size++;
+      } else {
+        entry = tail;
+        unlink(entry);
+        removeFromBucket(entry);
+        evicted = true;
+      }
+      keys[entry] = key;
+      values[entry] = value;
+      int bucket = getBucket(key);
+      chainNext[entry] = buckets[bucket];
+      buckets[bucket] = entry;
+      linkAtHead(entry);
+      return evicted;
+    }
+
+    private synchronized int size() {
+      return size;
+    }
+
+    private int find(long key) {
+      int entry = buckets[getBucket(key)];
+      while (entry >= 0 && keys[entry] != key) {
+        entry = chainNext[entry];
+      }
+      return entry;
+    }
+
+    private int getBucket(long key) {
+      return (int) key & (buckets.length - 1);
+    }
+
+    private void removeFromBucket(int entry) {
+      int bucket = getBucket(keys[entry]);
+      if (buckets[bucket] == entry) {
+        buckets[bucket] = chainNext[entry];
+      } else {
+        int e = buckets[bucket];
+        while (chainNext[e] != entry) {
+          e = chainNext[e];
+        }
+        chainNext[e] = chainNext[entry];
+      }
+    }
+
+    private void moveToHead(int entry) {
+      if (entry != head) {
+        unlink(entry);
+        linkAtHead(entry);
+      }
+    }
+
+    private void unlink(int entry) {
+      if (prev[entry] >= 0) {
+        next[prev[entry]] = next[entry];
+      } else {
+        head = next[entry];
+      }
+      if (next[entry] >= 0) {
+        prev[next[entry]] = prev[entry];
+      } else {
+        tail = prev[entry];
+      }
+    }
+
+    private void linkAtHead(int entry) {
+      prev[entry] = -1;
+      next[entry] = head;
+      if (head >= 0) {
+        prev[head] = entry;
+      }
+      head = entry;
+      if (tail < 0) {
+        tail = entry;
+      }
+    }
+  }
+
+}
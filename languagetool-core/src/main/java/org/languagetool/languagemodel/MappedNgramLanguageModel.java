@@ -0,0 +1,84 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.util.*;
+
+/**
+ * A language model that looks up ngram counts in memory-mapped {@link NgramCountTable}s,
+ * one per ngram size. Much faster than {@link LuceneLanguageModel}, as a lookup is
+ * just a few reads from the mapped files. The tables can be created from the Lucene
+ * indexes with {@code org.languagetool.dev.bigdata.LuceneToNgramCountTable}.
+ * @since 4.3
+ */
+public class MappedNgramLanguageModel extends BaseLanguageModel {
+
+  /** The file name of the table for each ngram size in an ngram directory, e.g. {@code 3grams.counts}. */
+  public static final String TABLE_FILE_NAME = "%1$dgrams.counts";
+
+  private final Map<Integer, NgramCountTable> tables;
+  private final int maxNgram;
+
+  public MappedNgramLanguageModel(Map<Integer, NgramCountTable> tables) {
+    if (tables.size() == 0) {
+      throw new IllegalArgumentException("Expected at least one ngram count table.");
+    }
+    this.tables = new HashMap<>(tables);
+    this.maxNgram = Collections.max(tables.keySet());
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new IllegalArgumentException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+    }
+    NgramCountTable table = tables.get(tokens.size());
+    if (table == null) {
+      throw new UnsupportedOperationException(String.format("No index available for ngram size: %1$s", tokens.size()));
+    }
+    return table.getCount(tokens);
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCount(Collections.singletonList(token1));
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    NgramCountTable table = tables.get(1);
+    if (table == null) {
+      throw new UnsupportedOperationException("No index available for ngram size: 1");
+    }
+    return table.getTotalTokenCount();
+  }
+
+  @Override
+  public void close() {
+    tables.values().forEach(NgramCountTable::close);
+  }
+
+  @Override
+  public String toString() {
+    return "MappedNgramLanguageModel{maxNgram=" + maxNgram + "}";
+  }
+
+}
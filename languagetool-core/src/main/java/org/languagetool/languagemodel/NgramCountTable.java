@@ -0,0 +1,403 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Occurrence counts for ngrams of one size, stored in a memory-mapped file. The ngrams
+ * themselves are not stored: a minimal perfect hash function (hash and displace) maps each
+ * ngram to its slot, where the ngram's 64 bit hash is kept as a fingerprint next to its
+ * bit-packed count. Ngrams not in the table thus get a count of 0, except for the unlikely
+ * case of a 64 bit hash collision. Lookups need no object allocation and no locking.
+ * Use {@link Builder} to create the file.
+ * @since 4.3
+ */
+public final class NgramCountTable implements AutoCloseable {
+
+  private static final long MAGIC = 0x4c54_4e47_4354_0001L;
+  private static final int HEADER_SIZE = 40;
+  private static final int SEGMENT_BITS = 30;  // map in 1GB segments, as a single MappedByteBuffer is limited to 2GB
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer[] segments;
+  private final int ngramSize;
+  private final long keyCount;
+  private final long bucketCount;
+  private final long totalTokenCount;
+  private final int bitsPerCount;
+  private final long fingerprintsOffset;
+  private final long countsOffset;
+
+  private NgramCountTable(FileChannel channel) throws IOException {
+    this.channel = channel;
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      throw new IOException("File too small for an ngram count table: " + size + " bytes");
+    }
+    int segmentCount = (int) ((size + (1L << SEGMENT_BITS) - 1) >>> SEGMENT_BITS);
+    segments = new MappedByteBuffer[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      long start = (long) i << SEGMENT_BITS;
+      segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << SEGMENT_BITS, size - start));
+    }
+    if (getLong(0) != MAGIC) {
+      throw new IOException("Not an ngram count table or unsupported version");
+    }
+    ngramSize = getInt(8);
+    bitsPerCount = getInt(12);
+    keyCount = getLong(16);
+    bucketCount = getLong(24);
+    totalTokenCount = getLong(32);
+    fingerprintsOffset = align(HEADER_SIZE + 4 * bucketCount);
+    countsOffset = fingerprintsOffset + 8 * keyCount;
+    if (size < countsOffset + 8 * getCountWords(keyCount, bitsPerCount)) {
+      throw new IOException("Ngram count table is truncated: " + size + " bytes");
+    }
+  }
+
+  /**
+   * Map a file written by {@link Builder#write(Path)}.
+   */
+  public static NgramCountTable open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new NgramCountTable(channel);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public int getNgramSize() {
+    return ngramSize;
+  }
+
+  /**
+   * The number of distinct ngrams in this table.
+   */
+  public long getNgramCount() {
+    return keyCount;
+  }
+
+  /**
+   * The total token count as set when building the table, usually only set for the table of 1grams.
+   */
+  public long getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  public long getCount(List<String> tokens) {
+    return getCount(hash(tokens));
+  }
+
+  public long getCount(String ngram) {
+    return getCount(hash(ngram));
+  }
+
+  private long getCount(long hash) {
+    if (keyCount == 0) {
+      return 0;
+    }
+    long bucket = Long.remainderUnsigned(hash, bucketCount);
+    int seed = getInt(HEADER_SIZE + 4 * bucket);
+    long slot = getSlot(hash, seed, keyCount);
+    if (getLong(fingerprintsOffset + 8 * slot) != hash) {
+      return 0;
+    }
+    long bitPos = slot * bitsPerCount;
+    long wordPos = countsOffset + 8 * (bitPos >>> 6);
+    int bitOffset = (int) (bitPos & 63);
+    long value = getLong(wordPos) >>> bitOffset;
+    if (bitOffset + bitsPerCount > 64) {
+      value |= getLong(wordPos + 8) << (64 - bitOffset);
+    }
+    return value & mask(bitsPerCount);
+  }
+
+  /**
+   * Note that the file stays mapped until the mapping is garbage collected.
+   */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private long getLong(long pos) {
+    return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & ((1L << SEGMENT_BITS) - 1)));
+  }
+
+  private int getInt(long pos) {
+    return segments[(int) (pos >>> SEGMENT_BITS)].getInt((int) (pos & ((1L << SEGMENT_BITS) - 1)));
+  }
+
+  /**
+   * The hash of the tokens joined by a single space, as used as ngram term in the Lucene indexes.
+   */
+  static long hash(List<String> tokens) {
+    long h = FNV_OFFSET;
+    for (int i = 0; i < tokens.size(); i++) {
+      if (i > 0) {
+        h = (h ^ ' ') * FNV_PRIME;
+      }
+      String token = tokens.get(i);
+      for (int j = 0; j < token.length(); j++) {
+        h = (h ^ token.charAt(j)) * FNV_PRIME;
+      }
+    }
+    return mix(h);
+  }
+
+  static long hash(String ngram) {
+    long h = FNV_OFFSET;
+    for (int i = 0; i < ngram.length(); i++) {
+      h = (h ^ ngram.charAt(i)) * FNV_PRIME;
+    }
+    return mix(h);
+  }
+
+  private static long getSlot(long hash, int seed, long slotCount) {
+    return Long.remainderUnsigned(mix(hash + (seed + 1L) * GOLDEN_GAMMA), slotCount);
+  }
+
+  // finalizer of MurmurHash3:
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static long mask(int bits) {
+    return bits == 64 ? -1L : (1L << bits) - 1;
+  }
+
+  private static long align(long pos) {
+    return (pos + 7) & ~7L;
+  }
+
+  private static long getCountWords(long keyCount, int bitsPerCount) {
+    return (keyCount * bitsPerCount + 63) >>> 6;
+  }
+
+  /**
+   * Collects ngram counts in memory (16 bytes per ngram, more while writing) and writes them as a table.
+   * Counts added for the same ngram are summed up.
+   */
+  public static class Builder {
+
+    private static final int AVERAGE_BUCKET_SIZE = 4;
+
+    private final int ngramSize;
+    private long[] hashes = new long[1024];
+    private long[] counts = new long[1024];
+    private int size;
+    private long totalTokenCount;
+
+    public Builder(int ngramSize) {
+      this.ngramSize = ngramSize;
+    }
+
+    /**
+     * @param ngram the tokens joined by a single space
+     */
+    public void add(String ngram, long count) {
+      Objects.requireNonNull(ngram);
+      if (count < 0) {
+        throw new IllegalArgumentException("Count must not be negative: " + count + " for '" + ngram + "'");
+      }
+      if (size == hashes.length) {
+        if (size == Integer.MAX_VALUE - 8) {
+          throw new IllegalStateException("Too many ngrams: " + size);
+        }
+        int newLength = (int) Math.min(Integer.MAX_VALUE - 8, size * 2L);
+        hashes = Arrays.copyOf(hashes, newLength);
+        counts = Arrays.copyOf(counts, newLength);
+      }
+      hashes[size] = hash(ngram);
+      counts[size] = count;
+      size++;
+    }
+
+    public void setTotalTokenCount(long totalTokenCount) {
+      this.totalTokenCount = totalTokenCount;
+    }
+
+    public void write(Path file) throws IOException {
+      int bucketCount = Math.max(1, size / AVERAGE_BUCKET_SIZE);
+      // group the ngrams by bucket:
+      int[] bucketStart = new int[bucketCount + 1];
+      for (int i = 0; i < size; i++) {
+        bucketStart[getBucket(hashes[i], bucketCount) + 1]++;
+      }
+      for (int i = 0; i < bucketCount; i++) {
+        bucketStart[i + 1] += bucketStart[i];
+      }
+      int[] fill = Arrays.copyOf(bucketStart, bucketCount);
+      long[] bucketHashes = new long[size];
+      long[] bucketCounts = new long[size];
+      for (int i = 0; i < size; i++) {
+        int pos = fill[getBucket(hashes[i], bucketCount)]++;
+        bucketHashes[pos] = hashes[i];
+        bucketCounts[pos] = counts[i];
+      }
+      hashes = null;
+      counts = null;
+      // merge duplicates, which are always in the same bucket:
+      int[] bucketSize = new int[bucketCount];
+      int keyCount = 0;
+      int maxBucketSize = 0;
+      for (int b = 0; b < bucketCount; b++) {
+        int start = bucketStart[b];
+        int end = start;
+        for (int i = bucketStart[b]; i < bucketStart[b + 1]; i++) {
+          int j = start;
+          while (j < end && bucketHashes[j] != bucketHashes[i]) {
+            j++;
+          }
+          if (j < end) {
+            bucketCounts[j] += bucketCounts[i];
+          } else {
+            bucketHashes[end] = bucketHashes[i];
+            bucketCounts[end] = bucketCounts[i];
+            end++;
+          }
+        }
+        bucketSize[b] = end - start;
+        keyCount += bucketSize[b];
+        maxBucketSize = Math.max(maxBucketSize, bucketSize[b]);
+      }
+      // place the largest buckets first, while there are still many free slots:
+      int[] order = new int[bucketCount];
+      int[] sizeStart = new int[maxBucketSize + 2];
+      for (int b = 0; b < bucketCount; b++) {
+        sizeStart[maxBucketSize - bucketSize[b] + 1]++;
+      }
+      for (int i = 0; i < maxBucketSize + 1; i++) {
+        sizeStart[i + 1] += sizeStart[i];
+      }
+      for (int b = 0; b < bucketCount; b++) {
+        order[sizeStart[maxBucketSize - bucketSize[b]]++] = b;
+      }
+      int[] seeds = new int[bucketCount];
+      long[] slotHashes = new long[keyCount];
+      long[] slotCounts = new long[keyCount];
+      BitSet taken = new BitSet(keyCount);
+      long[] bucketSlots = new long[maxBucketSize];
+      long maxCount = 0;
+      for (int b : order) {
+        int start = bucketStart[b];
+        int count = bucketSize[b];
+        if (count == 0) {
+          continue;
+        }
+        int seed = 0;
+        while (!tryPlace(bucketHashes, start, count, seed, keyCount, taken, bucketSlots)) {
+          if (seed == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Could not find a perfect hash function for bucket " + b);
+          }
+          seed++;
+        }
+        seeds[b] = seed;
+        for (int i = 0; i < count; i++) {
+          int slot = (int) bucketSlots[i];
+          taken.set(slot);
+          slotHashes[slot] = bucketHashes[start + i];
+          slotCounts[slot] = bucketCounts[start + i];
+          maxCount = Math.max(maxCount, slotCounts[slot]);
+        }
+      }
+      int bitsPerCount = Math.max(1, 64 - Long.numberOfLeadingZeros(maxCount));
+      try (OutputStream os = Files.newOutputStream(file);
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+        out.writeLong(MAGIC);
+        out.writeInt(ngramSize);
+        out.writeInt(bitsPerCount);
+        out.writeLong(keyCount);
+        out.writeLong(bucketCount);
+        out.writeLong(totalTokenCount);
+        for (int seed : seeds) {
+          out.writeInt(seed);
+        }
+        if (bucketCount % 2 == 1) {
+          out.writeInt(0);
+        }
+        for (long hash : slotHashes) {
+          out.writeLong(hash);
+        }
+        long word = 0;
+        int bitOffset = 0;
+        for (long count : slotCounts) {
+          word |= count << bitOffset;
+          bitOffset += bitsPerCount;
+          if (bitOffset >= 64) {
+            out.writeLong(word);
+            bitOffset -= 64;
+            word = bitOffset == 0 ? 0 : count >>> (bitsPerCount - bitOffset);
+          }
+        }
+        if (bitOffset > 0) {
+          out.writeLong(word);
+        }
+      }
+    }
+
+    private static int getBucket(long hash, int bucketCount) {
+      return (int) Long.remainderUnsigned(hash, bucketCount);
+    }
+
+    private static boolean tryPlace(long[] bucketHashes, int start, int count, int seed, int keyCount, BitSet taken, long[] bucketSlots) {
+      for (int i = 0; i < count; i++) {
+        long slot = getSlot(bucketHashes[start + i], seed, keyCount);
+        if (taken.get((int) slot)) {
+          return false;
+        }
+        for (int j = 0; j < i; j++) {
+          if (bucketSlots[j] == slot) {
+            return false;
+          }
+        }
+        bucketSlots[i] = slot;
+      }
+      return true;
+    }
+  }
+
+}
@@ -123,6 +123,11 @@ public class LongParagraphRule extends TextLevelRule {
       this.maxWords = v;
   }
 
+  @Override
+  public boolean isParagraphLocal() {
+    return true;
+  }
+
   @Override
   public RuleMatch[] match(List<AnalyzedSentence> sentences) throws Exception {
     List<RuleMatch> ruleMatches = new ArrayList<>();
@@ -77,6 +77,11 @@ public class PunctuationMarkAtParagraphEnd extends TextLevelRule {
     return Character.isLetter(tk.getToken().charAt(0));
   }
 
+  @Override
+  public boolean isParagraphLocal() {
+    return true;
+  }
+
   @Override
   public RuleMatch[] match(List<AnalyzedSentence> sentences) throws Exception {
     List<RuleMatch> ruleMatches = new ArrayList<>();
@@ -44,6 +44,19 @@ public abstract class TextLevelRule extends Rule {
    */
   public abstract RuleMatch[] match(List<AnalyzedSentence> sentences) throws Exception;
 
+  /**
+   * Whether the matches of this rule in a paragraph only depend on the sentences of that
+   * paragraph. If so, {@link #match(List, AnnotatedText)} may be called with the sentences of
+   * just one paragraph, and positions must be relative to the first of the given sentences.
+   * Checks with a {@link org.languagetool.CheckSession} then only run the rule on paragraphs
+   * that have changed. Returns {@code false} by default, i.e. the rule is run on the complete
+   * text after any change.
+   * @since 4.3
+   */
+  public boolean isParagraphLocal() {
+    return false;
+  }
+
   /**
    * @since 3.7
    */
@@ -60,6 +60,11 @@ public class WhiteSpaceBeforeParagraphEnd extends TextLevelRule {
     return messages.getString("whitespace_before_parapgraph_end_desc");
   }
 
+  @Override
+  public boolean isParagraphLocal() {
+    return true;
+  }
+
   @Override
   public RuleMatch[] match(List<AnalyzedSentence> sentences) throws Exception {
     List<RuleMatch> ruleMatches = new ArrayList<>();
@@ -20,6 +20,7 @@ package org.languagetool.rules.patterns;
 
 import java.util.*;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.Language;
 import org.languagetool.rules.RuleMatch;
@@ -155,16 +156,32 @@ public class PatternRule extends AbstractPatternRule {
 */
   @Override
   public final RuleMatch[] match(AnalyzedSentence sentence) throws Exception {
+    return match(sentence, null);
+  }
+
+  /**
+   * Like {@link #match(AnalyzedSentence)}, but a match may only start at the given
+   * positions (in {@link AnalyzedSentence#getTokensWithoutWhitespace()}), e.g. the ones
+   * found by {@link PatternRuleAutomaton}. Used internally for performance optimization.
+   * @param startPositions the possible start positions, or {@code null} to try all positions
+   * @since 4.3
+   */
+  public final RuleMatch[] match(AnalyzedSentence sentence, @Nullable BitSet startPositions) throws Exception {
     //GTODO try {
-      RuleMatcher matcher;
       if (patternTokens != null) {
-        matcher = new PatternRuleMatcher(this, useList);
+        UnifierConfiguration unifierConfig = getLanguage().getUnifierConfiguration();
+        Unifier unifier = unifierConfig.acquireUnifier();
+        try {
+          return new PatternRuleMatcher(this, useList, unifier).match(getSentenceWithImmunization(sentence), startPositions);
+        } finally {
+          unifierConfig.releaseUnifier(unifier);
+        }
       } else if (regex != null) {
-        matcher = new RegexPatternRule(this.getId(), getDescription(), getMessage(), getSuggestionsOutMsg(), language, regex, regexMark);
+        RuleMatcher matcher = new RegexPatternRule(this.getId(), getDescription(), getMessage(), getSuggestionsOutMsg(), language, regex, regexMark);
+        return matcher.match(getSentenceWithImmunization(sentence));
       } else {
         throw new IllegalStateException("Neither pattern tokens nor regex set for rule " + getId());
       }
-      return matcher.match(getSentenceWithImmunization(sentence));
       /* GTODO
     } catch (IOException e) {
       throw new IOException("Error analyzing sentence: '" + sentence + "'", e);
@@ -200,6 +217,14 @@ public class PatternRule extends AbstractPatternRule {
     return Collections.unmodifiableSet(set);
   }
 
+  Set<String> getSimpleRuleTokens() {
+    return simpleRuleTokens;
+  }
+
+  Set<String> getInflectedRuleTokens() {
+    return inflectedRuleTokens;
+  }
+
   List<Integer> getElementNo() {
     return elementNo;
   }
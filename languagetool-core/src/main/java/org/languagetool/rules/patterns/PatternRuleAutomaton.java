@@ -0,0 +1,207 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.rules.Rule;
+import org.languagetool.tools.StringTools;
+
+import java.util.*;
+
+/**
+ * All {@link PatternRule}s of a language compiled into one token-level automaton. The automaton
+ * is a trie over the leading tokens of the rules' patterns, as long as these are plain strings
+ * (no regex, no negation, no POS tag only, no skipping and no optional tokens). Rules that share
+ * a prefix share the states and thus the tests of that prefix. A single pass over a sentence finds
+ * the rules whose prefix occurs in the sentence, together with the positions where it starts.
+ * Only these rules, plus the rules that don't start with a plain string, need to be checked by
+ * the {@link PatternRuleMatcher}. Used internally for performance optimization.
+ * @since 4.3
+ */
+public class PatternRuleAutomaton {
+
+  private static final String TOKEN_KEY_PREFIX = "t:";
+  private static final String LEMMA_KEY_PREFIX = "l:";
+
+  private final Map<PatternRule, Integer> positions = new IdentityHashMap<>();
+  private final State root = new State();
+  private final BitSet unprefixedRules = new BitSet();
+  private int stateCount = 1;
+
+  public PatternRuleAutomaton(List<? extends Rule> rules) {
+    for (Rule rule : rules) {
+      if (!(rule instanceof PatternRule) || positions.containsKey(rule)) {
+        continue;
+      }
+      PatternRule patternRule = (PatternRule) rule;
+      int position = positions.size();
+      positions.put(patternRule, position);
+      List<String> prefix = getPrefix(patternRule);
+      if (prefix.isEmpty()) {
+        unprefixedRules.set(position);
+      } else {
+        State state = root;
+        for (String key : prefix) {
+          State next = state.transitions.get(key);
+          if (next == null) {
+            next = new State();
+            state.transitions.put(key, next);
+            stateCount++;
+          }
+          state = next;
+        }
+        state.acceptedRules.add(position);
+      }
+    }
+  }
+
+  /**
+   * The keys of the leading pattern tokens that any match of the rule must contain
+   * one after the other, without any other tokens in between.
+   */
+  private static List<String> getPrefix(PatternRule rule) {
+    List<String> prefix = new ArrayList<>();
+    if (rule.patternTokens == null) {
+      return prefix;   // regex-based rule
+    }
+    for (PatternToken patternToken : rule.patternTokens) {
+      String str = patternToken.getString();
+      if (StringTools.isEmpty(str) || patternToken.isRegularExpression() || patternToken.getNegation()
+              || patternToken.isReferenceElement() || patternToken.getMinOccurrence() != 1
+              || patternToken.getMaxOccurrence() != 1) {
+        break;
+      }
+      prefix.add((patternToken.isInflected() ? LEMMA_KEY_PREFIX : TOKEN_KEY_PREFIX) + normalize(str));
+      if (patternToken.getSkipNext() != 0) {
+        break;   // the next token may be anywhere
+      }
+    }
+    return prefix;
+  }
+
+  /**
+   * Normalize so that two strings that are {@link String#equalsIgnoreCase(String) equal ignoring case}
+   * are also equal after normalization. Unlike {@link String#toLowerCase()}, this doesn't depend on
+   * the default locale.
+   */
+  static String normalize(String s) {
+    StringBuilder sb = new StringBuilder(s.length());
+    for (int i = 0; i < s.length(); i++) {
+      sb.append(Character.toLowerCase(Character.toUpperCase(s.charAt(i))));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return the number of pattern rules in the automaton
+   */
+  public int size() {
+    return positions.size();
+  }
+
+  /**
+   * @return the number of states, i.e. distinct prefixes plus one for the start state
+   */
+  public int getStateCount() {
+    return stateCount;
+  }
+
+  /**
+   * Run the automaton over the sentence, starting at each token.
+   */
+  public Candidates getCandidates(AnalyzedSentence sentence) {
+    AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+    List<Set<String>> tokenKeys = new ArrayList<>(tokens.length);
+    for (AnalyzedTokenReadings token : tokens) {
+      tokenKeys.add(getKeys(token));
+    }
+    Map<Integer, BitSet> startPositions = new HashMap<>();
+    for (int i = 0; i < tokens.length; i++) {
+      walk(root, tokenKeys, i, i, startPositions);
+    }
+    return new Candidates(startPositions);
+  }
+
+  private static Set<String> getKeys(AnalyzedTokenReadings token) {
+    Set<String> keys = new HashSet<>();
+    keys.add(TOKEN_KEY_PREFIX + normalize(token.getToken()));
+    for (AnalyzedToken reading : token.getReadings()) {
+      keys.add(TOKEN_KEY_PREFIX + normalize(reading.getToken()));
+      keys.add(LEMMA_KEY_PREFIX + normalize(reading.getLemma() != null ? reading.getLemma() : reading.getToken()));
+    }
+    return keys;
+  }
+
+  private void walk(State state, List<Set<String>> tokenKeys, int pos, int startPos, Map<Integer, BitSet> startPositions) {
+    if (pos >= tokenKeys.size() || state.transitions.isEmpty()) {
+      return;
+    }
+    for (String key : tokenKeys.get(pos)) {
+      State next = state.transitions.get(key);
+      if (next != null) {
+        for (int rulePosition : next.acceptedRules) {
+          startPositions.computeIfAbsent(rulePosition, k -> new BitSet()).set(startPos);
+        }
+        walk(next, tokenKeys, pos + 1, startPos, startPositions);
+      }
+    }
+  }
+
+  private static class State {
+    private final Map<String, State> transitions = new HashMap<>();
+    private final List<Integer> acceptedRules = new ArrayList<>();
+  }
+
+  /**
+   * The result of {@link #getCandidates(AnalyzedSentence)} for one sentence.
+   */
+  public class Candidates {
+
+    private final Map<Integer, BitSet> startPositions;
+
+    private Candidates(Map<Integer, BitSet> startPositions) {
+      this.startPositions = startPositions;
+    }
+
+    /**
+     * @return {@code false} if the rule is part of the automaton and cannot match the sentence,
+     *   {@code true} otherwise (also for rules that are not part of the automaton)
+     */
+    public boolean mightMatch(Rule rule) {
+      Integer position = positions.get(rule);
+      return position == null || unprefixedRules.get(position) || startPositions.containsKey(position);
+    }
+
+    /**
+     * @return the positions (in {@link AnalyzedSentence#getTokensWithoutWhitespace()}) where the prefix
+     *   of the rule occurs, or {@code null} if the rule has no prefix or is not part of the automaton
+     */
+    public BitSet getStartPositions(Rule rule) {
+      Integer position = positions.get(rule);
+      if (position == null || unprefixedRules.get(position)) {
+        return null;
+      }
+      BitSet result = startPositions.get(position);
+      return result != null ? (BitSet) result.clone() : new BitSet();
+    }
+  }
+
+}
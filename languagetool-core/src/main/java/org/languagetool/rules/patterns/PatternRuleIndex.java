@@ -0,0 +1,137 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * An inverted index from the tokens and lemmas that a {@link PatternRule} requires
+ * to the rules, built once when the rules are loaded. For each sentence, it finds the
+ * rules whose required token or lemma occurs in the sentence, so the other rules
+ * can be skipped without calling {@link PatternRule#canBeIgnoredFor(AnalyzedSentence)}
+ * for each of them. Used internally for performance optimization.
+ * @since 4.3
+ */
+public class PatternRuleIndex {
+
+  private final Map<PatternRule, Integer> positions = new IdentityHashMap<>();
+  private final Map<String, int[]> tokenIndex;
+  private final Map<String, int[]> lemmaIndex;
+  private final BitSet unanchoredRules = new BitSet();
+
+  public PatternRuleIndex(List<? extends Rule> rules) {
+    Map<String, List<Integer>> tokenToRules = new HashMap<>();
+    Map<String, List<Integer>> lemmaToRules = new HashMap<>();
+    for (Rule rule : rules) {
+      if (!(rule instanceof PatternRule) || positions.containsKey(rule)) {
+        continue;
+      }
+      PatternRule patternRule = (PatternRule) rule;
+      int position = positions.size();
+      positions.put(patternRule, position);
+      // one anchor is enough to preselect a rule, the full check is still done by canBeIgnoredFor():
+      String tokenAnchor = getAnchor(patternRule.getSimpleRuleTokens());
+      String lemmaAnchor = getAnchor(patternRule.getInflectedRuleTokens());
+      if (tokenAnchor != null) {
+        tokenToRules.computeIfAbsent(tokenAnchor, k -> new ArrayList<>()).add(position);
+      } else if (lemmaAnchor != null) {
+        lemmaToRules.computeIfAbsent(lemmaAnchor, k -> new ArrayList<>()).add(position);
+      } else {
+        unanchoredRules.set(position);
+      }
+    }
+    tokenIndex = toArrays(tokenToRules);
+    lemmaIndex = toArrays(lemmaToRules);
+  }
+
+  /**
+   * Longer words are usually less common, so the longest one is the most selective anchor.
+   */
+  private static String getAnchor(Set<String> requiredStrings) {
+    String anchor = null;
+    for (String s : requiredStrings) {
+      if (anchor == null || s.length() > anchor.length() || (s.length() == anchor.length() && s.compareTo(anchor) < 0)) {
+        anchor = s;
+      }
+    }
+    return anchor;
+  }
+
+  private static Map<String, int[]> toArrays(Map<String, List<Integer>> map) {
+    Map<String, int[]> result = new HashMap<>();
+    for (Map.Entry<String, List<Integer>> entry : map.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+    return result;
+  }
+
+  /**
+   * @return the number of indexed pattern rules
+   */
+  public int size() {
+    return positions.size();
+  }
+
+  /**
+   * Find the rules that might match the given sentence. This does a single pass over the
+   * sentence's tokens and lemmas instead of one check per rule.
+   */
+  public Candidates getCandidates(AnalyzedSentence sentence) {
+    BitSet candidates = (BitSet) unanchoredRules.clone();
+    addCandidates(sentence.getTokenSet(), tokenIndex, candidates);
+    addCandidates(sentence.getLemmaSet(), lemmaIndex, candidates);
+    return new Candidates(candidates);
+  }
+
+  private static void addCandidates(Set<String> strings, Map<String, int[]> index, BitSet candidates) {
+    for (String s : strings) {
+      int[] rulePositions = index.get(s);
+      if (rulePositions != null) {
+        for (int position : rulePositions) {
+          candidates.set(position);
+        }
+      }
+    }
+  }
+
+  /**
+   * The result of {@link #getCandidates(AnalyzedSentence)} for one sentence.
+   */
+  public class Candidates {
+
+    private final BitSet candidates;
+
+    private Candidates(BitSet candidates) {
+      this.candidates = candidates;
+    }
+
+    /**
+     * @return {@code false} if the rule is indexed and cannot match the sentence, {@code true}
+     *   otherwise (also for rules that are not part of the index)
+     */
+    public boolean mightMatch(Rule rule) {
+      Integer position = positions.get(rule);
+      return position == null || candidates.get(position);
+    }
+  }
+
+}
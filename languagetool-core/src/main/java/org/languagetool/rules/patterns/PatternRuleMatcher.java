@@ -31,6 +31,7 @@ import org.languagetool.tools.StringTools;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -46,13 +47,24 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer implements R
   private final List<PatternTokenMatcher> patternTokenMatchers;
 
   PatternRuleMatcher(PatternRule rule, boolean useList) {
-    super(rule, rule.getLanguage().getUnifier());
+    this(rule, useList, rule.getLanguage().getUnifier());
+  }
+
+  PatternRuleMatcher(PatternRule rule, boolean useList, Unifier unifier) {
+    super(rule, unifier);
     this.useList = useList;
     this.patternTokenMatchers = createElementMatchers();
   }
 
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws Exception {
+    return match(sentence, null);
+  }
+
+  /**
+   * @param startPositions the token positions where a match may start, or {@code null} to try all positions
+   */
+  RuleMatch[] match(AnalyzedSentence sentence, @Nullable BitSet startPositions) throws Exception {
     List<RuleMatch> ruleMatches = new ArrayList<>();
 
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
@@ -60,9 +72,9 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer implements R
     int patternSize = patternTokenMatchers.size();
     int limit = Math.max(0, tokens.length - patternSize + 1);
     PatternTokenMatcher pTokenMatcher = null;
-    int i = 0;
+    int i = nextStartPosition(startPositions, 0);
     int minOccurCorrection = getMinOccurrenceCorrection();
-    while (i < limit + minOccurCorrection && !(rule.isSentStart() && i > 0)) {
+    while (i >= 0 && i < limit + minOccurCorrection && !(rule.isSentStart() && i > 0)) {
       int skipShiftTotal = 0;
       boolean allElementsMatch = false;
       int firstMatchToken = -1;
@@ -141,13 +153,17 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer implements R
           ruleMatches.add(ruleMatch);
         }
       }
-      i++;
+      i = nextStartPosition(startPositions, i + 1);
     }
     RuleMatchFilter maxFilter = new RuleWithMaxFilter();
     List<RuleMatch> filteredMatches = maxFilter.filter(ruleMatches);
     return filteredMatches.toArray(new RuleMatch[filteredMatches.size()]);
   }
 
+  private static int nextStartPosition(@Nullable BitSet startPositions, int fromIndex) {
+    return startPositions != null ? startPositions.nextSetBit(fromIndex) : fromIndex;
+  }
+
   @Nullable
   private RuleMatch createRuleMatch(List<Integer> tokenPositions,
                                     AnalyzedTokenReadings[] tokens, int firstMatchToken,
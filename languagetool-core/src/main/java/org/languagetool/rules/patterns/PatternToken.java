@@ -20,8 +20,6 @@ package org.languagetool.rules.patterns;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
@@ -76,7 +74,7 @@ public class PatternToken implements Cloneable {
   private int minOccurrence = 1;
   private int maxOccurrence = 1;
 
-  private Pattern pattern;
+  private RegexPredicate pattern;
 
   /** The reference to another element in the pattern. **/
   private Match tokenReference;
@@ -298,6 +296,14 @@ public class PatternToken implements Cloneable {
   }
 
   public void setStringElement(String token) {
+    setStringElement(token, true);
+  }
+
+  /**
+   * @param intern whether to share the compiled regular expression, should be {@code false} for
+   *               strings that are created from the text while checking, so they don't accumulate
+   */
+  private void setStringElement(String token, boolean intern) {
     if (token != null) {
       stringToken = StringTools.trimWhitespace(token);
     } else {
@@ -310,7 +316,7 @@ public class PatternToken implements Cloneable {
         regToken = CASE_INSENSITIVE + stringToken;
       }
       if (!"\\0".equals(token)) {
-        pattern = Pattern.compile(regToken);
+        pattern = intern ? RegexPredicate.intern(regToken, 0) : RegexPredicate.compile(regToken, 0);
       }
     }
   }
@@ -374,8 +380,7 @@ public class PatternToken implements Cloneable {
     }
     boolean match;
     if (posToken.regExp) {
-      Matcher mPos = posToken.posPattern.matcher(token.getPOSTag());
-      match = mPos.matches();
+      match = posToken.posPattern.matches(token.getPOSTag());
     } else {
       match = posToken.posTag.equals(token.getPOSTag());
     }
@@ -393,8 +398,7 @@ public class PatternToken implements Cloneable {
   private boolean isStringTokenMatched(AnalyzedToken token) {
     String testToken = getTestToken(token);
     if (stringRegExp) {
-      Matcher m = pattern.matcher(testToken);
-      return m.matches();
+      return pattern.matches(testToken);
     }
     if (caseSensitive) {
       return stringToken.equals(testToken);
@@ -546,9 +550,9 @@ public class PatternToken implements Cloneable {
       if (posReference != null) {
         setPosToken(new PosToken(posReference, tokenReference.posRegExp(), negation));
       }
-      setStringElement(referenceString.replace(reference, ""));
+      setStringElement(referenceString.replace(reference, ""), false);
     } else {
-      setStringElement(referenceString.replace(reference, matchState.toTokenString()));
+      setStringElement(referenceString.replace(reference, matchState.toTokenString()), false);
     }
   }
 
@@ -772,7 +776,7 @@ public class PatternToken implements Cloneable {
     private final String posTag;
     private final boolean regExp;
     private final boolean negation;
-    private final Pattern posPattern;
+    private final RegexPredicate posPattern;
     private final boolean posUnknown;
 
     public PosToken(String posTag, boolean regExp, boolean negation) {
@@ -780,8 +784,9 @@ public class PatternToken implements Cloneable {
       this.regExp = regExp;
       this.negation = negation;
       if (regExp) {
-        posPattern = Pattern.compile(posTag);
-        posUnknown = posPattern.matcher(UNKNOWN_TAG).matches();
+        // POS tags come from a limited tag set, so it's safe to intern them even when they're created while checking:
+        posPattern = RegexPredicate.intern(posTag, 0);
+        posUnknown = posPattern.getPattern().matcher(UNKNOWN_TAG).matches();
       } else {
         posPattern = null;
         posUnknown = UNKNOWN_TAG.equals(posTag);
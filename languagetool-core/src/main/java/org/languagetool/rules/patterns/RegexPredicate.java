@@ -0,0 +1,162 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled regular expression that is shared by all {@link PatternToken}s that use
+ * the same expression, e.g. POS tag patterns like {@code N.*} that are used in thousands
+ * of rules. While a sentence is checked (between {@link #beginMemoization()} and
+ * {@link #endMemoization()}), the result of matching an interned predicate against a
+ * string is remembered, so each distinct predicate runs at most once per token string
+ * and POS tag. For internal use only.
+ * @since 4.3
+ */
+public final class RegexPredicate {
+
+  private static final ConcurrentMap<Key, RegexPredicate> interned = new ConcurrentHashMap<>();
+  private static final AtomicInteger nextId = new AtomicInteger();
+  private static final ThreadLocal<Memo> memo = ThreadLocal.withInitial(Memo::new);
+
+  private final Pattern pattern;
+  private final int id;   // -1 for predicates that are not interned and thus not memoized
+
+  private RegexPredicate(Pattern pattern, int id) {
+    this.pattern = pattern;
+    this.id = id;
+  }
+
+  /**
+   * Get the shared predicate for the given expression and flags. Use this only for
+   * expressions from the rule files, as interned predicates are never released.
+   */
+  static RegexPredicate intern(String regex, int flags) {
+    return interned.computeIfAbsent(new Key(regex, flags),
+            key -> new RegexPredicate(Pattern.compile(regex, flags), nextId.getAndIncrement()));
+  }
+
+  /**
+   * Get a predicate that is neither shared nor memoized, for expressions that are
+   * created while checking text.
+   */
+  static RegexPredicate compile(String regex, int flags) {
+    return new RegexPredicate(Pattern.compile(regex, flags), -1);
+  }
+
+  /**
+   * The number of distinct interned predicates.
+   */
+  static int getInternedCount() {
+    return interned.size();
+  }
+
+  Pattern getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Whether the complete {@code input} matches the expression.
+   */
+  boolean matches(String input) {
+    if (id >= 0) {
+      Memo threadMemo = memo.get();
+      if (threadMemo.depth > 0) {
+        return threadMemo.matches(this, input);
+      }
+    }
+    return pattern.matcher(input).matches();
+  }
+
+  /**
+   * Start remembering match results in the current thread. Calls can be nested,
+   * each call must be followed by a call to {@link #endMemoization()}.
+   */
+  public static void beginMemoization() {
+    memo.get().depth++;
+  }
+
+  /**
+   * Stop remembering match results in the current thread and forget the results
+   * remembered so far.
+   */
+  public static void endMemoization() {
+    Memo threadMemo = memo.get();
+    if (threadMemo.depth > 0 && --threadMemo.depth == 0) {
+      threadMemo.results.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return pattern.pattern();
+  }
+
+  private static class Key {
+    private final String regex;
+    private final int flags;
+
+    private Key(String regex, int flags) {
+      this.regex = Objects.requireNonNull(regex);
+      this.flags = flags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return flags == other.flags && regex.equals(other.regex);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * regex.hashCode() + flags;
+    }
+  }
+
+  /**
+   * The results per input string: one bit per predicate id whether the result is known, one bit for the result.
+   */
+  private static class Memo {
+    private final Map<String, BitSet[]> results = new HashMap<>();
+    private int depth;
+
+    private boolean matches(RegexPredicate predicate, String input) {
+      BitSet[] inputResults = results.get(input);
+      if (inputResults == null) {
+        inputResults = new BitSet[] {new BitSet(), new BitSet()};
+        results.put(input, inputResults);
+      } else if (inputResults[0].get(predicate.id)) {
+        return inputResults[1].get(predicate.id);
+      }
+      boolean match = predicate.pattern.matcher(input).matches();
+      inputResults[0].set(predicate.id);
+      if (match) {
+        inputResults[1].set(predicate.id);
+      }
+      return match;
+    }
+  }
+
+}
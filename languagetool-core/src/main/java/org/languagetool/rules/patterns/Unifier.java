@@ -16,11 +16,9 @@
  * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
  * USA
  */
-
 package org.languagetool.rules.patterns;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
@@ -28,21 +26,35 @@ import org.languagetool.AnalyzedTokenReadings;
 
 /**
  * Implements unification of features over tokens.
+ *
+ * <p>The state of a unification is kept in arrays and bitsets that are re-used after
+ * {@link #reset()}, so a unifier doesn't need to allocate much once it has been used for a
+ * few sentences. Each set of matched equivalences (a map from features to their types)
+ * is stored as an array of {@code long}s indexed by feature, with one bit per type and
+ * the highest bit marking that the feature is present at all. Thus a feature can have at
+ * most 63 types. A unifier is not thread-safe, see {@link UnifierConfiguration#acquireUnifier()}
+ * for how the pattern rules re-use one per thread.</p>
  * 
  * @author Marcin Milkowski
  */
 public class Unifier {
 
   private static final String UNIFY_IGNORE = "unify-ignore";
-    
+
+  // index of UNIFY_IGNORE in the equivalence sets, the features start after it:
+  private static final int UNIFY_IGNORE_INDEX = 0;
+  private static final long PRESENT = 1L << 63;
+  private static final int MAX_TYPES = 63;
+
   private final List<AnalyzedTokenReadings> tokSequence;
 
   /**
-   * List of all equivalences matched per tokens in the sequence, kept exactly
-   * in sync with the list in tokSequence, so that a reading 2 of token 1 has its
-   * equivalence map addressable as tokSequenceEquivalences.get(1).get(2).
+   * Equivalence sets (indexes into {@link #equivalences}) matched per tokens in the sequence,
+   * kept exactly in sync with the list in tokSequence, so that a reading 2 of token 1 has its
+   * equivalence set at tokSequenceEquivalences[1][2]. The same set can be referenced more than once.
    */
-  private final List<List<Map<String, Set<String>>>> tokSequenceEquivalences;
+  private int[][] tokSequenceEquivalences;
+  private int[] tokSequenceEquivalenceCounts;
 
   /**
    * A Map for storing the equivalence types for features. Features are
@@ -56,23 +68,33 @@ public class Unifier {
    */
   private final Map<String, List<String>> equivalenceFeatures;
 
+  // The features seen so far, with their index in the equivalence sets:
+  private final Map<String, Feature> features;
+  private final List<Feature> featureList;
+
+  // All equivalence sets in use since the last reset, and the sets to be re-used after it:
+  private long[][] equivalences;
+  private int equivalenceCount;
+
   /**
-   * Map of sets of matched equivalences in the unified sequence.
+   * Sets of matched equivalences in the unified sequence (indexes into {@link #equivalences}).
    */
-  private final List<Map<String, Set<String>>> equivalencesMatched;
+  private int[] equivalencesMatched;
+  private int equivalencesMatchedCount;
 
   private boolean allFeatsIn;
   private int tokCnt;
   private int readingsCounter;
 
   // Marks found interpretations in subsequent tokens:
-  private List<Boolean> featuresFound;
+  private final BitSet featuresFound;
 
   // For checking the current token:
-  private List<Boolean> tmpFeaturesFound;
+  private BitSet tmpFeaturesFound;
+  private BitSet tokenFeaturesFound;
 
-  // Maps that store equivalences to be removed or kept after every next token has been analyzed:
-  private final Map<String, Set<String>> equivalencesToBeKept;
+  // Equivalences to be removed or kept after every next token has been analyzed:
+  private long[] equivalencesToBeKept;
 
   // stores uFeatures to keep the same signature of some methods...:
   private Map<String, List<String>> unificationFeats;
@@ -81,20 +103,28 @@ public class Unifier {
   private boolean uniMatched;
   private boolean uniAllMatched;
 
+  // set while the unifier is handed out by UnifierConfiguration#acquireUnifier():
+  boolean inUse;
+
   /**
    * Instantiates the unifier.
    */
   public Unifier(Map<EquivalenceTypeLocator, PatternToken> equivalenceTypes, Map<String, List<String>> equivalenceFeatures) {
     tokCnt = 0;
     readingsCounter = 1;
-    equivalencesMatched = new ArrayList<>();
     this.equivalenceTypes = equivalenceTypes;
     this.equivalenceFeatures = equivalenceFeatures;
-    equivalencesToBeKept = new ConcurrentHashMap<>();
-    featuresFound = new ArrayList<>();
-    tmpFeaturesFound = new ArrayList<>();
+    features = new HashMap<>();
+    featureList = new ArrayList<>();
+    equivalences = new long[8][];
+    equivalencesMatched = new int[4];
+    equivalencesToBeKept = new long[0];
+    featuresFound = new BitSet();
+    tmpFeaturesFound = new BitSet();
+    tokenFeaturesFound = new BitSet();
     tokSequence = new ArrayList<>();
-    tokSequenceEquivalences = new ArrayList<>();
+    tokSequenceEquivalences = new int[4][];
+    tokSequenceEquivalenceCounts = new int[4];
   }
 
   /**
@@ -107,7 +137,7 @@ public class Unifier {
   protected final boolean isSatisfied(AnalyzedToken aToken,
       Map<String, List<String>> uFeatures) {
 
-    if (allFeatsIn && equivalencesMatched.isEmpty()) {
+    if (allFeatsIn && equivalencesMatchedCount == 0) {
       return false;
     }
     if (uFeatures == null) {
@@ -119,45 +149,41 @@ public class Unifier {
     if (allFeatsIn) {
       unified = checkNext(aToken, uFeatures);
     } else {
-      while (equivalencesMatched.size() <= tokCnt) {
-        equivalencesMatched.add(new ConcurrentHashMap<>());
+      while (equivalencesMatchedCount <= tokCnt) {
+        addEquivalencesMatched(newEquivalences());
       }
+      int matched = equivalencesMatched[tokCnt];
       for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
+        Feature feature = getFeature(feat.getKey());
         List<String> types = feat.getValue();
         if (types == null || types.isEmpty()) {
           types = equivalenceFeatures.get(feat.getKey());
         }
-        for (String typeName : types) {
-          PatternToken testElem = equivalenceTypes
-              .get(new EquivalenceTypeLocator(feat.getKey(), typeName));
+        for (int i = 0; i < types.size(); i++) {
+          int type = getTypeIndex(feature, types.get(i));
+          PatternToken testElem = type == -1 ? null : feature.getElement(type);
           if (testElem == null) {
             return false;
           }
           if (testElem.isMatched(aToken)) {
-            if (!equivalencesMatched.get(tokCnt).containsKey(feat.getKey())) {
-              Set<String> typeSet = new HashSet<>();
-              typeSet.add(typeName);
-              equivalencesMatched.get(tokCnt).put(feat.getKey(), typeSet);
-            } else {
-              equivalencesMatched.get(tokCnt).get(feat.getKey()).add(typeName);
-            }
+            addType(matched, feature.index, type);
           }
         }
-        unified = equivalencesMatched.get(tokCnt).containsKey(feat.getKey());
+        unified = feature != null && containsFeature(matched, feature.index);
         if (!unified) {
-          equivalencesMatched.remove(tokCnt);
+          equivalencesMatchedCount--;
+          if (matched == equivalenceCount - 1) {
+            equivalenceCount--;  // not referenced anywhere, so it can be re-used
+          }
           break;
         }
       }
       if (unified) {
         if (tokCnt == 0 || tokSequence.isEmpty()) {
-          tokSequence.add(new AnalyzedTokenReadings(aToken, 0));
-          List<Map<String, Set<String>>> equivList = new ArrayList<>();
-          equivList.add(equivalencesMatched.get(tokCnt));
-          tokSequenceEquivalences.add(equivList);
+          addToSequence(new AnalyzedTokenReadings(aToken, 0), matched, 1);
         } else {
           tokSequence.get(0).addReading(aToken);
-          tokSequenceEquivalences.get(0).add(equivalencesMatched.get(tokCnt));
+          addToSequence(0, matched);
         }
         tokCnt++;
       }
@@ -168,64 +194,61 @@ public class Unifier {
   private boolean checkNext(AnalyzedToken aToken,
                             Map<String, List<String>> uFeatures) {
     boolean anyFeatUnified = false;
-    List<Boolean> tokenFeaturesFound = new ArrayList<>(tmpFeaturesFound);
-    Map<String, Set<String>> equivalencesMatchedHere = new ConcurrentHashMap<>();
+    tokenFeaturesFound.clear();
+    tokenFeaturesFound.or(tmpFeaturesFound);
+    int equivalencesMatchedHere = newEquivalences();
+    boolean added = false;
     if (allFeatsIn) {
       for (int i = 0; i < tokCnt; i++) {
         boolean allFeatsUnified = true;
         for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
           boolean featUnified = false;
+          Feature feature = getFeature(feat.getKey());
           List<String> types = feat.getValue();
           if (types == null || types.isEmpty()) {
             types = equivalenceFeatures.get(feat.getKey());
           }
-          for (String typeName : types) {
-            if (equivalencesMatched.get(i).containsKey(feat.getKey())
-                && equivalencesMatched.get(i).get(feat.getKey()).contains(typeName)) {
-              PatternToken testElem = equivalenceTypes.get(new EquivalenceTypeLocator(feat.getKey(), typeName));
+          for (int j = 0; j < types.size(); j++) {
+            int type = getTypeIndex(feature, types.get(j));
+            if (type != -1 && containsType(equivalencesMatched[i], feature.index, type)) {
+              PatternToken testElem = feature.getElement(type);
               boolean matched = testElem.isMatched(aToken);
               featUnified = featUnified || matched;
               //Stores equivalences to be kept
               if (matched) {
-                if (!equivalencesToBeKept.containsKey(feat.getKey())) {
-                  Set<String> typeSet = new HashSet<>();
-                  typeSet.add(typeName);
-                  equivalencesToBeKept.put(feat.getKey(), typeSet);
-                } else {
-                  equivalencesToBeKept.get(feat.getKey()).add(typeName);
-                }
-                if (!equivalencesMatchedHere.containsKey(feat.getKey())) { // just for this reading
-                  Set<String> typeSet = new HashSet<>();
-                  typeSet.add(typeName);
-                  equivalencesMatchedHere.put(feat.getKey(), typeSet);
-                } else {
-                  equivalencesMatchedHere.get(feat.getKey()).add(typeName);
-                }
+                equivalencesToBeKept[feature.index] |= PRESENT | 1L << type;
+                addType(equivalencesMatchedHere, feature.index, type); // just for this reading
               }
             }
           }
           allFeatsUnified &= featUnified;
         }
-        tokenFeaturesFound.set(i, tokenFeaturesFound.get(i) || allFeatsUnified);
+        if (allFeatsUnified) {
+          tokenFeaturesFound.set(i);
+        }
         anyFeatUnified = anyFeatUnified || allFeatsUnified;
       }
       if (anyFeatUnified) {
         if (tokSequence.size() == readingsCounter) {
-          tokSequence.add(new AnalyzedTokenReadings(aToken, 0));
-          List<Map<String, Set<String>>> equivList = new ArrayList<>();
-          equivList.add(equivalencesMatchedHere);
-          tokSequenceEquivalences.add(equivList);
+          addToSequence(new AnalyzedTokenReadings(aToken, 0), equivalencesMatchedHere, 1);
+          added = true;
         } else {
           if (readingsCounter < tokSequence.size()) {
             tokSequence.get(readingsCounter).addReading(aToken);
-            tokSequenceEquivalences.get(readingsCounter).add(equivalencesMatchedHere);
+            addToSequence(readingsCounter, equivalencesMatchedHere);
+            added = true;
           } else {
             anyFeatUnified = false;
           }
         }
+        BitSet tmp = tmpFeaturesFound;
         tmpFeaturesFound = tokenFeaturesFound;
+        tokenFeaturesFound = tmp;
       }
     }
+    if (!added) {
+      equivalenceCount--;  // not referenced anywhere, so it can be re-used
+    }
     return anyFeatUnified;
   }
 
@@ -233,27 +256,22 @@ public class Unifier {
    * Call after every complete token (AnalyzedTokenReadings) checked.
    */
   public final void startNextToken() {
-    featuresFound = new ArrayList<>(tmpFeaturesFound);
+    featuresFound.clear();
+    featuresFound.or(tmpFeaturesFound);
     readingsCounter++;
     // Removes features
     for (int j = 0; j < tokSequence.size(); j++) {
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
-        for (Map.Entry<String, List<String>> feat : equivalenceFeatures.entrySet()) {
-          if (!UNIFY_IGNORE.equals(feat.getKey())) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey())) {
-              if (equivalencesToBeKept.containsKey(feat.getKey())) {
-                tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).retainAll(equivalencesToBeKept.get(feat.getKey()));
-              } else {
-                tokSequenceEquivalences.get(j).get(i).remove(feat.getKey());
-              }
-            } else {
-              tokSequenceEquivalences.get(j).get(i).remove(feat.getKey());
-            }
+      for (int i = 0; i < tokSequenceEquivalenceCounts[j]; i++) {
+        long[] equivalenceSet = equivalences[tokSequenceEquivalences[j][i]];
+        for (Feature feature : featureList) {
+          if (feature.index < equivalenceSet.length) {
+            long kept = feature.index < equivalencesToBeKept.length ? equivalencesToBeKept[feature.index] : 0;
+            equivalenceSet[feature.index] &= kept;
           }
         }
       }
     }
-    equivalencesToBeKept.clear();
+    Arrays.fill(equivalencesToBeKept, 0);
   }
 
   /**
@@ -261,10 +279,8 @@ public class Unifier {
    */
   public final void startUnify() {
     allFeatsIn = true;
-    for (int i = 0; i < tokCnt; i++) {
-      featuresFound.add(false);
-    }
-    tmpFeaturesFound = new ArrayList<>(featuresFound);
+    tmpFeaturesFound.clear();
+    tmpFeaturesFound.or(featuresFound);
   }
 
   /**
@@ -277,9 +293,10 @@ public class Unifier {
     int tokUnified = 0;
     for (int j = 0; j < tokSequence.size(); j++) {
       boolean unifiedTokensFound = false; // assume that nothing has been found
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
+      for (int i = 0; i < tokSequenceEquivalenceCounts[j]; i++) {
         int featUnified = 0;
-        if (tokSequenceEquivalences.get(j).get(i).containsKey(UNIFY_IGNORE)) {
+        int equivalenceSet = tokSequenceEquivalences[j][i];
+        if (containsFeature(equivalenceSet, UNIFY_IGNORE_INDEX)) {
           if (i == 0) {
             tokUnified++;
           }
@@ -287,13 +304,12 @@ public class Unifier {
           continue;
         } else {
           for (Map.Entry<String, List<String>> feat : uFeatures.entrySet()) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey()) &&
-                tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).isEmpty()) {
+            if (hasNoTypes(equivalenceSet, feat.getKey())) {
               featUnified = 0;
             } else {
               featUnified++;
             }
-            if (featUnified == unificationFeats.entrySet().size() && tokUnified <= j) {
+            if (featUnified == unificationFeats.size() && tokUnified <= j) {
               tokUnified++;
               unifiedTokensFound = true;
               break;
@@ -316,19 +332,29 @@ public class Unifier {
    * Resets after use of unification. Required.
    */
   public final void reset() {
-    equivalencesMatched.clear();
+    equivalenceCount = 0;
+    equivalencesMatchedCount = 0;
     allFeatsIn = false;
     tokCnt = 0;
     featuresFound.clear();
     tmpFeaturesFound.clear();
     tokSequence.clear();
-    tokSequenceEquivalences.clear();
     readingsCounter = 1;
     uniMatched = false;
     uniAllMatched = false;
     inUnification = false;
   }
 
+  /**
+   * Resets everything, so the unifier behaves like a new one. Unlike {@link #reset()}, this also
+   * forgets the equivalences to be kept for the token that is currently being checked.
+   */
+  void clear() {
+    reset();
+    Arrays.fill(equivalencesToBeKept, 0);
+    unificationFeats = null;
+  }
+
   /**
    * Gets a full sequence of filtered tokens.
    * @return Array of AnalyzedTokenReadings that match equivalence relation
@@ -342,20 +368,20 @@ public class Unifier {
     List<AnalyzedTokenReadings> uTokens = new ArrayList<>();
     for (int j = 0; j < tokSequence.size(); j++) {
       boolean unifiedTokensFound = false; // assume that nothing has been found
-      for (int i = 0; i < tokSequenceEquivalences.get(j).size(); i++) {
+      for (int i = 0; i < tokSequenceEquivalenceCounts[j]; i++) {
         int featUnified = 0;
-        if (tokSequenceEquivalences.get(j).get(i).containsKey(UNIFY_IGNORE)) {
+        int equivalenceSet = tokSequenceEquivalences[j][i];
+        if (containsFeature(equivalenceSet, UNIFY_IGNORE_INDEX)) {
           addTokenToSequence(uTokens, tokSequence.get(j).getAnalyzedToken(i), j);
           unifiedTokensFound = true;
         } else {
           for (Map.Entry<String, List<String>> feat : unificationFeats.entrySet()) {
-            if (tokSequenceEquivalences.get(j).get(i).containsKey(feat.getKey()) &&
-                    tokSequenceEquivalences.get(j).get(i).get(feat.getKey()).isEmpty()) {
+            if (hasNoTypes(equivalenceSet, feat.getKey())) {
               featUnified = 0;
             } else {
               featUnified++;
             }
-            if (featUnified == unificationFeats.entrySet().size()) {
+            if (featUnified == unificationFeats.size()) {
               addTokenToSequence(uTokens, tokSequence.get(j).getAnalyzedToken(i), j);
               unifiedTokensFound = true;
             }
@@ -438,14 +464,9 @@ public class Unifier {
    * @since 2.5
    */
   public final void addNeutralElement(AnalyzedTokenReadings analyzedTokenReadings) {
-    tokSequence.add(analyzedTokenReadings);
-    List<Map<String, Set<String>>> tokEquivs = new ArrayList<>(analyzedTokenReadings.getReadingsLength());
-    Map<String, Set<String>> map = new ConcurrentHashMap<>();
-    map.put(UNIFY_IGNORE, new HashSet<>());
-    for (int i = 0; i < analyzedTokenReadings.getReadingsLength(); i++) {
-      tokEquivs.add(map);
-    }
-    tokSequenceEquivalences.add(tokEquivs);
+    int equivalenceSet = newEquivalences();
+    equivalences[equivalenceSet][UNIFY_IGNORE_INDEX] = PRESENT;
+    addToSequence(analyzedTokenReadings, equivalenceSet, analyzedTokenReadings.getReadingsLength());
     readingsCounter++;
   }
 
@@ -461,4 +482,149 @@ public class Unifier {
     }
     return null;
   }
+
+  /**
+   * Get the feature with the given name, or {@code null} if the configuration doesn't know it.
+   */
+  @Nullable
+  private Feature getFeature(String name) {
+    Feature feature = features.get(name);
+    if (feature == null) {
+      List<String> types = equivalenceFeatures.get(name);
+      if (types == null) {
+        return null;
+      }
+      feature = new Feature(name, featureList.size() + 1, types);
+      features.put(name, feature);
+      featureList.add(feature);
+      if (feature.index >= equivalencesToBeKept.length) {
+        equivalencesToBeKept = Arrays.copyOf(equivalencesToBeKept, feature.index + 1);
+      }
+    }
+    return feature;
+  }
+
+  private static int getTypeIndex(@Nullable Feature feature, String type) {
+    return feature == null ? -1 : feature.getTypeIndex(type);
+  }
+
+  /**
+   * Get an empty equivalence set, re-using one from before the last reset if possible.
+   */
+  private int newEquivalences() {
+    if (equivalenceCount == equivalences.length) {
+      equivalences = Arrays.copyOf(equivalences, equivalenceCount * 2);
+    }
+    long[] equivalenceSet = equivalences[equivalenceCount];
+    if (equivalenceSet == null || equivalenceSet.length <= featureList.size()) {
+      equivalences[equivalenceCount] = new long[featureList.size() + 1];
+    } else {
+      Arrays.fill(equivalenceSet, 0);
+    }
+    return equivalenceCount++;
+  }
+
+  private void addType(int equivalenceSet, int feature, int type) {
+    long[] set = equivalences[equivalenceSet];
+    if (feature >= set.length) {
+      set = equivalences[equivalenceSet] = Arrays.copyOf(set, featureList.size() + 1);
+    }
+    set[feature] |= PRESENT | 1L << type;
+  }
+
+  private boolean containsFeature(int equivalenceSet, int feature) {
+    long[] set = equivalences[equivalenceSet];
+    return feature < set.length && (set[feature] & PRESENT) != 0;
+  }
+
+  private boolean containsType(int equivalenceSet, int feature, int type) {
+    long[] set = equivalences[equivalenceSet];
+    return feature < set.length && (set[feature] & 1L << type) != 0;
+  }
+
+  // true if the feature is present, but without any types:
+  private boolean hasNoTypes(int equivalenceSet, String featureName) {
+    Feature feature = features.get(featureName);
+    if (feature == null) {
+      return false;
+    }
+    long[] set = equivalences[equivalenceSet];
+    return feature.index < set.length && set[feature.index] == PRESENT;
+  }
+
+  private void addEquivalencesMatched(int equivalenceSet) {
+    if (equivalencesMatchedCount == equivalencesMatched.length) {
+      equivalencesMatched = Arrays.copyOf(equivalencesMatched, equivalencesMatchedCount * 2);
+    }
+    equivalencesMatched[equivalencesMatchedCount++] = equivalenceSet;
+  }
+
+  /**
+   * Add a new token to the sequence, with the same equivalence set for {@code readings} readings.
+   */
+  private void addToSequence(AnalyzedTokenReadings tokenReadings, int equivalenceSet, int readings) {
+    int pos = tokSequence.size();
+    tokSequence.add(tokenReadings);
+    if (pos == tokSequenceEquivalences.length) {
+      tokSequenceEquivalences = Arrays.copyOf(tokSequenceEquivalences, pos * 2);
+      tokSequenceEquivalenceCounts = Arrays.copyOf(tokSequenceEquivalenceCounts, pos * 2);
+    }
+    if (tokSequenceEquivalences[pos] == null || tokSequenceEquivalences[pos].length < readings) {
+      tokSequenceEquivalences[pos] = new int[Math.max(readings, 4)];
+    }
+    Arrays.fill(tokSequenceEquivalences[pos], 0, readings, equivalenceSet);
+    tokSequenceEquivalenceCounts[pos] = readings;
+  }
+
+  /**
+   * Add the equivalence set of another reading to the token at {@code pos} of the sequence.
+   */
+  private void addToSequence(int pos, int equivalenceSet) {
+    int count = tokSequenceEquivalenceCounts[pos];
+    if (count == tokSequenceEquivalences[pos].length) {
+      tokSequenceEquivalences[pos] = Arrays.copyOf(tokSequenceEquivalences[pos], count * 2);
+    }
+    tokSequenceEquivalences[pos][count] = equivalenceSet;
+    tokSequenceEquivalenceCounts[pos]++;
+  }
+
+  /**
+   * A feature with its index in the equivalence sets and the elements of its types, which
+   * are cached so they don't need to be looked up for every token.
+   */
+  private final class Feature {
+
+    private final String name;
+    private final int index;
+    private final List<String> types;  // as in the configuration, types are only ever added
+    private PatternToken[] elements = new PatternToken[0];
+
+    private Feature(String name, int index, List<String> types) {
+      this.name = name;
+      this.index = index;
+      this.types = types;
+    }
+
+    private int getTypeIndex(String type) {
+      int i = types.indexOf(type);
+      if (i >= MAX_TYPES) {
+        throw new IllegalStateException("Unification feature '" + name + "' has more than " + MAX_TYPES + " types");
+      }
+      return i;
+    }
+
+    @Nullable
+    private PatternToken getElement(int type) {
+      if (type >= elements.length) {
+        elements = Arrays.copyOf(elements, types.size());
+      }
+      PatternToken element = elements[type];
+      if (element == null) {
+        element = equivalenceTypes.get(new EquivalenceTypeLocator(name, types.get(type)));
+        elements[type] = element;
+      }
+      return element;
+    }
+  }
+
 }
@@ -42,6 +42,8 @@ public class UnifierConfiguration {
    */
   private final Map<String, List<String>> equivalenceFeatures;
 
+  private final ThreadLocal<Unifier> threadUnifiers = ThreadLocal.withInitial(this::createUnifier);
+
   public UnifierConfiguration() {
     // workaround for issue #13
     equivalenceTypes = new ConcurrentHashMap<>();
@@ -88,4 +90,29 @@ public class UnifierConfiguration {
   public Unifier createUnifier() {
     return new Unifier(getEquivalenceTypes(), getEquivalenceFeatures());
   }
+
+  /**
+   * Get a unifier that is re-used by the current thread, so matching a sentence doesn't
+   * need to create a new one. Give it back with {@link #releaseUnifier(Unifier)} when done.
+   * If the thread's unifier is still in use (e.g. by a nested call), a new one is returned.
+   * @since 4.3
+   */
+  public Unifier acquireUnifier() {
+    Unifier unifier = threadUnifiers.get();
+    if (unifier.inUse) {
+      unifier = createUnifier();
+    } else {
+      unifier.clear();
+    }
+    unifier.inUse = true;
+    return unifier;
+  }
+
+  /**
+   * Give back a unifier from {@link #acquireUnifier()}. It must not be used afterwards.
+   * @since 4.3
+   */
+  public void releaseUnifier(Unifier unifier) {
+    unifier.inUse = false;
+  }
 }
@@ -6,10 +6,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Scanner;
@@ -276,6 +283,13 @@ public class Hunspell {
          */
         private final String wordChars;
 
+        /**
+         * The buffers used to pass words to hunspell, one per thread, as creating
+         * a new byte array for every word is expensive. Null when the encoding of
+         * the dictionary isn't supported.
+         */
+        private final ThreadLocal<SpellBuffer> spellBuffers;
+
         /**
          * Creates an instance of the dictionary.
          * @param baseFileName the base name of the dictionary,
@@ -301,6 +315,19 @@ public class Hunspell {
             }
 
             wordChars = getWordCharsFromFile(aff);
+            spellBuffers = createSpellBuffers(encoding);
+        }
+
+        private ThreadLocal<SpellBuffer> createSpellBuffers(String encoding) {
+            try {
+                Charset charset = Charset.forName(encoding);
+                if (!charset.canEncode()) {
+                    return null;
+                }
+                return ThreadLocal.withInitial(() -> new SpellBuffer(charset));
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                return null;
+            }
         }
 
         /**
@@ -329,15 +356,38 @@ public class Hunspell {
          * @return true if the <code>word</code> is not correctly spelled
          */
         public boolean misspelled(String word) {
-            try {
-                final byte[] wordAsBytes = stringToBytes(word);
-                if (wordAsBytes.length == 0 && word.length() > 0) {
-                    return true;
-                }
-                return (hsl.Hunspell_spell(hunspellDict, wordAsBytes) == 0);
-            } catch (UnsupportedEncodingException e) {
+            if (spellBuffers == null) {
                 return true;
             }
+            return misspelled(spellBuffers.get(), word);
+        }
+
+        /**
+         * Check which of the given words are spelled correctly. This is faster than
+         * calling {@link #misspelled(String)} for every word, as all words are
+         * passed to hunspell in the same buffer.
+         *
+         * @param words The words to check.
+         * @return the indexes of the <code>words</code> that are not correctly spelled
+         * @since 4.3
+         */
+        public BitSet misspelled(List<String> words) {
+            BitSet result = new BitSet(words.size());
+            if (spellBuffers == null) {
+                result.set(0, words.size());
+                return result;
+            }
+            SpellBuffer buffer = spellBuffers.get();
+            for (int i = 0; i < words.size(); i++) {
+                if (misspelled(buffer, words.get(i))) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        private boolean misspelled(SpellBuffer buffer, String word) {
+            return hsl.Hunspell_spell(hunspellDict, buffer.encode(word)) == 0;
         }
 
         /**
@@ -416,4 +466,40 @@ public class Hunspell {
 
     }
 
+    /**
+     * A direct buffer for passing words to hunspell, zero terminated and in the encoding
+     * of the dictionary. Unmappable characters are replaced, like {@link String#getBytes(String)} does.
+     */
+    private static class SpellBuffer {
+
+        private final CharsetEncoder encoder;
+        private CharBuffer chars;
+        private ByteBuffer bytes;
+
+        SpellBuffer(Charset charset) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            bytes = ByteBuffer.allocateDirect(64);
+        }
+
+        ByteBuffer encode(String word) {
+            chars = ensureCapacity(chars, word.length());
+            chars.clear();
+            chars.put(word);
+            chars.flip();
+            int capacity = (int) Math.ceil(word.length() * encoder.maxBytesPerChar()) + 1;
+            if (bytes.capacity() < capacity) {
+                bytes = ByteBuffer.allocateDirect(Math.max(capacity, bytes.capacity() * 2));
+            }
+            bytes.clear();
+            encoder.reset();
+            encoder.encode(chars, bytes, true);
+            encoder.flush(bytes);
+            bytes.put((byte) 0);
+            bytes.flip();
+            return bytes;
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package org.languagetool.rules.spelling.hunspell;
 
+import java.nio.ByteBuffer;
+
 import com.sun.jna.Library;
 import com.sun.jna.Pointer;
 import com.sun.jna.ptr.PointerByReference;
@@ -37,6 +39,16 @@ public interface HunspellLibrary extends Library {
      */
     public int Hunspell_spell(Pointer pHunspell, byte[] word);
 
+    /**
+     * spell(word) - spellcheck word
+     * @param pHunspell The Hunspell object returned by Hunspell_create
+     * @param word A direct buffer with the zero terminated word to spellcheck,
+     *             starting at position 0 of the buffer.
+     * @return 0 = bad word, not 0 = good word
+     * @since 4.3
+     */
+    public int Hunspell_spell(Pointer pHunspell, ByteBuffer word);
+
     /**
      * Get the dictionary encoding
      * @param pHunspell : The Hunspell object returned by Hunspell_create
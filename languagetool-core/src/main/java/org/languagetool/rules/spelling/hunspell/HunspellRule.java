@@ -121,16 +121,32 @@ GTODO: CLean up
       return toRuleMatchArray(ruleMatches);
     }
     String[] tokens = tokenizeText(getSentenceTextWithoutUrlsAndImmunizedTokens(sentence));
+    List<String> tokenList = Arrays.asList(tokens);
+
+    // look up the words of the sentence in one batch, then create the matches:
+    BitSet ignoredTokens = new BitSet(tokens.length);
+    List<String> lookupWords = new ArrayList<>(tokens.length);
+    for (int i = 0; i < tokens.length; i++) {
+      String word = tokens[i];
+      if ((ignoreWord(tokenList, i) || ignoreWord(word)) && !isProhibited(removeTrailingDot(word))) {
+        ignoredTokens.set(i);
+      } else if (needsLookup(word)) {
+        lookupWords.add(word);
+      }
+    }
+    BitSet misspelledWords = hunspellDict.misspelled(lookupWords);
 
     // starting with the first token to skip the zero-length START_SENT
     int len = sentence.getTokens()[1].getStartPos();
+    int lookupIndex = 0;
     for (int i = 0; i < tokens.length; i++) {
       String word = tokens[i];
-      if ((ignoreWord(Arrays.asList(tokens), i) || ignoreWord(word)) && !isProhibited(removeTrailingDot(word))) {
+      if (ignoredTokens.get(i)) {
         len += word.length() + 1;
         continue;
       }
-      if (isMisspelled(word)) {
+      boolean misspelledInDict = needsLookup(word) && misspelledWords.get(lookupIndex++);
+      if (isMisspelled(word, misspelledInDict)) {
         RuleMatch ruleMatch = new RuleMatch(this, sentence,
             len, len + word.length(),
             messages.getString("spelling"),
@@ -183,16 +199,29 @@ GTODO: CLean up
         init();
       }
       */
-      boolean isAlphabetic = true;
-      if (word.length() == 1) { // hunspell dictionaries usually do not contain punctuation
-        isAlphabetic = Character.isAlphabetic(word.charAt(0));
-      }
-      return (isAlphabetic && !"--".equals(word) && hunspellDict.misspelled(word) && !ignoreWord(word)) || isProhibited(removeTrailingDot(word));
+      return (needsLookup(word) && hunspellDict.misspelled(word) && !ignoreWord(word)) || isProhibited(removeTrailingDot(word));
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
   }
 
+  // like isMisspelled(String), with the result of the dictionary lookup already known:
+  private boolean isMisspelled(String word, boolean misspelledInDict) {
+    try {
+      return (misspelledInDict && !ignoreWord(word)) || isProhibited(removeTrailingDot(word));
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  // hunspell dictionaries usually do not contain punctuation:
+  private boolean needsLookup(String word) {
+    if (word.length() == 1 && !Character.isAlphabetic(word.charAt(0))) {
+      return false;
+    }
+    return !"--".equals(word);
+  }
+
   void filterDupes(List<String> words) {
     Set<String> seen = new HashSet<>();
     Iterator<String> iterator = words.iterator();
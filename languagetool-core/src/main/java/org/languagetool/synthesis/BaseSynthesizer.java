@@ -19,41 +19,68 @@
 package org.languagetool.synthesis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.JLanguageTool;
 import org.languagetool.databroker.ResourceDataBroker;
 
 public class BaseSynthesizer implements Synthesizer {
 
-  private Set<String> possibleTags;
+  private static final int MAX_CACHED_TAG_REGEXES = 10_000;
+
+  private final Set<String> possibleTags;
 
   //GTODO private final String tagFileName;
   //GTODO private final String resourceFileName;
   private final IStemmer stemmer;
+  // one stemmer per thread, as a stemmer is not thread-safe; null if we cannot create
+  // stemmers, lookups are then synchronized:
+  private final ThreadLocal<IStemmer> stemmers;
+  // regular expression for POS tags -> matching tags of possibleTags
+  private final LoadingCache<String, List<String>> tagsForRegex;
+  // lemma|tag -> word forms, null if not enabled with setCacheSize()
+  private volatile Cache<String, String[]> wordFormCache;
   //GTODO protected final ResourceDataBroker dataBroker;
 
   //private volatile Dictionary dictionary;
 
   /**
-   * Create a synthesizer using the stemmer and tags.
+   * Create a synthesizer using the stemmer and tags. If the stemmer is a {@link DictionaryLookup},
+   * each thread gets its own lookup on the stemmer's dictionary, so lookups don't need to be synchronized.
    *
    * @param stemmer The stemmer to use.
-   * @param possibleTags The tags.
+   * @param possibleTags The tags, must not be modified later.
    */
   public BaseSynthesizer(IStemmer stemmer, Set<String> possibleTags) {
      this.stemmer = Objects.requireNonNull(stemmer, "Stemmer must be provided.");
      this.possibleTags = Objects.requireNonNull(possibleTags, "Possible tags must be provided.");
+     if (stemmer instanceof DictionaryLookup) {
+       Dictionary dictionary = ((DictionaryLookup) stemmer).getDictionary();
+       this.stemmers = ThreadLocal.withInitial(() -> new DictionaryLookup(dictionary));
+     } else {
+       this.stemmers = null;
+     }
+     this.tagsForRegex = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TAG_REGEXES).build(CacheLoader.from(this::findMatchingTags));
       //GTODO String resourceFileName, String tagFileName,
     //GTODO this.resourceFileName = resourceFileName;
     //GTODO this.tagFileName = tagFileName;
@@ -108,12 +135,63 @@ public class BaseSynthesizer implements Synthesizer {
    * @param results the list to collect the inflected forms.
    */
   protected void lookup(String lemma, String posTag, List<String> results) {
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
+    String key = lemma + "|" + posTag;
+    Cache<String, String[]> cache = wordFormCache;
+    if (cache == null) {
+      results.addAll(Arrays.asList(lookupStems(key)));
+      return;
+    }
+    String[] wordForms = cache.getIfPresent(key);
+    if (wordForms == null) {
+      wordForms = lookupStems(key);
+      cache.put(key, wordForms);
+    }
+    results.addAll(Arrays.asList(wordForms));
+  }
+
+  private String[] lookupStems(String key) {
+    if (stemmers == null) {
+      synchronized (this) { // the stemmer is not thread-safe
+        return getStems(stemmer.lookup(key));
       }
     }
+    return getStems(stemmers.get().lookup(key));
+  }
+
+  private static String[] getStems(List<WordData> wordForms) {
+    String[] stems = new String[wordForms.size()];
+    for (int i = 0; i < stems.length; i++) {
+      stems[i] = wordForms.get(i).getStem().toString();
+    }
+    return stems;
+  }
+
+  /**
+   * Cache the word forms that {@link #lookup(String, String, List)} finds for a lemma and tag,
+   * so that frequent lookups, e.g. for suggestions of agreement rules, don't need to search the
+   * dictionary again. Replaces the current cache, if any. Use
+   * {@link org.languagetool.databroker.DefaultResourceDataBroker#setSynthesizerCacheSize(String, int)}
+   * to set the cache for all synthesizers of a language.
+   * @param maxSize the maximum number of lemma/tag combinations to cache, {@code 0} to not
+   *   use a cache (the default)
+   * @since 4.3
+   */
+  public void setCacheSize(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("Cache size must be >= 0: " + maxSize);
+    }
+    wordFormCache = maxSize == 0 ? null : CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  /**
+   * @return hit and miss statistics of the cache set with {@link #setCacheSize(int)},
+   *   or {@code null} if there is no cache
+   * @since 4.3
+   */
+  @Nullable
+  public CacheStats getCacheStats() {
+    Cache<String, String[]> cache = wordFormCache;
+    return cache != null ? cache.stats() : null;
   }
 
   /**
@@ -135,13 +213,9 @@ public class BaseSynthesizer implements Synthesizer {
       boolean posTagRegExp) {
     if (posTagRegExp) {
       //GTODO initPossibleTags();
-      Pattern p = Pattern.compile(posTag);
       List<String> results = new ArrayList<>();
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
+      for (String tag : getMatchingTags(posTag)) {
+        lookup(token.getLemma(), tag, results);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -157,12 +231,41 @@ public class BaseSynthesizer implements Synthesizer {
       return possibleTags;
   }
 
+  /**
+   * Get the tags of {@link #getPossibleTags()} that match a regular expression,
+   * in the order of {@link #getPossibleTags()}. The result is cached.
+   * @param posTagRegex regular expression for the part-of-speech tags
+   * @throws java.util.regex.PatternSyntaxException if the regular expression is invalid
+   * @since 4.3
+   */
+  protected List<String> getMatchingTags(String posTagRegex) {
+    try {
+      return tagsForRegex.getUnchecked(posTagRegex);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
+  private List<String> findMatchingTags(String posTagRegex) {
+    Pattern p = Pattern.compile(posTagRegex);
+    List<String> tags = new ArrayList<>();
+    for (String tag : possibleTags) {
+      Matcher m = p.matcher(tag);
+      if (m.matches()) {
+        tags.add(tag);
+      }
+    }
+    return Collections.unmodifiableList(tags);
+  }
+
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used. Since 4.3, this is a stemmer for the
+   *   calling thread only, unless the stemmer given to the constructor is not a {@link DictionaryLookup}.
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return stemmers != null ? stemmers.get() : stemmer;
   }
 /*
 GTODO: Clean up
@@ -40,6 +40,8 @@ public class MorfologikTagger implements WordTagger {
   //private final URL dictUrl;
 
   private Dictionary dictionary;
+  private final boolean frequencyIncluded;
+  private final ThreadLocal<Lookup> lookups;
 /*
 GTODO Clean up
   public MorfologikTagger(String dictPath, ResourceDataBroker dataBroker) {
@@ -57,6 +59,8 @@ GTODO Clean up
   public MorfologikTagger(Dictionary dictionary) {
     //GTODO this.dictUrl = null;
     this.dictionary = dictionary;
+    this.frequencyIncluded = dictionary.metadata.isFrequencyIncluded();
+    this.lookups = ThreadLocal.withInitial(() -> new Lookup(dictionary));
   }
 /*
  GTODO Clean up
@@ -69,22 +73,63 @@ GTODO Clean up
 */
   @Override
   public List<TaggedWord> tag(String word) {
-    List<TaggedWord> result = new ArrayList<>();
-        // GTODO Look to passing the stemmer in at init<>...
-      IStemmer dictLookup = new DictionaryLookup(dictionary);
-      List<WordData> lookup = dictLookup.lookup(word);
-      for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
-        // Remove frequency data from tags (if exists)
-        // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
-        }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
-        TaggedWord taggedWord = new TaggedWord(stem, tag);
-        result.add(taggedWord);
+    Lookup lookup = lookups.get();
+    List<WordData> wordDataList = lookup.stemmer.lookup(word);
+    List<TaggedWord> result = new ArrayList<>(wordDataList.size());
+    for (WordData wordData : wordDataList) {
+      CharSequence tag = wordData.getTag();
+      // Remove frequency data from tags (if exists)
+      // The frequency data is in the last byte (without a separator)
+      int tagLength = tag == null ? 0 : tag.length();
+      if (frequencyIncluded && tagLength > 1) {
+        tagLength--;
       }
+      String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+      TaggedWord taggedWord = new TaggedWord(stem, tag == null ? null : lookup.getTag(tag, tagLength));
+      result.add(taggedWord);
+    }
     return result;
   }
 
+  /**
+   * The per-thread state: the stemmer, which isn't thread-safe and which re-uses its
+   * {@link WordData} objects between calls, and a small cache of the tag strings, as
+   * the number of different tags is small compared to the number of words.
+   */
+  private static final class Lookup {
+
+    private static final int TAG_CACHE_SIZE = 1024;  // must be a power of 2
+
+    private final IStemmer stemmer;
+    private final String[] tags = new String[TAG_CACHE_SIZE];
+
+    private Lookup(Dictionary dictionary) {
+      this.stemmer = new DictionaryLookup(dictionary);
+    }
+
+    private String getTag(CharSequence tag, int length) {
+      int hash = 0;
+      for (int i = 0; i < length; i++) {
+        hash = 31 * hash + tag.charAt(i);
+      }
+      int slot = (hash ^ (hash >>> 16)) & (TAG_CACHE_SIZE - 1);
+      String cached = tags[slot];
+      if (cached != null && cached.length() == length && contentEquals(cached, tag)) {
+        return cached;
+      }
+      String result = tag.subSequence(0, length).toString();
+      tags[slot] = result;
+      return result;
+    }
+
+    private static boolean contentEquals(String s, CharSequence cs) {
+      for (int i = 0; i < s.length(); i++) {
+        if (s.charAt(i) != cs.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
 }
@@ -21,8 +21,10 @@ package org.languagetool.tagging.disambiguation.rules;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
@@ -31,6 +33,8 @@ import org.languagetool.Language;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 import org.languagetool.rules.patterns.PatternToken;
 import org.languagetool.rules.patterns.Match;
+import org.languagetool.rules.patterns.Unifier;
+import org.languagetool.rules.patterns.UnifierConfiguration;
 
 /**
  * A Rule that describes a pattern of words or part-of-speech tags used for
@@ -49,6 +53,10 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
   private final Match matchElement;
   private final DisambiguatorAction disAction;
 
+  // Strings that must occur in a sentence (as token or lemma) so that this rule can match:
+  private final Set<String> requiredTokens;
+  private final Set<String> requiredLemmas;
+
   private AnalyzedToken[] newTokenReadings;
   private List<DisambiguatedExample> examples = new ArrayList<>();
   private List<String> untouchedExamples = new ArrayList<>();
@@ -78,6 +86,39 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
     this.disambiguatedPOS = disambiguatedPOS;
     this.matchElement = posSelect;
     this.disAction = Objects.requireNonNull(disambAction);
+    this.requiredTokens = getRequiredStrings(false);
+    this.requiredLemmas = getRequiredStrings(true);
+  }
+
+  // tokens that just refer to a word, like in PatternRule
+  private Set<String> getRequiredStrings(boolean inflected) {
+    Set<String> set = new HashSet<>();
+    for (PatternToken patternToken : patternTokens) {
+      if (patternToken.isInflected() == inflected && !patternToken.getNegation() && !patternToken.isRegularExpression()
+              && !patternToken.isReferenceElement() && patternToken.getMinOccurrence() > 0) {
+        String str = patternToken.getString();
+        if (str != null && !str.isEmpty()) {
+          set.add(DisambiguationRuleIndex.normalize(str));
+        }
+      }
+    }
+    return Collections.unmodifiableSet(set);
+  }
+
+  /**
+   * Tokens (in the normalized form of {@link DisambiguationRuleIndex}) that a sentence
+   * must contain for this rule to match.
+   */
+  Set<String> getRequiredTokens() {
+    return requiredTokens;
+  }
+
+  /**
+   * Lemmas (in the normalized form of {@link DisambiguationRuleIndex}) that a sentence
+   * must contain for this rule to match.
+   */
+  Set<String> getRequiredLemmas() {
+    return requiredLemmas;
   }
 
   /**
@@ -97,8 +138,14 @@ public class DisambiguationPatternRule extends AbstractPatternRule {
    * @return {@link AnalyzedSentence} Disambiguated sentence (might be unchanged).
    */
   public final AnalyzedSentence replace(AnalyzedSentence sentence) throws Exception {
-    DisambiguationPatternRuleReplacer replacer = new DisambiguationPatternRuleReplacer(this);
-    return replacer.replace(sentence);
+    UnifierConfiguration unifierConfig = getLanguage().getDisambiguationUnifierConfiguration();
+    Unifier unifier = unifierConfig.acquireUnifier();
+    try {
+      DisambiguationPatternRuleReplacer replacer = new DisambiguationPatternRuleReplacer(this, unifier);
+      return replacer.replace(sentence);
+    } finally {
+      unifierConfig.releaseUnifier(unifier);
+    }
   }
 
   public void setExamples(List<DisambiguatedExample> examples) {
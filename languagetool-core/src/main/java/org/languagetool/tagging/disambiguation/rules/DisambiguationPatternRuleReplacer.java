@@ -41,8 +41,8 @@ class DisambiguationPatternRuleReplacer extends AbstractPatternRulePerformer {
 
   private final List<Boolean> pTokensMatched;
 
-  DisambiguationPatternRuleReplacer(DisambiguationPatternRule rule) {
-    super(rule, rule.getLanguage().getDisambiguationUnifier());
+  DisambiguationPatternRuleReplacer(DisambiguationPatternRule rule, Unifier unifier) {
+    super(rule, unifier);
     pTokensMatched = new ArrayList<>(rule.getPatternTokens().size());
   }
 
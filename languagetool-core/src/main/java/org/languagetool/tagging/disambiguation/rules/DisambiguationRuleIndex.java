@@ -0,0 +1,159 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+
+import java.util.*;
+
+/**
+ * An inverted index from the tokens and lemmas that the rules of a {@link XmlRuleDisambiguator}
+ * require to the rules' positions, so that for each sentence the rules that cannot match are
+ * skipped without running their pattern. Disambiguation changes the readings of a sentence,
+ * so unlike {@link org.languagetool.rules.patterns.PatternRuleIndex}, the candidates need to
+ * be looked up again whenever a rule has changed the sentence.
+ * @since 4.3
+ */
+class DisambiguationRuleIndex {
+
+  private final List<DisambiguationPatternRule> rules;
+  private final Map<String, int[]> tokenIndex;
+  private final Map<String, int[]> lemmaIndex;
+  private final BitSet unanchoredRules = new BitSet();
+
+  DisambiguationRuleIndex(List<DisambiguationPatternRule> rules) {
+    this.rules = Objects.requireNonNull(rules);
+    Map<String, List<Integer>> tokenToRules = new HashMap<>();
+    Map<String, List<Integer>> lemmaToRules = new HashMap<>();
+    for (int i = 0; i < rules.size(); i++) {
+      DisambiguationPatternRule rule = rules.get(i);
+      // one anchor is enough to preselect a rule, the full check is done by mightMatch():
+      String tokenAnchor = getAnchor(rule.getRequiredTokens());
+      String lemmaAnchor = getAnchor(rule.getRequiredLemmas());
+      if (tokenAnchor != null) {
+        tokenToRules.computeIfAbsent(tokenAnchor, k -> new ArrayList<>()).add(i);
+      } else if (lemmaAnchor != null) {
+        lemmaToRules.computeIfAbsent(lemmaAnchor, k -> new ArrayList<>()).add(i);
+      } else {
+        unanchoredRules.set(i);
+      }
+    }
+    tokenIndex = toArrays(tokenToRules);
+    lemmaIndex = toArrays(lemmaToRules);
+  }
+
+  /**
+   * The normalized form used for matching the rules' strings against the sentence's strings. Two
+   * strings have the same normalized form exactly if {@link String#equalsIgnoreCase(String)} is
+   * {@code true} for them, which is how pattern tokens compare strings that are not case-sensitive.
+   */
+  static String normalize(String s) {
+    char[] chars = s.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  /**
+   * Longer words are usually less common, so the longest one is the most selective anchor.
+   */
+  private static String getAnchor(Set<String> requiredStrings) {
+    String anchor = null;
+    for (String s : requiredStrings) {
+      if (anchor == null || s.length() > anchor.length() || (s.length() == anchor.length() && s.compareTo(anchor) < 0)) {
+        anchor = s;
+      }
+    }
+    return anchor;
+  }
+
+  private static Map<String, int[]> toArrays(Map<String, List<Integer>> map) {
+    Map<String, int[]> result = new HashMap<>();
+    for (Map.Entry<String, List<Integer>> entry : map.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+    }
+    return result;
+  }
+
+  /**
+   * Find the rules that might match the given sentence, in a single pass over its readings.
+   */
+  Candidates getCandidates(AnalyzedSentence sentence) {
+    Set<String> tokens = new HashSet<>();
+    Set<String> lemmas = new HashSet<>();
+    for (AnalyzedTokenReadings readings : sentence.getTokens()) {
+      tokens.add(normalize(readings.getToken()));
+      // readings added by disambiguation can have a token of their own, and pattern
+      // tokens match the readings' tokens:
+      for (AnalyzedToken reading : readings) {
+        tokens.add(normalize(reading.getToken()));
+        lemmas.add(normalize(reading.getLemma() != null ? reading.getLemma() : reading.getToken()));
+      }
+    }
+    BitSet candidates = (BitSet) unanchoredRules.clone();
+    addCandidates(tokens, tokenIndex, candidates);
+    addCandidates(lemmas, lemmaIndex, candidates);
+    return new Candidates(candidates, tokens, lemmas);
+  }
+
+  private static void addCandidates(Set<String> strings, Map<String, int[]> index, BitSet candidates) {
+    for (String s : strings) {
+      int[] rulePositions = index.get(s);
+      if (rulePositions != null) {
+        for (int position : rulePositions) {
+          candidates.set(position);
+        }
+      }
+    }
+  }
+
+  /**
+   * The result of {@link #getCandidates(AnalyzedSentence)} for one sentence.
+   */
+  class Candidates {
+
+    private final BitSet candidates;
+    private final Set<String> tokens;
+    private final Set<String> lemmas;
+
+    private Candidates(BitSet candidates, Set<String> tokens, Set<String> lemmas) {
+      this.candidates = candidates;
+      this.tokens = tokens;
+      this.lemmas = lemmas;
+    }
+
+    /**
+     * @return the position of the next rule at or after {@code fromPosition} that might match
+     *   the sentence, or {@code -1} if there is none
+     */
+    int next(int fromPosition) {
+      for (int i = candidates.nextSetBit(fromPosition); i >= 0; i = candidates.nextSetBit(i + 1)) {
+        DisambiguationPatternRule rule = rules.get(i);
+        if (tokens.containsAll(rule.getRequiredTokens()) && lemmas.containsAll(rule.getRequiredLemmas())) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+}
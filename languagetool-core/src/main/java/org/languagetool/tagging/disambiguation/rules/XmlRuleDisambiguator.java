@@ -44,9 +44,11 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
   // GTODO: private static final String DISAMBIGUATION_FILE = "disambiguation.xml";
 
   private final List<DisambiguationPatternRule> disambiguationRules;
+  private final DisambiguationRuleIndex ruleIndex;
 
   public XmlRuleDisambiguator(List<DisambiguationPatternRule> disambiguationRules) {
       this.disambiguationRules = disambiguationRules;
+      this.ruleIndex = new DisambiguationRuleIndex(disambiguationRules);
       /*
       GTODO: Clean up
     Objects.requireNonNull(language);
@@ -62,12 +64,26 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
   @Override
   public AnalyzedSentence disambiguate(AnalyzedSentence input) throws Exception {
     AnalyzedSentence sentence = input;
-    for (DisambiguationPatternRule patternRule : disambiguationRules) {
-      sentence = patternRule.replace(sentence);
+    // rules that cannot match are skipped, the others are applied in their original order:
+    DisambiguationRuleIndex.Candidates candidates = ruleIndex.getCandidates(sentence);
+    for (int i = candidates.next(0); i >= 0; i = candidates.next(i + 1)) {
+      AnalyzedSentence result = disambiguationRules.get(i).replace(sentence);
+      if (result != sentence) {
+        // the rule might have added lemmas that later rules need:
+        sentence = result;
+        candidates = ruleIndex.getCandidates(sentence);
+      }
     }
     return sentence;
   }
 
+  /**
+   * @return the rules in the order they are applied
+   */
+  List<DisambiguationPatternRule> getRules() {
+    return disambiguationRules;
+  }
+
   /**
    * Load disambiguation rules from an XML file. Use {@link JLanguageTool#addRule} to add
    * these rules to the checking process.
@@ -18,8 +18,13 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.markup.AnnotatedText;
@@ -30,9 +35,11 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Write rule matches and some meta information as JSON.
@@ -45,7 +52,12 @@ public class RuleMatchesAsJsonSerializer {
   private static final String PREMIUM_HINT = "You might be missing errors only the Premium version can find. Contact us at support<at>languagetoolplus.com.";
   private static final String START_MARKER = "__languagetool_start_marker";
 
-  private final JsonFactory factory = new JsonFactory();
+  private static final JsonFactory FACTORY = new JsonFactory();
+  // the software section is the same for every response:
+  private static final SerializableString SOFTWARE_SECTION = serialize(RuleMatchesAsJsonSerializer::writeSoftwareSection);
+  // categories are shared by all rule matches of a rule, weak keys compare by identity and let
+  // categories of discarded JLanguageTool instances be garbage collected:
+  private static final Cache<Category, SerializableString> CATEGORY_SECTIONS = CacheBuilder.newBuilder().weakKeys().build();
 
   public String ruleMatchesToJson(List<RuleMatch> matches, String text, int contextSize, Language lang, Language detectedLang) {
     return ruleMatchesToJson(matches, new ArrayList<>(), text, contextSize, lang, detectedLang, null);
@@ -68,32 +80,85 @@ public class RuleMatchesAsJsonSerializer {
    */
   public String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                   Language lang, Language detectedLang, String incompleteResultsReason) {
+    StringWriter sw = new StringWriter();
+    try {
+      try (JsonGenerator g = FACTORY.createGenerator(sw)) {
+        writeJson(g, matches, hiddenMatches, text, contextSize, lang, detectedLang, incompleteResultsReason);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return sw.toString();
+  }
+
+  /**
+   * Like {@link #ruleMatchesToJson(List, List, AnnotatedText, int, Language, Language, String)}, but
+   * writes the JSON as UTF-8 directly to {@code out} instead of building a String. {@code out} is flushed but not closed.
+   * @since 4.3
+   */
+  public void ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                Language lang, Language detectedLang, String incompleteResultsReason, OutputStream out) throws IOException {
+    try (JsonGenerator g = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      writeJson(g, matches, hiddenMatches, text, contextSize, lang, detectedLang, incompleteResultsReason);
+    }
+  }
+
+  /**
+   * Write only the given matches as {@code {"partialMatches": [...]}}, with each match in the same format
+   * as in the full response. Used to send results while a long text is still being checked.
+   * {@code out} is flushed but not closed.
+   * @since 4.3
+   */
+  public void partialMatchesToJson(List<RuleMatch> matches, AnnotatedText text, int contextSize, OutputStream out) throws IOException {
+    try (JsonGenerator g = FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      g.writeStartObject();
+      writeMatchesSection("partialMatches", g, matches, text, getContextTools(contextSize));
+      g.writeEndObject();
+    }
+  }
+
+  private ContextTools getContextTools(int contextSize) {
     ContextTools contextTools = new ContextTools();
     contextTools.setEscapeHtml(false);
     contextTools.setContextSize(contextSize);
     contextTools.setErrorMarkerStart(START_MARKER);
     contextTools.setErrorMarkerEnd("");
+    return contextTools;
+  }
+
+  private void writeJson(JsonGenerator g, List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                         Language lang, Language detectedLang, String incompleteResultsReason) throws IOException {
+    ContextTools contextTools = getContextTools(contextSize);
+    g.writeStartObject();
+    g.writeFieldName("software");
+    g.writeRawValue(SOFTWARE_SECTION);
+    writeWarningsSection(g, incompleteResultsReason);
+    writeLanguageSection(g, lang, detectedLang);
+    writeMatchesSection("matches", g, matches, text, contextTools);
+    if (hiddenMatches != null && hiddenMatches.size() > 0) {
+      writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
+    }
+    g.writeEndObject();
+  }
+
+  private static SerializableString serialize(JsonWriter writer) {
     StringWriter sw = new StringWriter();
-    try {
-      try (JsonGenerator g = factory.createGenerator(sw)) {
-        g.writeStartObject();
-        writeSoftwareSection(g);
-        writeWarningsSection(g, incompleteResultsReason);
-        writeLanguageSection(g, lang, detectedLang);
-        writeMatchesSection("matches", g, matches, text, contextTools);
-        if (hiddenMatches != null && hiddenMatches.size() > 0) {
-          writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
-        }
-        g.writeEndObject();
-      }
+    try (JsonGenerator g = FACTORY.createGenerator(sw)) {
+      writer.write(g);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
-    return sw.toString();
+    return new SerializedString(sw.toString());
   }
 
-  private void writeSoftwareSection(JsonGenerator g) throws IOException {
-    g.writeObjectFieldStart("software");
+  private interface JsonWriter {
+    void write(JsonGenerator g) throws IOException;
+  }
+
+  private static void writeSoftwareSection(JsonGenerator g) throws IOException {
+    g.writeStartObject();
     g.writeStringField("name", "LanguageTool");
     g.writeStringField("version", JLanguageTool.VERSION);
     g.writeStringField("buildDate", JLanguageTool.BUILD_DATE);
@@ -201,12 +266,21 @@ public class RuleMatchesAsJsonSerializer {
       g.writeEndObject();
       g.writeEndArray();
     }
-    writeCategory(g, match.getRule().getCategory());
+    g.writeFieldName("category");
+    g.writeRawValue(getCategorySection(match.getRule().getCategory()));
     g.writeEndObject();
   }
 
-  private void writeCategory(JsonGenerator g, Category category) throws IOException {
-    g.writeObjectFieldStart("category");
+  private SerializableString getCategorySection(Category category) {
+    try {
+      return CATEGORY_SECTIONS.get(category, () -> serialize(g -> writeCategory(g, category)));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void writeCategory(JsonGenerator g, Category category) throws IOException {
+    g.writeStartObject();
     CategoryId catId = category.getId();
     if (catId != null) {
       g.writeStringField("id", catId.toString());
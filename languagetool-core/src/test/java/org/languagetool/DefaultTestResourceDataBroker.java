@@ -27,7 +27,7 @@ import org.languagetool.databroker.*;
 import org.languagetool.tagging.*;
 import org.languagetool.chunking.*;
 import org.languagetool.tagging.disambiguation.*;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 
 public class DefaultTestResourceDataBroker extends DefaultResourceDataBroker {
 
@@ -53,7 +53,7 @@ public class DefaultTestResourceDataBroker extends DefaultResourceDataBroker {
     }
 
     @Override
-    public LuceneLanguageModel getLanguageModel() throws Exception {
+    public LanguageModel getLanguageModel() throws Exception {
         return createLanguageModelFromResourcePath();
     }
 
@@ -52,6 +52,74 @@ public class MultiThreadedJLanguageToolTest {
     assertEquals(ruleMatchIds1, ruleMatchIds2);
   }
 
+  @Test
+  public void testCheckWorkStealing() throws Exception {
+    String input = "A small toast. No error here.\nFoo go bar. First goes last there, please!\n\nA small toast. Foo go bar.";
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(TestTools.getTestLanguage());
+    lt1.setCleanOverlappingMatches(false);
+    lt1.setWorkStealing(true);
+    List<RuleMatch> matches1 = lt1.check(input);
+    lt1.shutdown();
+
+    JLanguageTool lt2 = new JLanguageTool(TestTools.getTestLanguage());
+    lt2.setCleanOverlappingMatches(false);
+    List<RuleMatch> matches2 = lt2.check(input);
+    assertThat(matches1.size(), is(matches2.size()));
+    for (int i = 0; i < matches1.size(); i++) {
+      RuleMatch match1 = matches1.get(i);
+      RuleMatch match2 = matches2.get(i);
+      assertThat(match1.getRule().getId(), is(match2.getRule().getId()));
+      assertThat(match1.getFromPos(), is(match2.getFromPos()));
+      assertThat(match1.getToPos(), is(match2.getToPos()));
+      assertThat(match1.getLine(), is(match2.getLine()));
+      assertThat(match1.getColumn(), is(match2.getColumn()));
+      assertThat(match1.getEndLine(), is(match2.getEndLine()));
+      assertThat(match1.getEndColumn(), is(match2.getEndColumn()));
+    }
+  }
+
+  @Test
+  public void testCheckWithRuleCosts() throws Exception {
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(TestTools.getTestLanguage(), 3);
+    lt1.setCleanOverlappingMatches(false);
+    RuleTimings timings = new RuleTimings();
+    lt1.setRuleTimingListener(timings);
+    lt1.setRuleCosts(timings);
+    // matches at the same position may come in a different order, so compare sorted ids:
+    List<String> ruleMatchIds1 = getRuleMatchIds(lt1);
+    Collections.sort(ruleMatchIds1);
+    List<String> ruleMatchIdsWithCosts = getRuleMatchIds(lt1);  // second run uses the measured costs
+    Collections.sort(ruleMatchIdsWithCosts);
+    assertThat(ruleMatchIdsWithCosts, is(ruleMatchIds1));
+    List<Rule> rules = lt1.getAllRules();
+    List<List<Rule>> chunks = lt1.splitRulesByCost(rules, 3);
+    assertThat(chunks.size(), is(3));
+    int ruleCount = 0;
+    for (List<Rule> chunk : chunks) {
+      ruleCount += chunk.size();
+    }
+    assertThat(ruleCount, is(rules.size()));
+    lt1.shutdown();
+
+    JLanguageTool lt2 = new JLanguageTool(TestTools.getTestLanguage());
+    lt2.setCleanOverlappingMatches(false);
+    List<String> ruleMatchIds2 = getRuleMatchIds(lt2);
+    Collections.sort(ruleMatchIds2);
+    assertEquals(ruleMatchIds1, ruleMatchIds2);
+  }
+
+  @Test
+  public void testShutdownExceptionWorkStealing() throws Exception {
+    MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(TestTools.getTestLanguage());
+    tool.setWorkStealing(true);
+    getRuleMatchIds(tool);
+    tool.shutdown();
+    try {
+      getRuleMatchIds(tool);
+      fail("should have been rejected as the thread pool has been shut down");
+    } catch (RejectedExecutionException ignore) {}
+  }
+
   @Test
   public void testShutdownException() throws Exception {
     MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(TestTools.getTestLanguage());
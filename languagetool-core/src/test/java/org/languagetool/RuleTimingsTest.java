@@ -0,0 +1,78 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.Rule;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class RuleTimingsTest {
+
+  @Test
+  public void testTimings() {
+    RuleTimings timings = new RuleTimings();
+    Rule rule = new FakeRule();
+    for (int i = 1; i <= 100; i++) {
+      timings.ruleTimed(rule, i * 1000);
+    }
+    assertThat(timings.getRuleIds(), is(Collections.singleton("FAKE-RULE")));
+    assertThat(timings.getCount("FAKE-RULE"), is(100L));
+    assertThat(timings.getTotalNanos("FAKE-RULE"), is(5_050_000L));
+    assertThat(timings.getCallCount(), is(100L));
+    assertThat(timings.getTotalNanos(), is(5_050_000L));
+    long p99 = timings.getPercentileNanos("FAKE-RULE", 99);
+    assertTrue("p99: " + p99, p99 >= 99_000 && p99 <= 99_000 * 1.25);
+    long p50 = timings.getPercentileNanos("FAKE-RULE", 50);
+    assertTrue("p50: " + p50, p50 >= 50_000 && p50 <= 50_000 * 1.25);
+    assertThat(timings.getSlowestRules().length, is(1));
+    assertThat(timings.getCount("UNKNOWN"), is(0L));
+    assertThat(timings.getPercentileNanos("UNKNOWN", 99), is(0L));
+    timings.reset();
+    assertThat(timings.getCallCount(), is(0L));
+  }
+
+  @Test
+  public void testBuckets() {
+    for (long nanos : new long[] {0, 1, 3, 4, 7, 8, 9, 10, 1000, 123_456_789, Long.MAX_VALUE / 2}) {
+      int bucket = RuleTimings.Timing.getBucket(nanos);
+      long upperBound = RuleTimings.Timing.getUpperBound(bucket);
+      assertTrue(nanos + " > " + upperBound, nanos <= upperBound || nanos > 1L << 41);
+      if (bucket > 0) {
+        assertTrue(nanos + " <= " + RuleTimings.Timing.getUpperBound(bucket - 1), nanos > RuleTimings.Timing.getUpperBound(bucket - 1));
+      }
+    }
+  }
+
+  @Test
+  public void testCheckWithTimings() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    RuleTimings timings = new RuleTimings();
+    lt.setRuleTimingListener(timings);
+    lt.check("A small toast. No error here.");
+    assertTrue(timings.getCallCount() > 0);
+    assertTrue(timings.getRuleIds().size() > 0);
+  }
+
+}
@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class SerializedMatchesStoreTest {
+
+  @Test
+  public void testPutAndGet() {
+    SerializedMatchesStore store = new SerializedMatchesStore(4096);
+    assertNull(store.get(1, 2));
+    store.put(1, 2, bytes("foo"));
+    store.put(1, 3, bytes("bar"));
+    assertEquals("foo", string(store.get(1, 2)));
+    assertEquals("bar", string(store.get(1, 3)));
+    assertNull(store.get(2, 2));
+    store.put(1, 2, bytes("foo2"));
+    assertEquals("foo2", string(store.get(1, 2)));
+    assertEquals(2, store.getEntryCount());
+    assertEquals(3, store.getHitCount());
+    assertEquals(2, store.getMissCount());
+  }
+
+  @Test
+  public void testOldEntriesGetOverwritten() {
+    SerializedMatchesStore store = new SerializedMatchesStore(1024);
+    for (int i = 0; i < 100; i++) {
+      store.put(i, i, bytes("entry number " + i));
+    }
+    assertNull(store.get(0, 0));
+    assertNull(store.get(50, 50));
+    assertEquals("entry number 99", string(store.get(99, 99)));
+    int count = store.getEntryCount();
+    assertTrue(count > 10 && count < 100);
+    // too large, not stored:
+    store.put(200, 200, new byte[500]);
+    assertNull(store.get(200, 200));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    SerializedMatchesStore store = new SerializedMatchesStore(2048);
+    for (int i = 0; i < 20; i++) {
+      store.put(i, -i, bytes("entry " + i));
+    }
+    File file = File.createTempFile(SerializedMatchesStoreTest.class.getSimpleName(), ".tmp");
+    try {
+      store.save(file.toPath());
+      SerializedMatchesStore loaded = new SerializedMatchesStore(2048);
+      assertEquals(20, loaded.load(file.toPath()));
+      for (int i = 0; i < 20; i++) {
+        assertEquals("entry " + i, string(loaded.get(i, -i)));
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testLoadFromOtherBuild() throws Exception {
+    SerializedMatchesStore store = new SerializedMatchesStore(2048, "4.2 2018-06-26");
+    store.put(1, 2, bytes("entry"));
+    File file = File.createTempFile(SerializedMatchesStoreTest.class.getSimpleName(), ".tmp");
+    try {
+      store.save(file.toPath());
+      SerializedMatchesStore loaded = new SerializedMatchesStore(2048, "4.3 2018-09-26");
+      try {
+        loaded.load(file.toPath());
+        fail("Entries from another build must not be loaded");
+      } catch (IOException expected) {
+      }
+      assertEquals(0, loaded.getEntryCount());
+      assertNull(loaded.get(1, 2));
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] b) {
+    return b == null ? null : new String(b, StandardCharsets.UTF_8);
+  }
+
+}
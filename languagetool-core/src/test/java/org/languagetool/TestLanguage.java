@@ -30,7 +30,7 @@ import org.languagetool.tagging.disambiguation.rules.xx.DemoDisambiguator2;
 import org.languagetool.tagging.xx.DemoTagger;
 import org.languagetool.chunking.Chunker;
 import org.languagetool.chunking.xx.DemoChunker;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -98,7 +98,7 @@ public class TestLanguage extends Language<DefaultTestResourceDataBroker> {
   }
 
   @Override
-  public LuceneLanguageModel getLanguageModel() throws Exception {
+  public LanguageModel getLanguageModel() throws Exception {
       return getUseDataBroker().getLanguageModel();
   }
 
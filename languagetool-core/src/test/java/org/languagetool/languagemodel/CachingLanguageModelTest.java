@@ -0,0 +1,87 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CachingLanguageModelTest {
+
+  @Test
+  public void testCache() {
+    CountingLanguageModel lm = new CountingLanguageModel();
+    CachingLanguageModel cache = new CachingLanguageModel(lm, 1000);
+    assertThat(cache.getCount("the"), is(3L));
+    assertThat(cache.getCount("the"), is(3L));
+    assertThat(cache.getCount(Arrays.asList("the", "house")), is(9L));
+    assertThat(cache.getCount(Arrays.asList("the", "house")), is(9L));
+    assertThat(cache.getCount("the house"), is(9L));
+    assertThat(lm.lookups, is(3));
+    assertThat(cache.getHitCount(), is(2L));
+    assertThat(cache.getMissCount(), is(3L));
+    assertThat(cache.getHitRate(), is(0.4));
+    assertThat(cache.getSize(), is(3L));
+    assertThat(cache.getTotalTokenCount(), is(42L));
+    assertThat(cache.getTotalTokenCount(), is(42L));
+    assertThat(lm.totalTokenCountLookups, is(1));
+  }
+
+  @Test
+  public void testEviction() {
+    CountingLanguageModel lm = new CountingLanguageModel();
+    CachingLanguageModel cache = new CachingLanguageModel(lm, 32);
+    for (int i = 0; i < 1000; i++) {
+      assertThat(cache.getCount("word" + i), is((long) ("word" + i).length()));
+      assertThat(cache.getCount("the"), is(3L));  // stays cached as it's always recently used
+    }
+    assertThat(lm.lookups, is(1001));
+    assertThat(cache.getHitCount(), is(999L));
+    assertThat(cache.getSize() <= 32, is(true));
+    assertThat(cache.getEvictionCount(), is(1001L - cache.getSize()));
+  }
+
+  private static class CountingLanguageModel extends BaseLanguageModel {
+    private int lookups;
+    private int totalTokenCountLookups;
+    @Override
+    public long getCount(String token1) {
+      return getCount(Collections.singletonList(token1));
+    }
+    @Override
+    public long getCount(List<String> tokens) {
+      lookups++;
+      return String.join(" ", tokens).length();
+    }
+    @Override
+    public long getTotalTokenCount() {
+      totalTokenCountLookups++;
+      return 42;
+    }
+    @Override
+    public void close() {
+    }
+  }
+
+}
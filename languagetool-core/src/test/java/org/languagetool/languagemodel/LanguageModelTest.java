@@ -30,7 +30,7 @@ public class LanguageModelTest {
   private static final int SKIP_FIRST_ITEMS = 5;
   private static final String FILE = "/lt/performance-test/en.txt";
 
-  protected void testPerformance(LuceneLanguageModel model, int ngramLength) throws Exception {
+  protected void testPerformance(BaseLanguageModel model, int ngramLength) throws Exception {
     try (FileInputStream fis = new FileInputStream(FILE)) {
       String content = StringTools.readStream(fis, "UTF-8");
       WordTokenizer wordTokenizer = new WordTokenizer();
@@ -36,7 +36,7 @@ public class LuceneSingleIndexLanguageModelTest extends LanguageModelTest {
   public void testLanguageModel() throws Exception {
       // GTODO: This probably needs more work.
     TestLanguage lang = TestTools.getTestLanguage();
-    LuceneLanguageModel model = lang.getLanguageModel();
+    LuceneLanguageModel model = (LuceneLanguageModel) lang.getLanguageModel();
     // GTODO URL ngramUrl = lang.getUseDataBroker().getFromResourceDirAsUrl(String.format("/%1$s/ngram-index", lang.getShortCode()));
     // GTODO try (LuceneLanguageModel model = new LuceneLanguageModel(new File(ngramUrl.getFile()))) {
       assertThat(model.getCount("the"), is(55L));
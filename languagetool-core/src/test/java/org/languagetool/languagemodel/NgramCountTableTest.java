@@ -0,0 +1,99 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NgramCountTableTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testTable() throws Exception {
+    NgramCountTable.Builder builder = new NgramCountTable.Builder(2);
+    builder.add("the house", 12);
+    builder.add("a house", 3);
+    builder.add("the house", 5);
+    builder.add("zero count", 0);
+    builder.add("big count", 1L << 40);
+    Random random = new Random(42);
+    for (int i = 0; i < 10_000; i++) {
+      builder.add("word" + i + " x", i % 1000);
+    }
+    Path file = tempFolder.newFile().toPath();
+    builder.write(file);
+    try (NgramCountTable table = NgramCountTable.open(file)) {
+      assertThat(table.getNgramSize(), is(2));
+      assertThat(table.getNgramCount(), is(10_004L));
+      assertThat(table.getCount("the house"), is(17L));
+      assertThat(table.getCount(Arrays.asList("the", "house")), is(17L));
+      assertThat(table.getCount(Arrays.asList("a", "house")), is(3L));
+      assertThat(table.getCount("zero count"), is(0L));
+      assertThat(table.getCount("big count"), is(1L << 40));
+      assertThat(table.getCount("the House"), is(0L));
+      assertThat(table.getCount("thehouse"), is(0L));
+      for (int i = 0; i < 10_000; i++) {
+        int j = random.nextInt(10_000);
+        assertThat(table.getCount("word" + j + " x"), is((long) (j % 1000)));
+        assertThat(table.getCount("word" + j + " y"), is(0L));
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyTable() throws Exception {
+    Path file = tempFolder.newFile().toPath();
+    new NgramCountTable.Builder(3).write(file);
+    try (NgramCountTable table = NgramCountTable.open(file)) {
+      assertThat(table.getNgramCount(), is(0L));
+      assertThat(table.getCount(Arrays.asList("a", "b", "c")), is(0L));
+    }
+  }
+
+  @Test
+  public void testLanguageModel() throws Exception {
+    File dir = tempFolder.newFolder();
+    NgramCountTable.Builder builder1 = new NgramCountTable.Builder(1);
+    builder1.add("the", 55);
+    builder1.setTotalTokenCount(3);
+    builder1.write(new File(dir, "1grams.counts").toPath());
+    NgramCountTable.Builder builder3 = new NgramCountTable.Builder(3);
+    builder3.add("the nice building", 1);
+    builder3.write(new File(dir, "3grams.counts").toPath());
+    try (MappedNgramLanguageModel model = DefaultResourceDataBroker.createMappedNgramLanguageModel(dir.toPath())) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.FakeRule;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class PatternRuleAutomatonTest {
+
+  @Test
+  public void testCandidates() throws Exception {
+    PatternRule fooBarRule = getPatternRule(new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false));
+    PatternRule fooBazRule = getPatternRule(new PatternToken("foo", false, false, false), new PatternToken("baz", false, false, false));
+    PatternRule regexRule = getPatternRule(new PatternToken("fo+", false, true, false));
+    PatternRuleAutomaton automaton = new PatternRuleAutomaton(Arrays.asList(fooBarRule, fooBazRule, regexRule, new FakeRule()));
+    assertThat(automaton.size(), is(3));
+    assertThat(automaton.getStateCount(), is(4));  // start, "foo", "foo bar", "foo baz"
+
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("Here is foo bar and FOO bar.");
+    PatternRuleAutomaton.Candidates candidates = automaton.getCandidates(sentence);
+    assertTrue(candidates.mightMatch(fooBarRule));
+    assertFalse(candidates.mightMatch(fooBazRule));
+    assertTrue(candidates.mightMatch(regexRule));
+    assertTrue(candidates.mightMatch(new FakeRule()));
+    BitSet startPositions = candidates.getStartPositions(fooBarRule);
+    assertThat(startPositions.cardinality(), is(2));
+    assertThat(startPositions.nextSetBit(0), is(3));  // SENT_START, Here, is, foo
+    assertThat(candidates.getStartPositions(fooBazRule).cardinality(), is(0));
+    assertNull(candidates.getStartPositions(regexRule));
+    assertThat(fooBarRule.match(sentence, startPositions).length, is(2));
+    assertThat(fooBarRule.match(sentence, new BitSet()).length, is(0));
+
+    // both tokens are required, but not in this order:
+    AnalyzedSentence sentence2 = lt.getAnalyzedSentence("Here is bar foo.");
+    assertFalse(automaton.getCandidates(sentence2).mightMatch(fooBarRule));
+  }
+
+  @Test
+  public void testNormalize() {
+    assertThat(PatternRuleAutomaton.normalize("FooBAR"), is("foobar"));
+    assertThat(PatternRuleAutomaton.normalize("I"), is(PatternRuleAutomaton.normalize("ı")));  // dotless i
+  }
+
+  @Test
+  public void testNoMatchesLost() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    List<AbstractPatternRule> rules = TestTools.getTestLanguage().getPatternRules();
+    PatternRuleAutomaton automaton = new PatternRuleAutomaton(rules);
+    List<String> sentences = new ArrayList<>(Arrays.asList("A small toast.", "No error here.", "Foo go bar.", "First goes last there, please!"));
+    for (AbstractPatternRule rule : rules) {
+      for (IncorrectExample example : rule.getIncorrectExamples()) {
+        sentences.add(example.getExample().replaceAll("</?marker>", ""));
+      }
+    }
+    for (String text : sentences) {
+      AnalyzedSentence sentence = lt.getAnalyzedSentence(text);
+      PatternRuleAutomaton.Candidates candidates = automaton.getCandidates(sentence);
+      for (AbstractPatternRule rule : rules) {
+        RuleMatch[] matches = rule.match(sentence);
+        if (matches.length > 0) {
+          assertTrue(rule.getFullId() + " matches but was skipped for '" + text + "'", candidates.mightMatch(rule));
+        }
+        if (rule instanceof PatternRule) {
+          RuleMatch[] startPositionMatches = ((PatternRule) rule).match(sentence, candidates.getStartPositions(rule));
+          assertThat(rule.getFullId() + " for '" + text + "'", Arrays.toString(startPositionMatches), is(Arrays.toString(matches)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCheckWithAutomaton() throws Exception {
+    String text = "A small toast. No error here. Foo go bar. First goes last there, please!";
+    JLanguageTool lt1 = new JLanguageTool(TestTools.getTestLanguage());
+    lt1.setUsePatternRuleAutomaton(true);
+    JLanguageTool lt2 = new JLanguageTool(TestTools.getTestLanguage());
+    assertThat(lt1.check(text).toString(), is(lt2.check(text).toString()));
+  }
+
+  private PatternRule getPatternRule(PatternToken... patternTokens) {
+    return new PatternRule("", TestTools.getTestLanguage(), Arrays.asList(patternTokens), "my description", "my message", "short message");
+  }
+
+}
@@ -0,0 +1,82 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.FakeRule;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PatternRuleIndexTest {
+
+  @Test
+  public void testCandidates() throws Exception {
+    PatternRule tokenRule = getPatternRule(new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false));
+    PatternRule lemmaRule = getPatternRule(new PatternToken("go", false, false, true));
+    PatternRule regexRule = getPatternRule(new PatternToken("fo+", false, true, false));
+    PatternRule notIndexedRule = getPatternRule(new PatternToken("xyz", false, false, false));
+    PatternRuleIndex index = new PatternRuleIndex(Arrays.asList(tokenRule, lemmaRule, regexRule, new FakeRule()));
+    assertThat(index.size(), is(3));
+
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("Here is foo bar.");
+    PatternRuleIndex.Candidates candidates = index.getCandidates(sentence);
+    assertTrue(candidates.mightMatch(tokenRule));
+    assertFalse(candidates.mightMatch(lemmaRule));
+    assertTrue(candidates.mightMatch(regexRule));   // no anchor, always a candidate
+    assertTrue(candidates.mightMatch(notIndexedRule));
+    assertTrue(candidates.mightMatch(new FakeRule()));
+
+    AnalyzedSentence sentence2 = lt.getAnalyzedSentence("Here is nothing.");
+    PatternRuleIndex.Candidates candidates2 = index.getCandidates(sentence2);
+    assertFalse(candidates2.mightMatch(tokenRule));
+    assertFalse(candidates2.mightMatch(lemmaRule));
+    assertTrue(candidates2.mightMatch(regexRule));
+  }
+
+  @Test
+  public void testConsistentWithCanBeIgnoredFor() throws Exception {
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    List<AbstractPatternRule> rules = TestTools.getTestLanguage().getPatternRules();
+    PatternRuleIndex index = new PatternRuleIndex(rules);
+    for (String text : Arrays.asList("A small toast.", "No error here.", "Foo go bar.", "First goes last there, please!")) {
+      AnalyzedSentence sentence = lt.getAnalyzedSentence(text);
+      PatternRuleIndex.Candidates candidates = index.getCandidates(sentence);
+      for (AbstractPatternRule rule : rules) {
+        if (rule instanceof PatternRule && !candidates.mightMatch(rule)) {
+          assertTrue(rule.getFullId() + " skipped for '" + text + "'", ((PatternRule) rule).canBeIgnoredFor(sentence));
+        }
+      }
+    }
+  }
+
+  private PatternRule getPatternRule(PatternToken... patternTokens) {
+    return new PatternRule("", TestTools.getTestLanguage(), Arrays.asList(patternTokens), "my description", "my message", "short message");
+  }
+
+}
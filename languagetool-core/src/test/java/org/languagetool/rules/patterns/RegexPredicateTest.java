@@ -0,0 +1,67 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class RegexPredicateTest {
+
+  @Test
+  public void testIntern() {
+    RegexPredicate p1 = RegexPredicate.intern("NN.*", 0);
+    assertSame(p1, RegexPredicate.intern("NN.*", 0));
+    assertNotSame(p1, RegexPredicate.intern("NN.*", Pattern.CASE_INSENSITIVE));
+    assertNotSame(p1, RegexPredicate.compile("NN.*", 0));
+    PatternToken token1 = new PatternToken("fo+|bar", false, true, false);
+    PatternToken token2 = new PatternToken("fo+|bar", false, true, false);
+    int count = RegexPredicate.getInternedCount();
+    token1.setPosToken(new PatternToken.PosToken("VB_REGEX_PREDICATE_TEST.*", true, false));
+    token2.setPosToken(new PatternToken.PosToken("VB_REGEX_PREDICATE_TEST.*", true, false));
+    assertEquals(count + 1, RegexPredicate.getInternedCount());
+  }
+
+  @Test
+  public void testMatches() {
+    RegexPredicate p = RegexPredicate.intern("fo+", 0);
+    assertTrue(p.matches("foo"));
+    assertFalse(p.matches("fooo!"));
+    RegexPredicate.beginMemoization();
+    try {
+      assertTrue(p.matches("foo"));
+      assertTrue(p.matches("foo"));
+      assertFalse(p.matches("bar"));
+      assertFalse(RegexPredicate.intern("f", 0).matches("foo"));
+      RegexPredicate.beginMemoization();
+      assertFalse(p.matches("bar"));
+      RegexPredicate.endMemoization();
+      assertTrue(p.matches("foo"));
+      assertTrue(RegexPredicate.compile("fo+", 0).matches("foo"));
+    } finally {
+      RegexPredicate.endMemoization();
+    }
+    assertFalse(p.matches("bar"));
+    RegexPredicate.endMemoization();  // unbalanced calls are ignored
+    assertTrue(p.matches("foo"));
+  }
+
+}
@@ -598,4 +598,36 @@ public class UnifierTest {
     uni.reset();
   }
 
+  @Test
+  public void testAcquireUnifier() {
+    UnifierConfiguration unifierConfig = new UnifierConfiguration();
+    unifierConfig.setEquivalence("number", "singular",
+        preparePOSElement(".*[\\.:]sg:.*"));
+    unifierConfig.setEquivalence("number", "plural",
+        preparePOSElement(".*[\\.:]pl:.*"));
+    Map<String, List<String>> equiv = new HashMap<>();
+    equiv.put("number", null);
+    AnalyzedToken sing1 = new AnalyzedToken("mały", "adj:sg:nom:m1:pos:aff", "mały");
+    AnalyzedToken sing2 = new AnalyzedToken("kot", "subst:sg:nom:m2", "kot");
+    AnalyzedToken plur = new AnalyzedToken("koty", "subst:pl:nom:m2", "kot");
+
+    Unifier uni = unifierConfig.acquireUnifier();
+    // a nested use gets its own unifier:
+    Unifier nested = unifierConfig.acquireUnifier();
+    assertTrue(uni != nested);
+    unifierConfig.releaseUnifier(nested);
+    uni.isUnified(sing1, equiv, true);
+    assertEquals(false, uni.isUnified(plur, equiv, true));
+    unifierConfig.releaseUnifier(uni);
+
+    // the unifier is re-used, without state from its last use:
+    Unifier reused = unifierConfig.acquireUnifier();
+    assertTrue(uni == reused);
+    reused.isUnified(sing1, equiv, true);
+    assertEquals(true, reused.isUnified(sing2, equiv, true));
+    assertEquals("[mały[mały/adj:sg:nom:m1:pos:aff*], kot[kot/subst:sg:nom:m2*]]",
+        Arrays.toString(reused.getFinalUnified()));
+    unifierConfig.releaseUnifier(reused);
+  }
+
 }
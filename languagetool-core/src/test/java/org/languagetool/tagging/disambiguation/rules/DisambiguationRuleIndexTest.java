@@ -0,0 +1,95 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.rules.patterns.PatternToken;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DisambiguationRuleIndexTest {
+
+  @Test
+  public void testCandidates() throws Exception {
+    DisambiguationPatternRule tokenRule = getRule(new PatternToken("foo", false, false, false), new PatternToken("bar", false, false, false));
+    DisambiguationPatternRule lemmaRule = getRule(new PatternToken("go", false, false, true));
+    DisambiguationPatternRule regexRule = getRule(new PatternToken("fo+", false, true, false));
+    DisambiguationRuleIndex index = new DisambiguationRuleIndex(Arrays.asList(tokenRule, lemmaRule, regexRule));
+
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    DisambiguationRuleIndex.Candidates candidates = index.getCandidates(lt.getAnalyzedSentence("Here is FOO bar."));
+    assertThat(candidates.next(0), is(0));
+    assertThat(candidates.next(1), is(2));   // no anchor, always a candidate
+    assertThat(candidates.next(3), is(-1));
+
+    DisambiguationRuleIndex.Candidates candidates2 = index.getCandidates(lt.getAnalyzedSentence("Here is foo."));
+    assertThat(candidates2.next(0), is(2));
+  }
+
+  @Test
+  public void testNormalize() {
+    for (String s : Arrays.asList("foo", "FOO", "Straße", "STRASSE", "İ", "i", "I", "ı", "K", "k")) {
+      for (String t : Arrays.asList("foo", "FOO", "Straße", "STRASSE", "İ", "i", "I", "ı", "K", "k")) {
+        assertThat(s + " vs. " + t, DisambiguationRuleIndex.normalize(s).equals(DisambiguationRuleIndex.normalize(t)), is(s.equalsIgnoreCase(t)));
+      }
+    }
+  }
+
+  @Test
+  public void testSameResultAsAllRules() throws Exception {
+    // the second rule can only match after the first one has added a lemma:
+    DisambiguationPatternRule addLemma = getRule(new PatternToken("foo", false, false, false));
+    addLemma.setNewInterpretations(new AnalyzedToken[] {new AnalyzedToken("", "XX", "fooish")});
+    DisambiguationPatternRule useLemma = getRule(new PatternToken("fooish", false, false, true));
+    useLemma.setNewInterpretations(new AnalyzedToken[] {new AnalyzedToken("", "YY", null)});
+    DisambiguationPatternRule regexRule = getRule(new PatternToken("ba.", false, true, false));
+    regexRule.setNewInterpretations(new AnalyzedToken[] {new AnalyzedToken("", "ZZ", "baz")});
+    DisambiguationPatternRule noMatch = getRule(new PatternToken("nothing", false, false, false));
+    noMatch.setNewInterpretations(new AnalyzedToken[] {new AnalyzedToken("", "NN", null)});
+    List<DisambiguationPatternRule> rules = Arrays.asList(addLemma, useLemma, regexRule, noMatch);
+
+    XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(rules);
+    JLanguageTool lt = new JLanguageTool(TestTools.getTestLanguage());
+    for (String text : Arrays.asList("Here is foo bar.", "Here is bar foo.", "No match here.", "Foo")) {
+      AnalyzedSentence expected = lt.getAnalyzedSentence(text);
+      for (DisambiguationPatternRule rule : rules) {
+        expected = rule.replace(expected);
+      }
+      AnalyzedSentence actual = disambiguator.disambiguate(lt.getAnalyzedSentence(text));
+      assertThat(text, actual.toString(), is(expected.toString()));
+    }
+    String result = disambiguator.disambiguate(lt.getAnalyzedSentence("Here is foo bar.")).toString();
+    assertTrue(result, result.contains("YY") && result.contains("ZZ"));
+  }
+
+  private DisambiguationPatternRule getRule(PatternToken... patternTokens) {
+    return new DisambiguationPatternRule("ID", "description", TestTools.getTestLanguage(), Arrays.asList(patternTokens),
+            null, null, DisambiguationPatternRule.DisambiguatorAction.ADD);
+  }
+
+}
@@ -24,13 +24,18 @@ import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.TestLanguage;
 import org.languagetool.Languages;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.TestTools;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -90,6 +95,18 @@ public class RuleMatchesAsJsonSerializerTest {
     assertTrue(json.contains("This\\ris ..."));
   }
 
+  @Test
+  public void testJsonToOutputStream() throws IOException {
+    TestLanguage lang = TestTools.getTestLanguage();
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text with \u00e4\u00f6\u00fc.").build();
+    String json = serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5, lang, null, null);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5, lang, null, null, out);
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    assertContains("\"software\":{\"name\":\"LanguageTool\"", json);
+    assertContains("\"category\":{\"id\":\"MISC\"", json);
+  }
+
   static class FakeRule extends Rule {
     FakeRule() {
       setLocQualityIssueType(ITSIssueType.Addition);
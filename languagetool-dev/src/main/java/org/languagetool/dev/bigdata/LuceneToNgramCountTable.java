@@ -0,0 +1,103 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.LuceneSingleIndexLanguageModel;
+import org.languagetool.languagemodel.MappedNgramLanguageModel;
+import org.languagetool.languagemodel.NgramCountTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Convert the Lucene ngram indexes ({@code 1grams}, {@code 2grams}, ...) as created by
+ * {@link AggregatedNgramToLucene} to the memory-mapped tables used by
+ * {@link MappedNgramLanguageModel}. Needs up to about 64 bytes of heap per ngram of the
+ * largest index.
+ * @since 4.3
+ */
+final class LuceneToNgramCountTable {
+
+  private LuceneToNgramCountTable() {
+  }
+
+  private static void convert(File indexDir, int ngramSize, File outputDir) throws IOException {
+    try (FSDirectory directory = FSDirectory.open(indexDir.toPath());
+         IndexReader reader = DirectoryReader.open(directory)) {
+      NgramCountTable.Builder builder = new NgramCountTable.Builder(ngramSize);
+      if (ngramSize == 1) {
+        LuceneSingleIndexLanguageModel lm = new LuceneSingleIndexLanguageModel(Collections.singletonMap(1, new IndexSearcher(reader)));
+        builder.setTotalTokenCount(lm.getTotalTokenCount());
+      }
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      long ngramCount = 0;
+      if (terms != null) {
+        TermsEnum termsEnum = terms.iterator();
+        BytesRef next;
+        while ((next = termsEnum.next()) != null) {
+          String ngram = next.utf8ToString();
+          PostingsEnum postings = MultiFields.getTermDocsEnum(reader, "ngram", next, PostingsEnum.NONE);
+          long count = 0;
+          int docId;
+          while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+            if (liveDocs == null || liveDocs.get(docId)) {
+              count += Long.parseLong(reader.document(docId).get("count"));
+            }
+          }
+          builder.add(ngram, count);
+          if (++ngramCount % 1_000_000 == 0) {
+            System.out.println(ngramSize + "grams: " + ngramCount + " ...");
+          }
+        }
+      }
+      File outputFile = new File(outputDir, String.format(MappedNgramLanguageModel.TABLE_FILE_NAME, ngramSize));
+      System.out.println("Writing " + ngramCount + " " + ngramSize + "grams to " + outputFile);
+      builder.write(outputFile.toPath());
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + LuceneToNgramCountTable.class.getSimpleName() + " <ngramIndexDir> <outputDir>");
+      System.out.println("  <ngramIndexDir> is a directory with sub directories '1grams', '2grams' etc.");
+      System.exit(1);
+    }
+    File indexTopDir = new File(args[0]);
+    File outputDir = new File(args[1]);
+    Files.createDirectories(outputDir.toPath());
+    for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+      File indexDir = new File(indexTopDir, ngramSize + "grams");
+      if (indexDir.isDirectory()) {
+        long startTime = System.currentTimeMillis();
+        convert(indexDir, ngramSize, outputDir);
+        System.out.println("Converted " + indexDir + " in " + (System.currentTimeMillis() - startTime) + "ms");
+      }
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.languagemodel.BaseLanguageModel;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MappedNgramLanguageModel;
+import org.languagetool.tokenizers.WordTokenizer;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare ngram lookup performance of {@link LuceneLanguageModel} and {@link MappedNgramLanguageModel}
+ * for the 1grams, 2grams, and 3grams of a text. Not a unit test, for interactive use only.
+ */
+final class NgramCountTablePerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private NgramCountTablePerformanceTest() {
+  }
+
+  private static long run(BaseLanguageModel lm, List<List<String>> ngrams, long[] counts) {
+    long startTime = System.nanoTime();
+    for (int i = 0; i < ngrams.size(); i++) {
+      counts[i] = lm.getCount(ngrams.get(i));
+    }
+    return System.nanoTime() - startTime;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 3) {
+      System.out.println("Usage: " + NgramCountTablePerformanceTest.class.getSimpleName() + " <luceneIndexDir> <countTableDir> <text_file>");
+      System.out.println("  <countTableDir> as created from <luceneIndexDir> with " + LuceneToNgramCountTable.class.getSimpleName());
+      System.exit(1);
+    }
+    String text;
+    try (FileInputStream fis = new FileInputStream(args[2])) {
+      text = StringTools.readStream(fis, "utf-8");
+    }
+    List<String> words = new ArrayList<>();
+    for (String token : new WordTokenizer().tokenize(text)) {
+      if (!token.trim().isEmpty()) {
+        words.add(token);
+      }
+    }
+    List<List<String>> ngrams = new ArrayList<>();
+    for (int i = 0; i < words.size(); i++) {
+      for (int n = 1; n <= 3 && i + n <= words.size(); n++) {
+        ngrams.add(words.subList(i, i + n));
+      }
+    }
+    System.out.println("Looking up " + ngrams.size() + " ngrams, " + RUNS + " runs after warmup");
+    try (LuceneLanguageModel luceneLm = DefaultResourceDataBroker.createLuceneLanguageModel(new File(args[0]).toPath().toRealPath());
+         MappedNgramLanguageModel mappedLm = DefaultResourceDataBroker.createMappedNgramLanguageModel(new File(args[1]).toPath().toRealPath())) {
+      long[] luceneCounts = new long[ngrams.size()];
+      long[] mappedCounts = new long[ngrams.size()];
+      run(luceneLm, ngrams, luceneCounts);
+      run(mappedLm, ngrams, mappedCounts);
+      int mismatches = 0;
+      for (int i = 0; i < ngrams.size(); i++) {
+        if (luceneCounts[i] != mappedCounts[i]) {
+          if (mismatches++ < 10) {
+            System.out.println("Count mismatch for " + ngrams.get(i) + ": Lucene " + luceneCounts[i] + ", mapped " + mappedCounts[i]);
+          }
+        }
+      }
+      System.out.println("Count mismatches: " + mismatches);
+      long luceneNanos = 0;
+      long mappedNanos = 0;
+      for (int i = 0; i < RUNS; i++) {
+        luceneNanos += run(luceneLm, ngrams, luceneCounts);
+        mappedNanos += run(mappedLm, ngrams, mappedCounts);
+      }
+      long lookups = (long) RUNS * ngrams.size();
+      System.out.printf("Lucene: %.2fµs per lookup\n", luceneNanos / 1000.0 / lookups);
+      System.out.printf("Mapped: %.2fµs per lookup\n", mappedNanos / 1000.0 / lookups);
+    }
+  }
+
+}
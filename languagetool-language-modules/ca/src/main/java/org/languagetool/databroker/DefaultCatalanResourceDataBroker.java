@@ -410,7 +410,7 @@ public class DefaultCatalanResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public CatalanSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new CatalanSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new CatalanSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
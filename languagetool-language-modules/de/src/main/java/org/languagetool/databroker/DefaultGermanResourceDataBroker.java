@@ -67,7 +67,7 @@ import org.languagetool.tagging.MorfologikTagger;
 import org.languagetool.tagging.de.GermanTagger;
 import org.languagetool.tagging.WordTagger;
 import org.languagetool.tokenizers.CompoundWordTokenizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.rules.neuralnetwork.NeuralNetworkRule;
 import org.languagetool.rules.neuralnetwork.Word2VecModel;
 import org.languagetool.rules.spelling.hunspell.*;
@@ -218,7 +218,7 @@ public class DefaultGermanResourceDataBroker extends DefaultResourceDataBroker i
     private CompoundWordTokenizer compoundTokenizer;
     private Dictionary wordTaggerDictionary;
     private WordTagger wordTagger;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private Set<Pattern[]> caseRuleExceptions;
     private Set<Dictionary> dictionaries;
     private Hunspell.Dictionary hunspellDict;
@@ -398,7 +398,7 @@ GTODO
     @Override
     public GermanSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new GermanSynthesizer(getIStemmer(), getSynthesizerWordTags(), getStrictCompoundTokenizer(), getCaseConverter());
+            synthesizer = initSynthesizer(new GermanSynthesizer(getIStemmer(), getSynthesizerWordTags(), getStrictCompoundTokenizer(), getCaseConverter()));
         }
         return synthesizer;
     }
@@ -518,7 +518,7 @@ MorfologikDictionaryProvider
     }
 
     @Override
-    public synchronized LuceneLanguageModel getLanguageModel() throws Exception {
+    public synchronized LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -157,7 +157,7 @@ public class DefaultGreekResourceDataBroker extends DefaultResourceDataBroker im
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+        synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
       }
       return synthesizer;
     }
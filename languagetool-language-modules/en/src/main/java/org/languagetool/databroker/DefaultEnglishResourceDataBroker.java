@@ -67,7 +67,7 @@ import org.languagetool.tokenizers.SRXSentenceTokenizer;
 import org.languagetool.tokenizers.en.EnglishWordTokenizer;
 import org.languagetool.tagging.en.EnglishTagger;
 import org.languagetool.synthesis.en.EnglishSynthesizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.rules.neuralnetwork.Classifier;
 import org.languagetool.rules.en.EnglishPartialPosTagFilter;
 import org.languagetool.rules.en.NoDisambiguationEnglishPartialPosTagFilter;
@@ -196,7 +196,7 @@ public class DefaultEnglishResourceDataBroker extends DefaultResourceDataBroker
     private EnglishSynthesizer synthesizer;
     private IStemmer istemmer;
     private EnglishWordTokenizer wordTokenizer;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private Set<Dictionary> dictionaries;
 
     public DefaultEnglishResourceDataBroker(English lang, ClassLoader classLoader) throws Exception {
@@ -379,7 +379,7 @@ public class DefaultEnglishResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public EnglishSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new EnglishSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags(), getRequiresAWords(), getRequiresANWords());
+            synthesizer = initSynthesizer(new EnglishSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags(), getRequiresAWords(), getRequiresANWords()));
         }
         return synthesizer;
     }
@@ -480,7 +480,7 @@ MorfologikDictionaryProvider
     }
 
     @Override
-    public synchronized LuceneLanguageModel getLanguageModel() throws Exception {
+    public synchronized LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
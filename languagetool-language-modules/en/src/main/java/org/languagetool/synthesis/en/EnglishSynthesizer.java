@@ -23,11 +23,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.JLanguageTool;
@@ -84,12 +81,8 @@ public class EnglishSynthesizer extends BaseSynthesizer {
     } else if (ADD_IND_DETERMINER.equals(posTag)) {
       return new String[] { aOrAn };
     }
-    IStemmer synthesizer = getStemmer();
-    List<WordData> wordData = synthesizer.lookup(token.getLemma() + "|" + posTag);
     List<String> wordForms = new ArrayList<>();
-    for (WordData wd : wordData) {
-      wordForms.add(wd.getStem().toString());
-    }
+    lookup(token.getLemma(), posTag, wordForms);
     return wordForms.toArray(new String[wordForms.size()]);
   }
 
@@ -115,14 +108,9 @@ public class EnglishSynthesizer extends BaseSynthesizer {
         det = "the ";
       }
 
-      Pattern p = Pattern.compile(myPosTag);
       List<String> results = new ArrayList<>();
-
-      for (String tag : getPossibleTags()) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results, det);
-        }
+      for (String tag : getMatchingTags(myPosTag)) {
+        lookup(token.getLemma(), tag, results, det);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -131,11 +119,10 @@ public class EnglishSynthesizer extends BaseSynthesizer {
   }
 
   private void lookup(String lemma, String posTag, List<String> results, String determiner) {
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = getStemmer().lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(determiner + wd.getStem());
-      }
+    List<String> wordForms = new ArrayList<>();
+    lookup(lemma, posTag, wordForms);
+    for (String wordForm : wordForms) {
+      results.add(determiner + wordForm);
     }
   }
 
@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.AmericanEnglish;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class CheckSessionTest {
+
+  private static final String TEXT =
+          "This is a first paragraph. It has has a repeated word.\n\n" +
+          "Here comes the second paragraph with out a final punctuation mark\n\n" +
+          "The third paragraph is fine. It really is fine. \n\n" +
+          "Also, a fourth paragraph. Also, we end here. Also, this is the end.";
+
+  @Test
+  public void testSameResultAsFullCheck() throws Exception {
+    JLanguageTool lt = new JLanguageTool(new AmericanEnglish());
+    lt.enableRule("PUNCTUATION_PARAGRAPH_END");
+    CheckSession session = new CheckSession();
+    List<String> edits = Arrays.asList(
+            TEXT,
+            TEXT.replace("first paragraph", "1st paragraph"),
+            TEXT.replace("with out", "without"),
+            TEXT.replace("mark\n\n", "mark.\n\n"),
+            TEXT.replace("It really is fine. ", "It really is fine."),
+            TEXT.replace("Also, we end here.", "Also we end here"),
+            TEXT + "\n\nA new paragraph at the end end.",
+            "A new paragraph at the start.\n\n" + TEXT,
+            TEXT.replace("\n\nHere comes", " Here comes"),
+            TEXT,
+            "",
+            TEXT);
+    for (String text : edits) {
+      List<RuleMatch> expected = lt.check(text);
+      List<RuleMatch> actual = lt.check(new AnnotatedTextBuilder().addText(text).build(), true,
+              JLanguageTool.ParagraphHandling.NORMAL, null, JLanguageTool.Mode.ALL, session);
+      assertThat("Text: " + text, toStrings(actual), is(toStrings(expected)));
+    }
+    String matches = toStrings(lt.check(TEXT)).toString();
+    // make sure paragraph-local and whole-text text-level rules are covered:
+    assertTrue(matches, matches.contains("PUNCTUATION_PARAGRAPH_END/"));
+    assertTrue(matches, matches.contains("ENGLISH_WORD_REPEAT_BEGINNING_RULE/"));
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    JLanguageTool lt = new JLanguageTool(new AmericanEnglish());
+    CheckSession session = new CheckSession();
+    int sentenceCount = lt.sentenceTokenize(TEXT).size();
+    check(lt, TEXT, session, JLanguageTool.Mode.ALL);
+    assertThat(session.getAnalyzedSentenceCount(), is(sentenceCount));
+    assertThat(session.getReusedSentenceCount(), is(0));
+
+    check(lt, TEXT.replace("with out", "without"), session, JLanguageTool.Mode.ALL);
+    assertThat(session.getAnalyzedSentenceCount(), is(1));
+    assertThat(session.getReusedSentenceCount(), is(sentenceCount - 1));
+    // only the edited paragraph needs to be checked again by paragraph-local rules:
+    assertTrue(session.toString(), session.getReusedParagraphCount() > 0);
+    assertTrue(session.toString(), session.getCheckedParagraphCount() > 0);
+
+    // alternating modes, as some clients do, still re-uses results:
+    check(lt, TEXT, session, JLanguageTool.Mode.TEXTLEVEL_ONLY);
+    check(lt, TEXT, session, JLanguageTool.Mode.ALL_BUT_TEXTLEVEL_ONLY);
+    assertThat(session.getAnalyzedSentenceCount(), is(0));
+
+    // different rules, nothing can be re-used:
+    lt.disableRule("EN_A_VS_AN");
+    check(lt, TEXT, session, JLanguageTool.Mode.ALL);
+    assertThat(session.getAnalyzedSentenceCount(), is(sentenceCount));
+  }
+
+  private List<RuleMatch> check(JLanguageTool lt, String text, CheckSession session, JLanguageTool.Mode mode) throws Exception {
+    return lt.check(new AnnotatedTextBuilder().addText(text).build(), true, JLanguageTool.ParagraphHandling.NORMAL, null, mode, session);
+  }
+
+  private List<String> toStrings(List<RuleMatch> matches) {
+    List<String> result = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      result.add(match.getRule().getId() + "/" + match.getFromPos() + "-" + match.getToPos() +
+              "/" + match.getLine() + ":" + match.getColumn() + "-" + match.getEndLine() + ":" + match.getEndColumn() +
+              "/" + match.getMessage() + "/" + match.getSuggestedReplacements());
+    }
+    return result;
+  }
+
+}
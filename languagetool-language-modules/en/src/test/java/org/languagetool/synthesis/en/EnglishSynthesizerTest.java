@@ -19,15 +19,26 @@
 
 package org.languagetool.synthesis.en;
 
+import com.google.common.cache.CacheStats;
 import org.junit.Test;
 import org.languagetool.AnalyzedToken;
+import org.languagetool.databroker.DefaultResourceDataBroker;
 import org.languagetool.language.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.languagetool.synthesis.BaseSynthesizer;
 import org.languagetool.synthesis.Synthesizer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class EnglishSynthesizerTest {
 
@@ -62,4 +73,73 @@ public class EnglishSynthesizerTest {
     assertEquals("[the hour]", Arrays.toString(synth.synthesize(dummyToken("hours", "hour"), "NN\\+DT", true)));
   }
 
+  @Test
+  public void testConcurrentSynthesis() throws Exception {
+    Synthesizer synth = new English().getSynthesizer();
+    List<String> lemmas = Arrays.asList("be", "president", "test", "go", "child", "university", "write");
+    List<String> expected = new ArrayList<>();
+    for (String lemma : lemmas) {
+      expected.add(Arrays.toString(synth.synthesize(dummyToken(lemma), "VB.*|NNS", true)));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<String>>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          List<String> results = new ArrayList<>();
+          for (int j = 0; j < 200; j++) {
+            results.clear();
+            for (String lemma : lemmas) {
+              results.add(Arrays.toString(synth.synthesize(dummyToken(lemma), "VB.*|NNS", true)));
+            }
+          }
+          return results;
+        }));
+      }
+      for (Future<List<String>> future : futures) {
+        assertEquals(expected, future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCache() throws Exception {
+    BaseSynthesizer synth = (BaseSynthesizer) new English().getSynthesizer();
+    assertNull(synth.getCacheStats());
+    try {
+      synth.setCacheSize(100);
+      assertEquals("[was, were]", Arrays.toString(synth.synthesize(dummyToken("be"), "VBD")));
+      assertEquals("[was, were]", Arrays.toString(synth.synthesize(dummyToken("be"), "VBD")));
+      assertEquals("[tested, testing]", Arrays.toString(synth.synthesize(dummyToken("test"), "VBD|VBG", true)));
+      assertEquals(1, synth.getCacheStats().hitCount());
+      assertEquals(3, synth.getCacheStats().missCount());
+    } finally {
+      synth.setCacheSize(0);
+    }
+    assertNull(synth.getCacheStats());
+  }
+
+  @Test
+  public void testCacheSizePerLanguage() throws Exception {
+    BaseSynthesizer existing = (BaseSynthesizer) new English().getSynthesizer();
+    try {
+      DefaultResourceDataBroker.setSynthesizerCacheSize("en", 100);
+      BaseSynthesizer created = (BaseSynthesizer) new AmericanEnglish().getSynthesizer();
+      assertEquals("[was, were]", Arrays.toString(existing.synthesize(dummyToken("be"), "VBD")));
+      assertEquals("[was, were]", Arrays.toString(created.synthesize(dummyToken("be"), "VBD")));
+      assertEquals("[was, were]", Arrays.toString(created.synthesize(dummyToken("be"), "VBD")));
+      assertEquals(1, existing.getCacheStats().missCount());
+      assertEquals(1, created.getCacheStats().hitCount());
+      CacheStats stats = DefaultResourceDataBroker.getSynthesizerCacheStats().get("en");
+      assertTrue(stats.hitCount() >= 1);
+      assertTrue(stats.missCount() >= 2);
+    } finally {
+      DefaultResourceDataBroker.setSynthesizerCacheSize("en", 0);
+    }
+    assertNull(existing.getCacheStats());
+    assertNull(DefaultResourceDataBroker.getSynthesizerCacheStats().get("en"));
+  }
+
 }
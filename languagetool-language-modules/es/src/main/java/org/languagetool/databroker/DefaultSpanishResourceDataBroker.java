@@ -192,7 +192,7 @@ public class DefaultSpanishResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public Synthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
@@ -37,7 +37,7 @@ import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tagging.fr.FrenchTagger;
 import org.languagetool.tagging.disambiguation.fr.FrenchHybridDisambiguator;
 import org.languagetool.synthesis.FrenchSynthesizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.rules.CompoundRuleData;
 import org.languagetool.rules.spelling.hunspell.*;
 import org.languagetool.tagging.fr.FrenchTagger;
@@ -82,7 +82,7 @@ public class DefaultFrenchResourceDataBroker extends DefaultResourceDataBroker i
     private FrenchTagger tagger;
     private FrenchSynthesizer synthesizer;
     private FrenchHybridDisambiguator disambiguator;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private IStemmer istemmer;
     private CompoundRuleData compounds;
     private MultiWordChunker chunker;
@@ -215,13 +215,13 @@ public class DefaultFrenchResourceDataBroker extends DefaultResourceDataBroker i
     @Override
     public FrenchSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new FrenchSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new FrenchSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
 
     @Override
-    public synchronized LuceneLanguageModel getLanguageModel() throws Exception {
+    public synchronized LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -25,10 +25,34 @@ import org.languagetool.TestTools;
 import org.languagetool.language.French;
 import org.languagetool.tagging.disambiguation.Disambiguator;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class HunspellRuleTest {
 
+  @Test
+  public void testMisspelledWords() throws Exception {
+    Hunspell.Dictionary dict = new French().getUseDataBroker().getHunspellDictionary();
+    // long enough to make the re-used encoding buffers grow:
+    String longWord = "anticonstitutionnellement-anticonstitutionnellement-anticonstitutionnellement";
+    List<String> words = Arrays.asList("maison", "maisonn", "cœur", "cœurr", "", longWord, "été", "éét");
+    BitSet misspelled = dict.misspelled(words);
+    assertFalse(misspelled.get(0));
+    assertTrue(misspelled.get(1));
+    assertFalse(misspelled.get(2));
+    assertTrue(misspelled.get(3));
+    assertFalse(misspelled.get(6));
+    assertTrue(misspelled.get(7));
+    for (int i = 0; i < words.size(); i++) {
+      assertEquals(words.get(i), dict.misspelled(words.get(i)), misspelled.get(i));
+    }
+    assertTrue(dict.misspelled(Collections.emptyList()).isEmpty());
+  }
+
 /*
 GTODO All tests have been merged with FrenchCompoundAwareHunspellRuleTest
   @Test
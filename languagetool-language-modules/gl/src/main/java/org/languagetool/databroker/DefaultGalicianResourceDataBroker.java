@@ -132,7 +132,7 @@ public class DefaultGalicianResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+        synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
       }
       return synthesizer;
     }
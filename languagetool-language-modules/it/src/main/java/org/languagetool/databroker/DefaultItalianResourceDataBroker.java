@@ -42,7 +42,7 @@ import org.languagetool.rules.ConfusionSet;
 import org.languagetool.tagging.WordTagger;
 import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tokenizers.SentenceTokenizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.tagging.it.ItalianTagger;
 import org.languagetool.tagging.MorfologikTagger;
 
@@ -69,7 +69,7 @@ public class DefaultItalianResourceDataBroker extends DefaultResourceDataBroker
     private WordTagger wordTagger;
     private Dictionary wordTaggerDictionary;
     private ItalianTagger tagger;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private Set<Dictionary> dictionaries;
 
     public DefaultItalianResourceDataBroker(Italian lang, ClassLoader classLoader) throws Exception {
@@ -159,7 +159,7 @@ public class DefaultItalianResourceDataBroker extends DefaultResourceDataBroker
     }
 
     @Override
-    public synchronized LuceneLanguageModel getLanguageModel() throws Exception {
+    public synchronized LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -302,7 +302,7 @@ public class DefaultDutchResourceDataBroker extends DefaultResourceDataBroker im
     @Override
     public DutchSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new DutchSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new DutchSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
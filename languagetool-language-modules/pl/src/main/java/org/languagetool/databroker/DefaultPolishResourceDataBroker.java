@@ -196,7 +196,7 @@ public class DefaultPolishResourceDataBroker extends DefaultResourceDataBroker i
     @Override
     public PolishSynthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new PolishSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new PolishSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
@@ -22,13 +22,10 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.synthesis.BaseSynthesizer;
@@ -52,14 +49,9 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
   private static final String SUP_TAG = "sup";
 
   //private volatile Dictionary dictionary;
-  private Set<String> possibleTags;
-
-  private IStemmer stemmer;
 
   public PolishSynthesizer(IStemmer stemmer, Set<String> tags) {
     super(stemmer, tags);
-    this.stemmer = stemmer;
-    this.possibleTags = tags;
     //GTODO RESOURCE_FILENAME, TAGS_FILE_NAME, dataBroker);
   }
 
@@ -114,15 +106,8 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
         posTag = posTag.replaceAll(NEGATION_TAG, POTENTIAL_NEGATION_TAG + "?");
       }
 
-      final Pattern p = Pattern.compile(posTag.replace('+', '|'));
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          final List<String> wordForms = getWordForms(token, tag, isNegated);
-          if (wordForms != null) {
-            results.addAll(wordForms);
-          }
-        }
+      for (final String tag : getMatchingTags(posTag.replace('+', '|'))) {
+        results.addAll(getWordForms(token, tag, isNegated));
       }
       //remove duplicates
       Set<String> hs = new HashSet<>();
@@ -163,22 +148,13 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
   private List<String> getWordForms(final AnalyzedToken token, final String posTag,
       final boolean isNegated) {
     final List<String> forms = new ArrayList<>();
-    final List<WordData> wordForms;
     if (isNegated) {
-      wordForms = stemmer.lookup(token.getLemma() + "|"
-          + posTag.replaceFirst(NEGATION_TAG, POTENTIAL_NEGATION_TAG));
-      if (wordForms != null) {
-        for (WordData wd : wordForms) {
-          forms.add("nie" + wd.getStem());
-        }
+      lookup(token.getLemma(), posTag.replaceFirst(NEGATION_TAG, POTENTIAL_NEGATION_TAG), forms);
+      for (int i = 0; i < forms.size(); i++) {
+        forms.set(i, "nie" + forms.get(i));
       }
     } else {
-      wordForms = stemmer.lookup(token.getLemma() + "|" + posTag);
-      for (WordData wd : wordForms) {
-        if (wd.getStem() != null) {
-          forms.add(wd.getStem().toString());
-        }
-      }
+      lookup(token.getLemma(), posTag, forms);
     }
     return forms;
   }
@@ -27,6 +27,7 @@ import org.languagetool.synthesis.Synthesizer;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PolishSynthesizerTest {
 
@@ -51,6 +52,21 @@ public class PolishSynthesizerTest {
                   getSortedArray(synth.synthesize(dummyToken("mieć"), ".*praet:sg.*", true))));
   }
 
+  @Test
+  public final void testWordFormCache() throws Exception {
+    PolishSynthesizer synth = (PolishSynthesizer) new Polish().getSynthesizer();
+    synth.setCacheSize(100);
+    try {
+      for (int i = 0; i < 2; i++) {
+        assertEquals("[Aarona]", Arrays.toString(synth.synthesize(dummyToken("Aaron"), "subst:sg:gen:m1")));
+        assertEquals("[tonera]", Arrays.toString(synth.synthesize(dummyToken("toner"), "subst:sg:gen:m.*", true)));
+      }
+      assertTrue(synth.getCacheStats().hitCount() >= 2);
+    } finally {
+      synth.setCacheSize(0);
+    }
+  }
+
   private AnalyzedToken dummyToken(String tokenStr) {
     return new AnalyzedToken(tokenStr, tokenStr, tokenStr);
   }
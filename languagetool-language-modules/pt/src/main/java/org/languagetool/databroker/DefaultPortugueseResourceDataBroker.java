@@ -48,7 +48,7 @@ import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tagging.disambiguation.pt.PortugueseHybridDisambiguator;
 import org.languagetool.tokenizers.SentenceTokenizer;
 import org.languagetool.tokenizers.WordTokenizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.tagging.pt.PortugueseTagger;
 import org.languagetool.tagging.Tagger;
 import org.languagetool.tagging.MorfologikTagger;
@@ -143,7 +143,7 @@ public class DefaultPortugueseResourceDataBroker extends DefaultResourceDataBrok
     private WordTokenizer wordTokenizer;
     private Synthesizer synthesizer;
     private SentenceTokenizer sentenceTokenizer;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private Dictionary wordTaggerDictionary;
     private WordTagger wordTagger;
     private IStemmer istemmer;
@@ -451,7 +451,7 @@ public class DefaultPortugueseResourceDataBroker extends DefaultResourceDataBrok
     @Override
     public Synthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new PortugueseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new PortugueseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
@@ -465,7 +465,7 @@ public class DefaultPortugueseResourceDataBroker extends DefaultResourceDataBrok
     }
 
     @Override
-    public LuceneLanguageModel getLanguageModel() throws Exception {
+    public LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -146,7 +146,7 @@ public class DefaultRomanianResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new RomanianSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags(), getSynthesizerAddedTagsSynthesizer());
+        synthesizer = initSynthesizer(new RomanianSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags(), getSynthesizerAddedTagsSynthesizer()));
       }
       return synthesizer;
     }
@@ -48,7 +48,7 @@ import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tagging.disambiguation.ru.RussianHybridDisambiguator;
 import org.languagetool.tokenizers.SentenceTokenizer;
 import org.languagetool.tokenizers.WordTokenizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.tagging.ru.RussianTagger;
 import org.languagetool.tagging.Tagger;
 import org.languagetool.tagging.MorfologikTagger;
@@ -99,7 +99,7 @@ public class DefaultRussianResourceDataBroker extends DefaultResourceDataBroker
     private RussianSynthesizer synthesizer;
     private SentenceTokenizer sentenceTokenizer;
     private Disambiguator disambiguator;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
     private Dictionary wordTaggerDictionary;
     private WordTagger wordTagger;
     private IStemmer istemmer;
@@ -234,7 +234,7 @@ public class DefaultRussianResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public Synthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new RussianSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new RussianSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
@@ -306,7 +306,7 @@ public class DefaultRussianResourceDataBroker extends DefaultResourceDataBroker
     }
 
     @Override
-    public LuceneLanguageModel getLanguageModel() throws Exception {
+    public LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -146,7 +146,7 @@ public class DefaultSlovakResourceDataBroker extends DefaultResourceDataBroker i
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new SlovakSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags());
+        synthesizer = initSynthesizer(new SlovakSynthesizer(getMessageBundle(), getIStemmer(), getSynthesizerWordTags()));
       }
       return synthesizer;
     }
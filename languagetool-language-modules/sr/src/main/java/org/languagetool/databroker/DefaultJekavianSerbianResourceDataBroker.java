@@ -127,7 +127,7 @@ public class DefaultJekavianSerbianResourceDataBroker extends DefaultSerbianReso
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+        synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
       }
       return synthesizer;
     }
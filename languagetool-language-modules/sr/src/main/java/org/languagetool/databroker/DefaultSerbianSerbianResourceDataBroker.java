@@ -126,7 +126,7 @@ public class DefaultSerbianSerbianResourceDataBroker extends DefaultSerbianResou
     @Override
     public Synthesizer getSynthesizer() throws Exception {
       if (synthesizer == null) {
-        synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+        synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
       }
       return synthesizer;
     }
@@ -364,7 +364,7 @@ public class DefaultUkranianResourceDataBroker extends DefaultResourceDataBroker
     @Override
     public Synthesizer getSynthesizer() throws Exception {
         if (synthesizer == null) {
-            synthesizer = new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags());
+            synthesizer = initSynthesizer(new BaseSynthesizer(getIStemmer(), getSynthesizerWordTags()));
         }
         return synthesizer;
     }
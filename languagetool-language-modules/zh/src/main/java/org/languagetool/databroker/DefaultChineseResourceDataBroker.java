@@ -55,7 +55,7 @@ import org.languagetool.tagging.MorfologikTagger;
 import org.languagetool.tokenizers.Tokenizer;
 import org.languagetool.tokenizers.zh.ChineseWordTokenizer;
 import org.languagetool.tokenizers.zh.ChineseSentenceTokenizer;
-import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 
 public class DefaultChineseResourceDataBroker extends DefaultResourceDataBroker implements ChineseResourceDataBroker {
 
@@ -79,7 +79,7 @@ public class DefaultChineseResourceDataBroker extends DefaultResourceDataBroker
     private ChineseJF chineseJF;
     private ChineseWordTokenizer wordTokenizer;
     private ChineseTagger tagger;
-    private LuceneLanguageModel languageModel;
+    private LanguageModel languageModel;
 
     public DefaultChineseResourceDataBroker(Chinese lang, ClassLoader classLoader) throws Exception {
         super(lang, classLoader);
@@ -212,7 +212,7 @@ public class DefaultChineseResourceDataBroker extends DefaultResourceDataBroker
     }
 
     @Override
-    public LuceneLanguageModel getLanguageModel() throws Exception {
+    public LanguageModel getLanguageModel() throws Exception {
         if (languageModel == null) {
             languageModel = createLanguageModelFromResourcePath();
         }
@@ -29,8 +29,7 @@ import org.languagetool.Languages;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
 
-import java.io.IOException;
-import java.io.StringWriter;
+import java.io.*;
 import java.net.HttpURLConnection;
 import java.util.*;
 
@@ -67,6 +66,8 @@ class ApiV2 {
       handleWordDeleteRequest(httpExchange, parameters, config);
     } else if (path.equals("log")) {
       handleLogRequest(httpExchange, parameters);
+    } else if (path.equals("admin/metrics") && config.getMetricsEndpoint()) {
+      handleMetricsRequest(httpExchange);
     } else {
       throw new RuntimeException("Unsupported action: '" + path + "'");
     }
@@ -195,6 +196,14 @@ class ApiV2 {
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
   }
 
+  private void handleMetricsRequest(HttpExchange httpExchange) throws IOException {
+    httpExchange.getResponseHeaders().set("Content-Type", ServerMetrics.CONTENT_TYPE);
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(httpExchange.getResponseBody(), ENCODING));
+    textChecker.writeMetrics(writer);
+    writer.flush();
+  }
+
   private AnnotatedText getAnnotatedTextFromString(JsonNode data, String text) {
     AnnotatedTextBuilder textBuilder = new AnnotatedTextBuilder().addText(text);
     if (data.has("metaData")) {
@@ -0,0 +1,115 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs checks in the given executor, but only a limited number of them at the same time,
+ * by default as many as there are CPU cores. The thread that handles the request takes the
+ * permit before the check is submitted, so requests waiting for a permit don't occupy a
+ * check thread. The permit is given back when the check's thread is done, also if the
+ * check has been cancelled after a timeout and is still running for a moment.
+ * @since 4.3
+ */
+class CheckPermits {
+
+  private final Semaphore semaphore;
+  private final int permits;
+  private final ExecutorService executorService;
+  private final AtomicLong rejectedCount = new AtomicLong();
+
+  CheckPermits(int permits, ExecutorService executorService) {
+    if (permits < 1) {
+      throw new IllegalArgumentException("permits must be >= 1: " + permits);
+    }
+    this.semaphore = new Semaphore(permits, true);
+    this.permits = permits;
+    this.executorService = executorService;
+  }
+
+  /**
+   * Wait for a permit and submit the check.
+   * @param maxWaitMillis maximum time to wait for a permit, {@code -1} to wait without limit
+   * @throws ServerBusyException if no permit became available in time
+   */
+  <T> Future<T> submit(Callable<T> callable, long maxWaitMillis) throws InterruptedException {
+    if (maxWaitMillis < 0) {
+      semaphore.acquire();
+    } else if (!semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+      rejectedCount.incrementAndGet();
+      throw new ServerBusyException("All " + permits + " checks are busy for more than " + maxWaitMillis +
+              "ms. Please try again later.");
+    }
+    PermitTask<T> task = new PermitTask<>(callable);
+    try {
+      executorService.execute(task);
+    } catch (RejectedExecutionException e) {
+      semaphore.release();
+      throw e;
+    }
+    return task;
+  }
+
+  int getPermits() {
+    return permits;
+  }
+
+  /**
+   * The number of checks currently running.
+   */
+  int getRunningCount() {
+    return permits - semaphore.availablePermits();
+  }
+
+  /**
+   * The number of threads waiting for a permit.
+   */
+  int getWaitingCount() {
+    return semaphore.getQueueLength();
+  }
+
+  long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "running=" + getRunningCount() + "/" + permits + ", waiting=" + getWaitingCount() + ", rejected=" + getRejectedCount();
+  }
+
+  private class PermitTask<T> extends FutureTask<T> {
+
+    PermitTask(Callable<T> callable) {
+      super(callable);
+    }
+
+    @Override
+    public void run() {
+      // the executor calls this even if the task has been cancelled before it started:
+      try {
+        super.run();
+      } finally {
+        semaphore.release();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,328 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs checks in a fixed number of threads, with a separate queue ("lane") per kind of
+ * request. Lanes are served by weighted round robin so that short interactive checks don't
+ * wait behind large documents. Checks are rejected with a {@link ServerBusyException} if
+ * too many checks are waiting, or if a check has waited longer than the maximum queue time.
+ * @since 4.3
+ */
+class CheckScheduler {
+
+  enum Lane {
+    /** requests of premium users, unless they are large */
+    PREMIUM(8),
+    /** short texts, typically sent while the user is typing */
+    INTERACTIVE(4),
+    /** re-checks with only the text-level rules */
+    RECHECK(2),
+    /** large texts */
+    BATCH(1);
+
+    private final int weight;
+
+    Lane(int weight) {
+      this.weight = weight;
+    }
+
+    int getWeight() {
+      return weight;
+    }
+  }
+
+  private final Map<Lane, ArrayDeque<ScheduledCheck<?>>> queues = new EnumMap<>(Lane.class);
+  private final Map<Lane, Integer> currentWeights = new EnumMap<>(Lane.class);
+  private final Map<Lane, LaneStats> stats = new EnumMap<>(Lane.class);
+  private final Thread[] workers;
+  private final int maxWaiting;
+  private final long maxQueueMillis;
+  private final int batchTextLength;
+  private int waiting;
+  private boolean shutdown;
+
+  /**
+   * @param threads the number of checks running at the same time
+   * @param maxWaiting the maximum number of checks waiting in all lanes, more checks will be rejected
+   * @param maxQueueMillis the maximum time a check may wait before it is rejected, {@code 0} to wait without limit
+   * @param batchTextLength texts with at least this many characters are put in the {@link Lane#BATCH} lane
+   */
+  CheckScheduler(int threads, int maxWaiting, long maxQueueMillis, int batchTextLength) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be >= 1: " + threads);
+    }
+    this.maxWaiting = maxWaiting;
+    this.maxQueueMillis = maxQueueMillis;
+    this.batchTextLength = batchTextLength;
+    for (Lane lane : Lane.values()) {
+      queues.put(lane, new ArrayDeque<>());
+      currentWeights.put(lane, 0);
+      stats.put(lane, new LaneStats());
+    }
+    workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Thread(this::work, "lt-check-thread-" + i);
+      workers[i].setDaemon(true);
+      workers[i].start();
+    }
+  }
+
+  Lane getLane(int textLength, JLanguageTool.Mode mode, boolean premium) {
+    if (textLength >= batchTextLength) {
+      return Lane.BATCH;
+    } else if (premium) {
+      return Lane.PREMIUM;
+    } else if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
+      return Lane.RECHECK;
+    }
+    return Lane.INTERACTIVE;
+  }
+
+  /**
+   * Queue the check in the given lane.
+   * @throws ServerBusyException if too many checks are already waiting
+   */
+  <T> ScheduledCheck<T> submit(Lane lane, Callable<T> callable) {
+    ScheduledCheck<T> check = new ScheduledCheck<>(lane, callable);
+    synchronized (this) {
+      if (shutdown) {
+        throw new IllegalStateException("Scheduler has been shut down");
+      }
+      if (maxWaiting > 0 && waiting >= maxWaiting) {
+        stats.get(lane).rejected.incrementAndGet();
+        throw new ServerBusyException("Too many checks waiting (" + waiting + "), please try again later");
+      }
+      queues.get(lane).add(check);
+      waiting++;
+      notify();
+    }
+    return check;
+  }
+
+  synchronized int getWaitingCount() {
+    return waiting;
+  }
+
+  synchronized int getWaitingCount(Lane lane) {
+    return queues.get(lane).size();
+  }
+
+  LaneStats getStats(Lane lane) {
+    return stats.get(lane);
+  }
+
+  void shutdownNow() {
+    synchronized (this) {
+      shutdown = true;
+      for (ArrayDeque<ScheduledCheck<?>> queue : queues.values()) {
+        for (ScheduledCheck<?> check : queue) {
+          check.shed(new ServerBusyException("Server is shutting down"));
+        }
+        queue.clear();
+      }
+      waiting = 0;
+      notifyAll();
+    }
+    for (Thread worker : workers) {
+      worker.interrupt();
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Lane lane : Lane.values()) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(lane.name().toLowerCase(Locale.ENGLISH)).append(": ").append(getWaitingCount(lane)).append(" waiting, ")
+        .append(stats.get(lane));
+    }
+    return sb.toString();
+  }
+
+  private void work() {
+    while (true) {
+      ScheduledCheck<?> check;
+      try {
+        check = next();
+      } catch (InterruptedException e) {
+        continue;  // only shutdownNow() ends the worker, next() then returns null
+      }
+      if (check == null) {
+        return;
+      }
+      check.run();
+      // cancelling a running check (e.g. on a timeout) interrupts this thread, like ThreadPoolExecutor
+      // we clear that so the next check doesn't fail and the worker doesn't stop:
+      Thread.interrupted();
+    }
+  }
+
+  private synchronized ScheduledCheck<?> next() throws InterruptedException {
+    while (!shutdown) {
+      ScheduledCheck<?> check = poll();
+      if (check != null) {
+        return check;
+      }
+      wait();
+    }
+    return null;
+  }
+
+  /**
+   * Smooth weighted round robin: every non-empty lane gains its weight, the lane with the
+   * highest current weight is served and loses the sum of the weights.
+   */
+  private ScheduledCheck<?> poll() {
+    while (waiting > 0) {
+      Lane best = null;
+      int totalWeight = 0;
+      for (Lane lane : Lane.values()) {
+        if (!queues.get(lane).isEmpty()) {
+          int weight = currentWeights.get(lane) + lane.getWeight();
+          currentWeights.put(lane, weight);
+          totalWeight += lane.getWeight();
+          if (best == null || weight > currentWeights.get(best)) {
+            best = lane;
+          }
+        }
+      }
+      currentWeights.put(best, currentWeights.get(best) - totalWeight);
+      ScheduledCheck<?> check = queues.get(best).poll();
+      waiting--;
+      long queueMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - check.queuedAt);
+      LaneStats laneStats = stats.get(best);
+      if (check.isCancelled()) {
+        check.started.countDown();
+      } else if (maxQueueMillis > 0 && queueMillis > maxQueueMillis) {
+        laneStats.shed.incrementAndGet();
+        check.shed(new ServerBusyException("Check waited " + queueMillis + "ms, longer than the allowed " +
+                maxQueueMillis + "ms, please try again later"));
+      } else {
+        laneStats.started.incrementAndGet();
+        laneStats.queueMillis.addAndGet(queueMillis);
+        laneStats.maxQueueMillis.accumulateAndGet(queueMillis, Math::max);
+        check.queueMillis = queueMillis;
+        return check;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * A queued check. Use {@link #awaitStart()} before waiting for the result with a timeout,
+   * so the time spent in the queue doesn't count as checking time.
+   */
+  static class ScheduledCheck<T> extends FutureTask<T> {
+
+    private final Lane lane;
+    private final long queuedAt = System.nanoTime();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private volatile long queueMillis;
+
+    private ScheduledCheck(Lane lane, Callable<T> callable) {
+      super(callable);
+      this.lane = lane;
+    }
+
+    Lane getLane() {
+      return lane;
+    }
+
+    /** The time in milliseconds the check waited before it started. */
+    long getQueueMillis() {
+      return queueMillis;
+    }
+
+    /** Wait until the check has started, was rejected or was cancelled. */
+    void awaitStart() throws InterruptedException {
+      started.await();
+    }
+
+    @Override
+    public void run() {
+      started.countDown();
+      super.run();
+    }
+
+    private void shed(Exception e) {
+      setException(e);
+      started.countDown();
+    }
+  }
+
+  /**
+   * Counters per lane since the server was started.
+   */
+  static class LaneStats {
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong queueMillis = new AtomicLong();
+    private final AtomicLong maxQueueMillis = new AtomicLong();
+
+    /** The number of checks that have been started. */
+    long getStartedCount() {
+      return started.get();
+    }
+
+    /** The number of checks rejected because too many checks were waiting. */
+    long getRejectedCount() {
+      return rejected.get();
+    }
+
+    /** The number of checks rejected because they waited too long. */
+    long getShedCount() {
+      return shed.get();
+    }
+
+    /** The total time in milliseconds that started checks have waited. */
+    long getTotalQueueMillis() {
+      return queueMillis.get();
+    }
+
+    /** The longest time in milliseconds a started check has waited. */
+    long getMaxQueueMillis() {
+      return maxQueueMillis.get();
+    }
+
+    @Override
+    public String toString() {
+      long count = started.get();
+      return count + " started, " + rejected.get() + " rejected, " + shed.get() + " shed, queue time avg " +
+              (count == 0 ? 0 : queueMillis.get() / count) + "ms max " + maxQueueMillis.get() + "ms";
+    }
+  }
+
+}
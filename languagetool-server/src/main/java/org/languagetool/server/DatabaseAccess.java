@@ -66,7 +66,8 @@ class DatabaseAccess {
         properties.setProperty("username", config.getDatabaseUsername());
         properties.setProperty("password", config.getDatabasePassword());
         sqlSessionFactory = new SqlSessionFactoryBuilder().build(inputStream, properties);
-        DatabaseLogger.init(sqlSessionFactory);
+        DatabaseLogger.init(sqlSessionFactory, config.getDatabaseLogBatchSize(),
+                config.getDatabaseLogBatchMaxWaitMillis(), config.getDatabaseLogQueueSize());
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
@@ -61,7 +61,7 @@ public class DatabaseCheckErrorLogEntry extends DatabaseLogEntry {
     parameters.put("client", client);
     parameters.put("user", user);
     parameters.put("language", languageSet.getLocale().toLanguageTag());
-    parameters.put("language_detected", languageDetected.getLocale().toLanguageTag());
+    parameters.put("language_detected", languageDetected != null ? languageDetected.getLocale().toLanguageTag() : null);
     parameters.put("text_length", textLength);
     parameters.put("extra", extra);
     return parameters;
@@ -67,7 +67,7 @@ class DatabaseCheckLogEntry extends DatabaseLogEntry {
     map.put("textsize", textSize);
     map.put("matches", matches);
     map.put("language", lang.getLocale().toLanguageTag());
-    map.put("language_detected", langDetected.getLocale().toLanguageTag());
+    map.put("language_detected", langDetected != null ? langDetected.getLocale().toLanguageTag() : null);
     map.put("computation_time", computationTime);
     map.put("text_session_id", textSessionId);
     map.put("server", server);
@@ -21,18 +21,31 @@
 
 package org.languagetool.server;
 
+import com.google.common.collect.Queues;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Writes log entries to the database in a background thread. Entries are written in batches
+ * of up to {@code batchSize} entries, each batch in one transaction. Entries that arrive while the
+ * queue is full are dropped, so a slow database doesn't make the server run out of memory.
  * @since 4.3
  */
 class DatabaseLogger {
 
+  static final int DEFAULT_BATCH_SIZE = 1;
+  static final long DEFAULT_BATCH_MAX_WAIT_MILLIS = 1000;
+  static final int DEFAULT_QUEUE_SIZE = 10_000;
+
   private static DatabaseLogger instance = null;
 
   /**
@@ -51,42 +64,114 @@ class DatabaseLogger {
    * @param factory shared factory from DatabaseAccess
    */
   static void init(SqlSessionFactory factory) {
-   getInstance().start(factory);
+    init(factory, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_MAX_WAIT_MILLIS, DEFAULT_QUEUE_SIZE);
+  }
+
+  /**
+   * called by DatabaseAccess.init
+   * @param factory shared factory from DatabaseAccess
+   * @param batchSize maximum number of entries written in one transaction, 1 to write every entry on its own
+   * @param batchMaxWaitMillis maximum time to wait for more entries to fill a batch
+   * @param queueSize maximum number of entries waiting to be written, more entries will be dropped
+   */
+  static void init(SqlSessionFactory factory, int batchSize, long batchMaxWaitMillis, int queueSize) {
+    getInstance().start(factory, batchSize, batchMaxWaitMillis, queueSize);
   }
 
   private class WorkerThread extends Thread {
+
+    private WorkerThread() {
+      super("lt-database-logger");
+    }
+
     @Override
     public void run() {
-      try (SqlSession session = sessionFactory.openSession(true)) {
+      List<DatabaseLogEntry> batch = new ArrayList<>(batchSize);
+      try {
         while (!Thread.currentThread().isInterrupted()) {
-          DatabaseLogEntry entry = messages.take();
-          Map<Object, Object> parameters = entry.getMapping();
-          session.insert(entry.getMappingIdentifier(), parameters);
-          entry.followup(parameters);
-        }
-      } catch (Exception e) {
-        e.printStackTrace();
-        if (!Thread.currentThread().isInterrupted()) {
-          new WorkerThread().start();
+          batch.clear();
+          batch.add(messages.take());
+          if (batchSize > 1) {
+            Queues.drain(messages, batch, batchSize - 1, batchMaxWaitMillis, TimeUnit.MILLISECONDS);
+          }
+          write(batch);
         }
+      } catch (InterruptedException e) {
+        // logging has been disabled
       }
     }
   }
 
-  private final BlockingQueue<DatabaseLogEntry> messages = new LinkedBlockingQueue<>();;
+  private volatile BlockingQueue<DatabaseLogEntry> messages = new ArrayBlockingQueue<>(1);
   private SqlSessionFactory sessionFactory = null;
   private WorkerThread worker = null;
   private boolean disabled = true;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private long batchMaxWaitMillis = DEFAULT_BATCH_MAX_WAIT_MILLIS;
+
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchNanos = new LongAdder();
+  private volatile long lastBatchNanos;
 
-  private void start(SqlSessionFactory factory) {
+  void start(SqlSessionFactory factory, int batchSize, long batchMaxWaitMillis, int queueSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be >= 1: " + batchSize);
+    }
+    if (worker != null) {
+      worker.interrupt();
+    }
     sessionFactory = factory;
+    this.batchSize = batchSize;
+    this.batchMaxWaitMillis = batchMaxWaitMillis;
+    messages = new ArrayBlockingQueue<>(queueSize);
     disabled = false;
     worker = new WorkerThread();
     worker.start();
   }
 
-  private DatabaseLogger() {
+  // non-private for tests, otherwise use getInstance()
+  DatabaseLogger() {
+  }
 
+  /**
+   * Write the entries as one MyBatis batch in one transaction. If that fails, the entries are lost,
+   * but the worker continues with the next batch. Followups (e.g. logging the rule matches of a check,
+   * which need the check's generated id) are run after the batch has been committed. A failing followup
+   * is counted as failed, but doesn't stop the followups of the other entries or the worker.
+   */
+  private void write(List<DatabaseLogEntry> entries) {
+    long startTime = System.nanoTime();
+    List<Map<Object, Object>> parameters = new ArrayList<>(entries.size());
+    ExecutorType executorType = entries.size() > 1 ? ExecutorType.BATCH : ExecutorType.SIMPLE;
+    try (SqlSession session = sessionFactory.openSession(executorType, false)) {
+      for (DatabaseLogEntry entry : entries) {
+        Map<Object, Object> entryParameters = entry.getMapping();
+        session.insert(entry.getMappingIdentifier(), entryParameters);
+        parameters.add(entryParameters);
+      }
+      session.flushStatements();
+      session.commit();
+    } catch (Exception e) {
+      e.printStackTrace();
+      failed.add(entries.size());
+      return;
+    }
+    long nanos = System.nanoTime() - startTime;
+    lastBatchNanos = nanos;
+    batchNanos.add(nanos);
+    batches.increment();
+    written.add(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      try {
+        entries.get(i).followup(parameters.get(i));
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+        failed.increment();
+      }
+    }
   }
 
   public void disableLogging() {
@@ -104,16 +189,51 @@ class DatabaseLogger {
     return !this.disabled;
   }
 
+  /**
+   * Queue the entry for writing, or drop it if the queue is full.
+   */
   public void log(DatabaseLogEntry entry) {
-    try {
-      if (!disabled) {
-        messages.put(entry);
-      }
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+    if (!disabled && !messages.offer(entry)) {
+      dropped.increment();
     }
   }
 
+  /** The number of entries waiting to be written. */
+  int getQueueSize() {
+    return messages.size();
+  }
+
+  /** The number of entries dropped because the queue was full. */
+  long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /** The number of entries successfully written. */
+  long getWrittenCount() {
+    return written.sum();
+  }
+
+  /** The number of entries that could not be written, or whose followup failed, because of an error. */
+  long getFailedCount() {
+    return failed.sum();
+  }
+
+  /** The number of successfully written batches. */
+  long getBatchCount() {
+    return batches.sum();
+  }
+
+  /** The average time to write and commit a batch, in milliseconds. */
+  double getAverageBatchLatencyMillis() {
+    long count = batches.sum();
+    return count == 0 ? 0 : batchNanos.sum() / 1_000_000.0 / count;
+  }
+
+  /** The time it took to write and commit the latest batch, in milliseconds. */
+  double getLastBatchLatencyMillis() {
+    return lastBatchNanos / 1_000_000.0;
+  }
+
   void createTestTables() {
     try (SqlSession session = sessionFactory.openSession(true)) {
       session.insert("org.languagetool.server.LogMapper.createRuleMatches");
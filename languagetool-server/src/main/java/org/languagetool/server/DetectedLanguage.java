@@ -39,12 +39,15 @@ public class DetectedLanguage {
     return givenLanguage;
   }
 
+  /**
+   * @return the detected language or {@code null} if language detection was skipped
+   */
   public Language getDetectedLanguage() {
     return detectedLanguage;
   }
 
   @Override
   public String toString() {
-    return detectedLanguage.getLocale().toLanguageTag();
+    return detectedLanguage != null ? detectedLanguage.getLocale().toLanguageTag() : "(not detected)";
   }
 }
@@ -20,8 +20,6 @@ package org.languagetool.server;
 
 import org.languagetool.JLanguageTool;
 
-import java.util.Date;
-
 /**
  * Limit the maximum number of request per IP address for a given time range.
  */
@@ -52,10 +50,7 @@ class ErrorRequestLimiter extends RequestLimiter {
    * @param ipAddress the client's IP address
    */
   void logAccess(String ipAddress) {
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), 0));
+    addRequest(ipAddress, 0);
   }
   
 }
@@ -71,7 +71,22 @@ public class HTTPServerConfig {
   protected int maxWorkQueueSize;
   protected File rulesConfigFile = null;
   protected int cacheSize = 0;
+  protected long cacheSizeInBytes = 0;
+  protected int cacheSecondTierSizeInBytes = 0;
+  protected File cacheFile = null;
+  protected int instancePoolMaxIdlePerKey = 4;
+  protected int instancePoolMaxKeys = 100;
+  protected boolean laneScheduling = false;
+  protected int laneMaxWaiting = 100;
+  protected long laneMaxQueueMillis = 0;
+  protected int laneBatchTextLength = 20_000;
+  protected int ioThreads = 0;
+  protected int checkPermits = 0;
+  protected boolean metricsEndpoint = false;
+  protected int textSessionCacheSize = 0;
+  protected Map<String, Integer> synthesizerCacheSizes = new LinkedHashMap<>();
   protected boolean warmUp = false;
+  protected boolean detectGivenLanguage = true;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -82,6 +97,9 @@ public class HTTPServerConfig {
   protected String dbUrl = null;
   protected String dbUsername = null;
   protected String dbPassword = null;
+  protected int dbLogBatchSize = DatabaseLogger.DEFAULT_BATCH_SIZE;
+  protected long dbLogBatchMaxWaitMillis = DatabaseLogger.DEFAULT_BATCH_MAX_WAIT_MILLIS;
+  protected int dbLogQueueSize = DatabaseLogger.DEFAULT_QUEUE_SIZE;
 
   /**
    * Create a server configuration for the default port ({@link #DEFAULT_PORT}).
@@ -209,6 +227,60 @@ public class HTTPServerConfig {
         if (cacheSize < 0) {
           throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize + ", use 0 to deactivate cache");
         }
+        cacheSizeInBytes = Long.parseLong(getOptionalProperty(props, "cacheSizeInBytes", "0"));
+        if (cacheSizeInBytes < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheSizeInBytes: " + cacheSizeInBytes + ", use 0 to deactivate cache");
+        }
+        cacheSecondTierSizeInBytes = Integer.parseInt(getOptionalProperty(props, "cacheSecondTierSizeInBytes", "0"));
+        if (cacheSecondTierSizeInBytes < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheSecondTierSizeInBytes: " + cacheSecondTierSizeInBytes + ", use 0 to deactivate the second tier");
+        }
+        String cacheFilePath = getOptionalProperty(props, "cacheFile", null);
+        if (cacheFilePath != null) {
+          cacheFile = new File(cacheFilePath);
+        }
+        instancePoolMaxIdlePerKey = Integer.parseInt(getOptionalProperty(props, "instancePoolMaxIdlePerKey", "4"));
+        if (instancePoolMaxIdlePerKey < 0) {
+          throw new IllegalArgumentException("Invalid value for instancePoolMaxIdlePerKey: " + instancePoolMaxIdlePerKey + ", use 0 to deactivate the instance pool");
+        }
+        instancePoolMaxKeys = Integer.parseInt(getOptionalProperty(props, "instancePoolMaxKeys", "100"));
+        if (instancePoolMaxKeys <= 0) {
+          throw new IllegalArgumentException("Invalid value for instancePoolMaxKeys: " + instancePoolMaxKeys + ", must be > 0");
+        }
+        laneScheduling = Boolean.valueOf(getOptionalProperty(props, "laneScheduling", "false"));
+        laneMaxWaiting = Integer.parseInt(getOptionalProperty(props, "laneMaxWaiting", "100"));
+        if (laneMaxWaiting < 1) {
+          throw new IllegalArgumentException("Invalid value for laneMaxWaiting: " + laneMaxWaiting + ", must be >= 1");
+        }
+        laneMaxQueueMillis = Long.parseLong(getOptionalProperty(props, "laneMaxQueueMillis", "0"));
+        if (laneMaxQueueMillis < 0) {
+          throw new IllegalArgumentException("Invalid value for laneMaxQueueMillis: " + laneMaxQueueMillis + ", use 0 for no limit");
+        }
+        laneBatchTextLength = Integer.parseInt(getOptionalProperty(props, "laneBatchTextLength", "20000"));
+        ioThreads = Integer.parseInt(getOptionalProperty(props, "ioThreads", "0"));
+        if (ioThreads < 0) {
+          throw new IllegalArgumentException("Invalid value for ioThreads: " + ioThreads + ", use 0 to disable");
+        }
+        metricsEndpoint = Boolean.valueOf(getOptionalProperty(props, "metricsEndpoint", "false"));
+        textSessionCacheSize = Integer.parseInt(getOptionalProperty(props, "textSessionCacheSize", "0"));
+        if (textSessionCacheSize < 0) {
+          throw new IllegalArgumentException("Invalid value for textSessionCacheSize: " + textSessionCacheSize + ", use 0 to disable");
+        }
+        String synthesizerCacheSizesStr = getOptionalProperty(props, "synthesizerCacheSize", "");
+        for (String entry : synthesizerCacheSizesStr.split(",\\s*")) {
+          if (!entry.isEmpty()) {
+            String[] parts = entry.split(":");
+            int size = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : -1;
+            if (size < 0) {
+              throw new IllegalArgumentException("Invalid value for synthesizerCacheSize: '" + entry + "', use e.g. 'de:20000'");
+            }
+            synthesizerCacheSizes.put(parts[0].trim(), size);
+          }
+        }
+        checkPermits = Integer.parseInt(getOptionalProperty(props, "checkPermits", "0"));
+        if (checkPermits < 0) {
+          throw new IllegalArgumentException("Invalid value for checkPermits: " + checkPermits + ", use 0 for the number of CPU cores");
+        }
         String warmUpStr = getOptionalProperty(props, "warmUp", "false");
         if (warmUpStr.equals("true")) {
           warmUp = true;
@@ -217,6 +289,14 @@ public class HTTPServerConfig {
         } else {
           throw new IllegalArgumentException("Invalid value for warmUp: '" + warmUpStr + "', use 'true' or 'false'");
         }
+        String detectGivenLanguageStr = getOptionalProperty(props, "detectGivenLanguage", "true");
+        if (detectGivenLanguageStr.equals("true")) {
+          detectGivenLanguage = true;
+        } else if (detectGivenLanguageStr.equals("false")) {
+          detectGivenLanguage = false;
+        } else {
+          throw new IllegalArgumentException("Invalid value for detectGivenLanguage: '" + detectGivenLanguageStr + "', use 'true' or 'false'");
+        }
         maxErrorsPerWordRate = Float.parseFloat(getOptionalProperty(props, "maxErrorsPerWordRate", "0"));
         maxSpellingSuggestions = Integer.parseInt(getOptionalProperty(props, "maxSpellingSuggestions", "0"));
         blockedReferrers = Arrays.asList(getOptionalProperty(props, "blockedReferrers", "").split(",\\s*"));
@@ -232,6 +312,15 @@ public class HTTPServerConfig {
         dbUrl = getOptionalProperty(props, "dbUrl", null);
         dbUsername = getOptionalProperty(props, "dbUsername", null);
         dbPassword = getOptionalProperty(props, "dbPassword", null);
+        dbLogBatchSize = Integer.parseInt(getOptionalProperty(props, "dbLogBatchSize", String.valueOf(DatabaseLogger.DEFAULT_BATCH_SIZE)));
+        if (dbLogBatchSize < 1) {
+          throw new IllegalArgumentException("Invalid value for dbLogBatchSize: " + dbLogBatchSize + ", must be >= 1");
+        }
+        dbLogBatchMaxWaitMillis = Long.parseLong(getOptionalProperty(props, "dbLogBatchMaxWaitMillis", String.valueOf(DatabaseLogger.DEFAULT_BATCH_MAX_WAIT_MILLIS)));
+        dbLogQueueSize = Integer.parseInt(getOptionalProperty(props, "dbLogQueueSize", String.valueOf(DatabaseLogger.DEFAULT_QUEUE_SIZE)));
+        if (dbLogQueueSize < 1) {
+          throw new IllegalArgumentException("Invalid value for dbLogQueueSize: " + dbLogQueueSize + ", must be >= 1");
+        }
       }
     } catch (IOException e) {
       throw new RuntimeException("Could not load properties from '" + file + "'", e);
@@ -482,11 +571,220 @@ public class HTTPServerConfig {
     this.cacheSize = sentenceCacheSize;
   }
 
+  /**
+   * Cache size as estimated heap memory in bytes, takes precedence over {@link #getCacheSize()} if &gt; 0.
+   * @since 4.3
+   */
+  long getCacheSizeInBytes() {
+    return cacheSizeInBytes;
+  }
+
+  /**
+   * Set cache size as estimated heap memory in bytes.
+   * @since 4.3
+   */
+  void setCacheSizeInBytes(long cacheSizeInBytes) {
+    this.cacheSizeInBytes = cacheSizeInBytes;
+  }
+
+  /**
+   * Size of the off-heap buffer that keeps serialized rule matches evicted from the cache, 0 if not used.
+   * @since 4.3
+   */
+  int getCacheSecondTierSizeInBytes() {
+    return cacheSecondTierSizeInBytes;
+  }
+
+  /** @since 4.3 */
+  void setCacheSecondTierSizeInBytes(int cacheSecondTierSizeInBytes) {
+    this.cacheSecondTierSizeInBytes = cacheSecondTierSizeInBytes;
+  }
+
+  /**
+   * File to save the cache's second tier to on shutdown and to load it from on startup, or {@code null}.
+   * @since 4.3
+   */
+  @Nullable
+  File getCacheFile() {
+    return cacheFile;
+  }
+
+  /** @since 4.3 */
+  void setCacheFile(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * Maximum number of idle {@link org.languagetool.JLanguageTool} instances kept for re-use per
+   * combination of language, mother tongue, user configuration, and rule selection, 0 if instances are not re-used.
+   * @since 4.3
+   */
+  int getInstancePoolMaxIdlePerKey() {
+    return instancePoolMaxIdlePerKey;
+  }
+
+  /** @since 4.3 */
+  void setInstancePoolMaxIdlePerKey(int instancePoolMaxIdlePerKey) {
+    this.instancePoolMaxIdlePerKey = instancePoolMaxIdlePerKey;
+  }
+
+  /**
+   * Maximum number of combinations of language, mother tongue, user configuration, and rule selection
+   * for which idle instances are kept.
+   * @since 4.3
+   */
+  int getInstancePoolMaxKeys() {
+    return instancePoolMaxKeys;
+  }
+
+  /** @since 4.3 */
+  void setInstancePoolMaxKeys(int instancePoolMaxKeys) {
+    this.instancePoolMaxKeys = instancePoolMaxKeys;
+  }
+
+  /**
+   * Whether checks are queued in separate lanes for premium, short, re-check, and large requests
+   * and run in {@link #getMaxCheckThreads()} threads, see {@link CheckScheduler}.
+   * @since 4.3
+   */
+  boolean getLaneScheduling() {
+    return laneScheduling;
+  }
+
+  /** @since 4.3 */
+  void setLaneScheduling(boolean laneScheduling) {
+    this.laneScheduling = laneScheduling;
+  }
+
+  /**
+   * Maximum number of checks waiting in all lanes, more requests are rejected with HTTP code 503.
+   * @since 4.3
+   */
+  int getLaneMaxWaiting() {
+    return laneMaxWaiting;
+  }
+
+  /** @since 4.3 */
+  void setLaneMaxWaiting(int laneMaxWaiting) {
+    this.laneMaxWaiting = laneMaxWaiting;
+  }
+
+  /**
+   * Maximum time in milliseconds a check may wait in its lane before it's rejected with HTTP code 503, 0 for no limit.
+   * @since 4.3
+   */
+  long getLaneMaxQueueMillis() {
+    return laneMaxQueueMillis;
+  }
+
+  /** @since 4.3 */
+  void setLaneMaxQueueMillis(long laneMaxQueueMillis) {
+    this.laneMaxQueueMillis = laneMaxQueueMillis;
+  }
+
+  /**
+   * Texts with at least this many characters are queued in the lane for large documents.
+   * @since 4.3
+   */
+  int getLaneBatchTextLength() {
+    return laneBatchTextLength;
+  }
+
+  /** @since 4.3 */
+  void setLaneBatchTextLength(int laneBatchTextLength) {
+    this.laneBatchTextLength = laneBatchTextLength;
+  }
+
+  /**
+   * Number of threads that read requests and write responses, 0 if the same {@link #getMaxCheckThreads()}
+   * threads handle both the I/O and the checks. If this is set, checks running at the same time are
+   * limited by {@link #getCheckPermits()} instead.
+   * @since 4.3
+   */
+  int getIoThreads() {
+    return ioThreads;
+  }
+
+  /** @since 4.3 */
+  void setIoThreads(int ioThreads) {
+    this.ioThreads = ioThreads;
+  }
+
+  /**
+   * Maximum number of checks running at the same time if {@link #getIoThreads()} is set,
+   * defaults to the number of CPU cores.
+   * @since 4.3
+   */
+  int getCheckPermits() {
+    return checkPermits > 0 ? checkPermits : Runtime.getRuntime().availableProcessors();
+  }
+
+  /** @since 4.3 */
+  void setCheckPermits(int checkPermits) {
+    this.checkPermits = checkPermits;
+  }
+
+  /**
+   * Whether {@code /v2/admin/metrics} returns server metrics in the Prometheus text format.
+   * @since 4.3
+   */
+  boolean getMetricsEndpoint() {
+    return metricsEndpoint;
+  }
+
+  /** @since 4.3 */
+  void setMetricsEndpoint(boolean metricsEndpoint) {
+    this.metricsEndpoint = metricsEndpoint;
+  }
+
+  /**
+   * Maximum number of texts (identified by the {@code textSessionId} parameter) for which the
+   * analysis and matches of the last check are kept, so that re-checks after an edit only need to
+   * check what has changed. 0 disables this.
+   * @since 4.3
+   */
+  int getTextSessionCacheSize() {
+    return textSessionCacheSize;
+  }
+
+  /** @since 4.3 */
+  void setTextSessionCacheSize(int textSessionCacheSize) {
+    this.textSessionCacheSize = textSessionCacheSize;
+  }
+
+  /**
+   * Maximum number of word forms cached by the synthesizers of a language, by language code, see
+   * {@link org.languagetool.databroker.DefaultResourceDataBroker#setSynthesizerCacheSize(String, int)}.
+   * @since 4.3
+   */
+  Map<String, Integer> getSynthesizerCacheSizes() {
+    return synthesizerCacheSizes;
+  }
+
+  /** @since 4.3 */
+  void setSynthesizerCacheSize(String langCode, int size) {
+    synthesizerCacheSizes.put(langCode, size);
+  }
+
   /** @since 3.7 */
   boolean getWarmUp() {
     return warmUp;
   }
 
+  /**
+   * Whether to run language detection even if the language is specified by the request. The
+   * detected language is only informational in that case, it's returned as 'detectedLanguage'.
+   * @since 4.3
+   */
+  boolean getDetectGivenLanguage() {
+    return detectGivenLanguage;
+  }
+
+  /** @since 4.3 */
+  void setDetectGivenLanguage(boolean detectGivenLanguage) {
+    this.detectGivenLanguage = detectGivenLanguage;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -632,6 +930,57 @@ public class HTTPServerConfig {
     this.dbPassword = dbPassword;
   }
 
+  /**
+   * @return the maximum number of log entries written to the database in one transaction
+   * @since 4.3
+   */
+  @Experimental
+  int getDatabaseLogBatchSize() {
+    return dbLogBatchSize;
+  }
+
+  /**
+   * @since 4.3
+   */
+  @Experimental
+  void setDatabaseLogBatchSize(int dbLogBatchSize) {
+    this.dbLogBatchSize = dbLogBatchSize;
+  }
+
+  /**
+   * @return the maximum time in milliseconds to wait for more log entries to fill a batch
+   * @since 4.3
+   */
+  @Experimental
+  long getDatabaseLogBatchMaxWaitMillis() {
+    return dbLogBatchMaxWaitMillis;
+  }
+
+  /**
+   * @since 4.3
+   */
+  @Experimental
+  void setDatabaseLogBatchMaxWaitMillis(long dbLogBatchMaxWaitMillis) {
+    this.dbLogBatchMaxWaitMillis = dbLogBatchMaxWaitMillis;
+  }
+
+  /**
+   * @return the maximum number of log entries waiting to be written, more entries will be dropped
+   * @since 4.3
+   */
+  @Experimental
+  int getDatabaseLogQueueSize() {
+    return dbLogQueueSize;
+  }
+
+  /**
+   * @since 4.3
+   */
+  @Experimental
+  void setDatabaseLogQueueSize(int dbLogQueueSize) {
+    this.dbLogQueueSize = dbLogQueueSize;
+  }
+
   /**
    * @throws IllegalConfigurationException if property is not set
    */
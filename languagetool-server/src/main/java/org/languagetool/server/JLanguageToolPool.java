@@ -0,0 +1,177 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.UserConfig;
+import org.languagetool.rules.CategoryId;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of fully configured {@link JLanguageTool} instances, so that requests with the same language,
+ * mother tongue, user configuration, and rule selection don't need to set up a new instance.
+ * An instance is only used by one check at a time: it's borrowed with {@link #borrow(Key, Factory)}
+ * and given back with {@link #release(Key, JLanguageTool)} when the check is done.
+ * Keys that are not used for some time are removed with all their idle instances.
+ * @since 4.3
+ */
+class JLanguageToolPool {
+
+  private final int maxIdlePerKey;
+  private final Cache<Key, BlockingQueue<JLanguageTool>> idleInstances;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder discarded = new LongAdder();
+
+  /**
+   * @param maxIdlePerKey maximum number of idle instances kept for one key, instances given back beyond that are discarded
+   * @param maxKeys maximum number of keys, the least recently used key is removed when there are more
+   * @param expireAfter time after which a key that hasn't been used is removed
+   */
+  JLanguageToolPool(int maxIdlePerKey, long maxKeys, int expireAfter, TimeUnit timeUnit) {
+    if (maxIdlePerKey <= 0) {
+      throw new IllegalArgumentException("maxIdlePerKey must be > 0: " + maxIdlePerKey);
+    }
+    this.maxIdlePerKey = maxIdlePerKey;
+    this.idleInstances = CacheBuilder.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(expireAfter, timeUnit)
+            .build();
+  }
+
+  /**
+   * Get an idle instance for the key or, if there is none, create one with the factory.
+   */
+  JLanguageTool borrow(Key key, Factory factory) throws Exception {
+    BlockingQueue<JLanguageTool> queue = idleInstances.getIfPresent(key);
+    JLanguageTool lt = queue != null ? queue.poll() : null;
+    if (lt != null) {
+      hits.increment();
+      return lt;
+    }
+    misses.increment();
+    return factory.create();
+  }
+
+  /**
+   * Give back an instance that was borrowed for the key. Only call this if the check
+   * was successful, an instance that might be in an inconsistent state should just not be given back.
+   */
+  void release(Key key, JLanguageTool lt) throws Exception {
+    BlockingQueue<JLanguageTool> queue = idleInstances.get(key, () -> new ArrayBlockingQueue<>(maxIdlePerKey));
+    if (!queue.offer(lt)) {
+      discarded.increment();
+    }
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the share of borrowed instances that were taken from the pool, 1.0 if there have been no requests yet
+   */
+  double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 1.0 : (double) hitCount / total;
+  }
+
+  /**
+   * The number of instances currently idle in the pool.
+   */
+  int getIdleCount() {
+    int count = 0;
+    for (BlockingQueue<JLanguageTool> queue : idleInstances.asMap().values()) {
+      count += queue.size();
+    }
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH, "hitRate=%.2f%%, hits=%d, misses=%d, discarded=%d, idle=%d, keys=%d",
+            getHitRate() * 100, getHitCount(), getMissCount(), discarded.sum(), getIdleCount(), idleInstances.size());
+  }
+
+  interface Factory {
+    JLanguageTool create() throws Exception;
+  }
+
+  /**
+   * Everything that the setup of a {@link JLanguageTool} instance in the server depends on.
+   * The rule and category ids are compared as sets, as their order is irrelevant.
+   */
+  static final class Key {
+
+    private final Language lang;
+    private final Language motherTongue;
+    private final UserConfig userConfig;
+    private final Set<String> enabledRules;
+    private final Set<String> disabledRules;
+    private final Set<CategoryId> enabledCategories;
+    private final Set<CategoryId> disabledCategories;
+    private final boolean useEnabledOnly;
+
+    Key(Language lang, Language motherTongue, UserConfig userConfig, Collection<String> enabledRules, Collection<String> disabledRules,
+        Collection<CategoryId> enabledCategories, Collection<CategoryId> disabledCategories, boolean useEnabledOnly) {
+      this.lang = Objects.requireNonNull(lang);
+      this.motherTongue = motherTongue;
+      this.userConfig = userConfig;
+      this.enabledRules = new HashSet<>(enabledRules);
+      this.disabledRules = new HashSet<>(disabledRules);
+      this.enabledCategories = new HashSet<>(enabledCategories);
+      this.disabledCategories = new HashSet<>(disabledCategories);
+      this.useEnabledOnly = useEnabledOnly;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return useEnabledOnly == other.useEnabledOnly &&
+             lang.equals(other.lang) &&
+             Objects.equals(motherTongue, other.motherTongue) &&
+             Objects.equals(userConfig, other.userConfig) &&
+             enabledRules.equals(other.enabledRules) &&
+             disabledRules.equals(other.disabledRules) &&
+             enabledCategories.equals(other.enabledCategories) &&
+             disabledCategories.equals(other.disabledCategories);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(lang, motherTongue, userConfig, enabledRules, disabledRules, enabledCategories, disabledCategories, useEnabledOnly);
+    }
+  }
+
+}
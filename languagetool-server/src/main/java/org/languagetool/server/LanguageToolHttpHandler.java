@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -30,6 +32,7 @@ import org.languagetool.tools.StringTools;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.*;
 import java.util.*;
@@ -49,6 +52,7 @@ class LanguageToolHttpHandler implements HttpHandler {
   private final TextChecker textCheckerV2;
   private final HTTPServerConfig config;
   private final RequestCounter reqCounter = new RequestCounter();
+  private final JsonFactory jsonFactory = new JsonFactory();
 
   LanguageToolHttpHandler(HTTPServerConfig config, Set<String> allowedIps, boolean internal, RequestLimiter requestLimiter, ErrorRequestLimiter errorLimiter, LinkedBlockingQueue<Runnable> workQueue) throws Exception {
     this.config = config;
@@ -59,6 +63,16 @@ class LanguageToolHttpHandler implements HttpHandler {
     this.textCheckerV2 = new V2TextChecker(config, internal, workQueue, reqCounter);
   }
 
+  // for tests
+  LanguageToolHttpHandler(HTTPServerConfig config, TextChecker textChecker) {
+    this.config = config;
+    this.allowedIps = null;
+    this.requestLimiter = null;
+    this.errorRequestLimiter = null;
+    this.workQueue = new LinkedBlockingQueue<>();
+    this.textCheckerV2 = textChecker;
+  }
+
   /** @since 2.6 */
   void shutdown() {
   }
@@ -70,6 +84,7 @@ class LanguageToolHttpHandler implements HttpHandler {
     Map<String, String> parameters = new HashMap<>();
     int reqId = reqCounter.incrementRequestCount();
     boolean incrementHandleCount = false;
+    boolean abortResponse = false;
     try {
       URI requestedUri = httpExchange.getRequestURI();
       if (requestedUri.getRawPath().startsWith("/v2/")) {
@@ -179,6 +194,10 @@ class LanguageToolHttpHandler implements HttpHandler {
       } else if (e instanceof IllegalArgumentException || rootCause instanceof IllegalArgumentException) {
         errorCode = HttpURLConnection.HTTP_BAD_REQUEST;
         response = e.getMessage();
+      } else if (e instanceof ServerBusyException || rootCause instanceof ServerBusyException) {
+        errorCode = HttpURLConnection.HTTP_UNAVAILABLE;
+        response = (rootCause instanceof ServerBusyException ? rootCause : e).getMessage();
+        logStacktrace = false;
       } else if (e instanceof TimeoutException || rootCause instanceof TimeoutException) {
         errorCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
         response = "Checking took longer than " + config.getMaxCheckTimeMillis()/1000.0f + " seconds, which is this server's limit. " +
@@ -190,10 +209,19 @@ class LanguageToolHttpHandler implements HttpHandler {
       }
       long endTime = System.currentTimeMillis();
       logError(remoteAddress, e, errorCode, httpExchange, parameters, textLoggingAllowed, logStacktrace, endTime-startTime);
+      if (httpExchange.getResponseCode() > 0 && !isStreamedResponse(httpExchange)) {
+        // HTTP 200 and maybe a part of the JSON have been sent already, so the error cannot be reported
+        // anymore. Don't close the exchange, as that would finish the response. Instead, the exception makes
+        // the server close the connection, so the client sees an incomplete response, not truncated JSON:
+        abortResponse = true;
+        throw new IOException("Response aborted after the headers have been sent: " + response, e);
+      }
       sendError(httpExchange, errorCode, "Error: " + response);
 
     } finally {
-      httpExchange.close();
+      if (!abortResponse) {
+        httpExchange.close();
+      }
       if (incrementHandleCount) {
         reqCounter.decrementHandleCount(reqId);
       }
@@ -326,7 +354,23 @@ class LanguageToolHttpHandler implements HttpHandler {
     return null;
   }
 
+  private static boolean isStreamedResponse(HttpExchange httpExchange) {
+    String contentType = httpExchange.getResponseHeaders().getFirst("Content-Type");
+    return contentType != null && contentType.startsWith(TextChecker.NDJSON_CONTENT_TYPE);
+  }
+
   private void sendError(HttpExchange httpExchange, int httpReturnCode, String response) throws IOException {
+    if (httpExchange.getResponseCode() > 0) {
+      // headers have already been sent when streaming results, so the error becomes the last line:
+      StringWriter sw = new StringWriter();
+      try (JsonGenerator g = jsonFactory.createGenerator(sw)) {
+        g.writeStartObject();
+        g.writeStringField("error", response);
+        g.writeEndObject();
+      }
+      httpExchange.getResponseBody().write((sw + "\n").getBytes(ENCODING));
+      return;
+    }
     ServerTools.setAllowOrigin(httpExchange, config.getAllowOriginUrl());
     httpExchange.sendResponseHeaders(httpReturnCode, response.getBytes(ENCODING).length);
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
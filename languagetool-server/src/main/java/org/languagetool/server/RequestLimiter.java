@@ -20,20 +20,24 @@ package org.languagetool.server;
 
 import org.languagetool.JLanguageTool;
 
-import java.util.Date;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Requests are counted per IP address in a ring of time buckets that together span the time range,
+ * so the limit is exact up to the length of one bucket, i.e. 1/{@value #BUCKET_COUNT} of the time range.
  */
 class RequestLimiter {
 
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  static final int BUCKET_COUNT = 20;
+  private static final int CLEANUP_INTERVAL = 1000;  // remove counters of inactive IPs every n requests
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
-  
+  private final ConcurrentMap<String, RequestWindow> windows = new ConcurrentHashMap<>();
+  private final AtomicInteger accessCount = new AtomicInteger();
+  private final long bucketMillis;
   private final int requestLimit;
   private final int requestLimitInBytes;
   private final int requestLimitPeriodInSeconds;
@@ -48,6 +52,7 @@ class RequestLimiter {
     this.requestLimit = requestLimit;
     this.requestLimitInBytes = requestLimitInBytes;
     this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+    this.bucketMillis = Math.max(1, requestLimitPeriodInSeconds * 1000L / BUCKET_COUNT);
     this.logger = DatabaseLogger.getInstance();
     if (this.logger.isLogging()) {
       DatabaseAccess db = DatabaseAccess.getInstance();
@@ -85,10 +90,7 @@ class RequestLimiter {
    */
   void checkAccess(String ipAddress, Map<String, String> parameters) {
     int reqSize = getRequestSize(parameters);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize));
+    addRequest(ipAddress, reqSize);
     checkLimit(ipAddress, ServerTools.getMode(parameters));
   }
 
@@ -105,61 +107,141 @@ class RequestLimiter {
     return 0;
   }
 
+  /**
+   * Count a request of the given size for the IP address.
+   * @since 4.3
+   */
+  void addRequest(String ipAddress, int sizeInBytes) {
+    long bucket = getCurrentBucket();
+    while (true) {
+      RequestWindow window = windows.computeIfAbsent(ipAddress, k -> new RequestWindow());
+      if (window.add(bucket, sizeInBytes)) {
+        break;
+      }
+      // the window has just been removed as inactive, use a new one:
+      windows.remove(ipAddress, window);
+    }
+    if (accessCount.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+      removeInactiveWindows(bucket);
+    }
+  }
+
   void checkLimit(String ipAddress, JLanguageTool.Mode mode) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000);
-    for (RequestEvent requestEvent : requestEvents) {
-      if (requestEvent.ip.equals(ipAddress) && requestEvent.date.after(thresholdDate)) {
-        requestsByIp++;
-        if (requestLimit > 0 && requestsByIp > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress;
-          logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriod", server, null, null, msg, null, null));
-          throw new TooManyRequestsException("Request limit of " + requestLimit + " requests per " +
-                  requestLimitPeriodInSeconds + " seconds exceeded");
-        }
-        requestSizeByIp += requestEvent.getSizeInBytes();
-        if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          int tmpLimit = requestLimitInBytes * 10;
-          if (requestLimitInBytes > 0 && requestSizeByIp > tmpLimit) {
-            String msg = "limit: " + tmpLimit + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
-            throw new TooManyRequestsException("Request size limit of " + tmpLimit + " (requestLimitInBytes*10) bytes per " +
-                    requestLimitPeriodInSeconds + " seconds exceeded for text-level checks");
-          }
-        } else {
-          if (requestLimitInBytes > 0 && requestSizeByIp > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
-            throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
-                    requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
+    RequestWindow window = windows.get(ipAddress);
+    if (window == null) {
+      return;
+    }
+    long bucket = getCurrentBucket();
+    int requestsByIp = window.getRequestCount(bucket);
+    if (requestLimit > 0 && requestsByIp > requestLimit) {
+      String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriod", server, null, null, msg, null, null));
+      throw new TooManyRequestsException("Request limit of " + requestLimit + " requests per " +
+              requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    if (requestLimitInBytes <= 0) {
+      return;
+    }
+    long requestSizeByIp = window.getSizeInBytes(bucket);
+    if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
+      long tmpLimit = requestLimitInBytes * 10L;
+      if (requestSizeByIp > tmpLimit) {
+        String msg = "limit: " + tmpLimit + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
+        logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
+        throw new TooManyRequestsException("Request size limit of " + tmpLimit + " (requestLimitInBytes*10) bytes per " +
+                requestLimitPeriodInSeconds + " seconds exceeded for text-level checks");
+      }
+    } else {
+      if (requestSizeByIp > requestLimitInBytes) {
+        String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress;
+        logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriod", server, null, null, msg, null, null));
+        throw new TooManyRequestsException("Request size limit of " + requestLimitInBytes + " bytes per " +
+                requestLimitPeriodInSeconds + " seconds exceeded");
       }
     }
   }
-  
-  protected static class RequestEvent {
 
-    private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
+  /**
+   * The number of IP addresses that requests are currently counted for.
+   * @since 4.3
+   */
+  int getIpCount() {
+    return windows.size();
+  }
 
-    RequestEvent(String ip, Date date, int sizeInBytes) {
-      this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
+  private long getCurrentBucket() {
+    return System.currentTimeMillis() / bucketMillis;
+  }
+
+  private void removeInactiveWindows(long currentBucket) {
+    for (Map.Entry<String, RequestWindow> entry : windows.entrySet()) {
+      if (entry.getValue().markRemovedIfInactive(currentBucket)) {
+        windows.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * The requests of one IP address, counted in a ring of time buckets. Synchronized, but as there's
+   * one window per IP address, there's usually no contention.
+   */
+  private static final class RequestWindow {
+
+    private final long[] bucketIds = new long[BUCKET_COUNT];
+    private final int[] requests = new int[BUCKET_COUNT];
+    private final long[] sizesInBytes = new long[BUCKET_COUNT];
+    private long latestBucket;
+    private boolean removed;
+
+    /**
+     * @return false if the window has been removed and cannot be used anymore
+     */
+    synchronized boolean add(long bucket, int sizeInBytes) {
+      if (removed) {
+        return false;
+      }
+      int i = (int) (bucket % BUCKET_COUNT);
+      if (bucketIds[i] != bucket) {
+        bucketIds[i] = bucket;
+        requests[i] = 0;
+        sizesInBytes[i] = 0;
+      }
+      requests[i]++;
+      sizesInBytes[i] += sizeInBytes;
+      latestBucket = Math.max(latestBucket, bucket);
+      return true;
     }
 
-    protected Date getDate() {
-      return date;
+    synchronized int getRequestCount(long currentBucket) {
+      int count = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        if (isInWindow(bucketIds[i], currentBucket)) {
+          count += requests[i];
+        }
+      }
+      return count;
     }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+
+    synchronized long getSizeInBytes(long currentBucket) {
+      long size = 0;
+      for (int i = 0; i < BUCKET_COUNT; i++) {
+        if (isInWindow(bucketIds[i], currentBucket)) {
+          size += sizesInBytes[i];
+        }
+      }
+      return size;
     }
 
+    synchronized boolean markRemovedIfInactive(long currentBucket) {
+      if (!isInWindow(latestBucket, currentBucket)) {
+        removed = true;
+      }
+      return removed;
+    }
+
+    private static boolean isInWindow(long bucket, long currentBucket) {
+      return bucket > currentBucket - BUCKET_COUNT;
+    }
   }
 
 }
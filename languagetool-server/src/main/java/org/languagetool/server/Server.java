@@ -127,6 +127,24 @@ abstract class Server {
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
+    System.out.println("                 'cacheSizeInBytes' - size of internal cache as estimated heap memory in bytes, used instead of 'cacheSize' (optional, default: 0)");
+    System.out.println("                 'cacheSecondTierSizeInBytes' - size of an off-heap buffer that keeps serialized matches evicted from the cache (optional, default: 0)");
+    System.out.println("                 'cacheFile' - file to save the cache's second tier to on shutdown and to load it from on startup, if written by the same LanguageTool build (optional)");
+    System.out.println("                 'instancePoolMaxIdlePerKey' - number of configured LanguageTool instances kept for re-use per language and rule configuration,\n" +
+                       "                                               0 to create a new instance for every request (optional, default: 4)");
+    System.out.println("                 'instancePoolMaxKeys' - number of language and rule configurations for which instances are kept (optional, default: 100)");
+    System.out.println("                 'laneScheduling' - queue checks separately for premium, short, re-check, and large requests so short checks\n" +
+                       "                                    don't wait behind large ones, with maxCheckThreads checks running (optional, default: false)");
+    System.out.println("                 'laneMaxWaiting' - maximum number of waiting checks with laneScheduling, more are rejected (optional, default: 100)");
+    System.out.println("                 'laneMaxQueueMillis' - checks that waited longer are rejected with laneScheduling (optional, default: 0 = no limit)");
+    System.out.println("                 'laneBatchTextLength' - texts this long are queued as large requests with laneScheduling (optional, default: 20000)");
+    System.out.println("                 'ioThreads' - number of threads reading requests and writing responses, so slow clients don't block\n" +
+                       "                               the checks; 0 uses maxCheckThreads threads for both (optional, default: 0)");
+    System.out.println("                 'checkPermits' - maximum number of checks running at the same time with ioThreads (optional, default: number of CPU cores)");
+    System.out.println("                 'textSessionCacheSize' - number of texts (by textSessionId) whose last check is kept, so re-checks only\n" +
+                       "                                          analyze and check changed sentences (optional, default: 0)");
+    System.out.println("                 'synthesizerCacheSize' - word forms to cache per synthesizer, by language, e.g. 'de:20000, pl:20000' (optional)");
+    System.out.println("                 'metricsEndpoint' - provide latency histograms, queue and cache statistics for Prometheus at /v2/admin/metrics (optional, default: false)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -142,6 +160,8 @@ abstract class Server {
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'warmUp' - set to 'true' to warm up server at start, i.e. run a short check with all languages (optional)");
+    System.out.println("                 'detectGivenLanguage' - set to 'false' to skip language detection if the request specifies the language;\n" +
+                       "                                         the response will then not contain a 'detectedLanguage' (optional, default: true)");
     System.out.println("                 'blockedReferrers' - a comma-separated list of HTTP referrers (and 'Origin' headers) that are blocked and will not be served (optional)");
   }
 
@@ -169,7 +189,11 @@ abstract class Server {
   }
 
   protected ThreadPoolExecutor getExecutorService(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
-    int threadPoolSize = config.getMaxCheckThreads();
+    int threadPoolSize = config.getIoThreads() > 0 ? config.getIoThreads() : config.getMaxCheckThreads();
+    if (config.getLaneScheduling()) {
+      // the checks run in the CheckScheduler's threads, these threads mostly wait for them:
+      threadPoolSize += config.getLaneMaxWaiting();
+    }
     System.out.println("Setting up thread pool with " + threadPoolSize + " threads");
     return new StoppingThreadPoolExecutor(threadPoolSize, workQueue);
   }
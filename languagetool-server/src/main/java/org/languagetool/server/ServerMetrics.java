@@ -0,0 +1,219 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects check latencies per language and per phase of a check, and writes them
+ * together with other server statistics in the Prometheus text format, see
+ * https://prometheus.io/docs/instrumenting/exposition_formats/
+ * @since 4.3
+ */
+class ServerMetrics {
+
+  static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /** upper bounds of the histogram buckets, in seconds */
+  private static final double[] LATENCY_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+  enum Phase {
+    /** language detection */
+    DETECTION,
+    /** tokenizing, tagging and disambiguating the text */
+    ANALYSIS,
+    /** matching the rules against the analyzed text */
+    RULE_MATCHING,
+    /** writing the JSON response */
+    SERIALIZATION;
+
+    private String label() {
+      return name().toLowerCase(Locale.ENGLISH);
+    }
+  }
+
+  private final ConcurrentMap<String, Histogram> checkLatencies = new ConcurrentHashMap<>();
+  private final Map<Phase, Histogram> phaseLatencies = new EnumMap<>(Phase.class);
+
+  ServerMetrics() {
+    for (Phase phase : Phase.values()) {
+      phaseLatencies.put(phase, new Histogram());
+    }
+  }
+
+  void recordCheck(String languageCode, long millis) {
+    checkLatencies.computeIfAbsent(languageCode, k -> new Histogram()).record(TimeUnit.MILLISECONDS.toNanos(millis));
+  }
+
+  void recordPhase(Phase phase, long nanos) {
+    phaseLatencies.get(phase).record(nanos);
+  }
+
+  /**
+   * The latency histogram of checks of the given language or {@code null} if no such text has been checked.
+   */
+  Histogram getCheckLatency(String languageCode) {
+    return checkLatencies.get(languageCode);
+  }
+
+  Histogram getPhaseLatency(Phase phase) {
+    return phaseLatencies.get(phase);
+  }
+
+  void writeHistograms(PrometheusWriter writer) throws IOException {
+    writer.histogram("languagetool_check_duration_seconds", "Time to handle a check request, by language",
+            "language", new TreeMap<>(checkLatencies));
+    Map<String, Histogram> phases = new LinkedHashMap<>();
+    for (Map.Entry<Phase, Histogram> entry : phaseLatencies.entrySet()) {
+      phases.put(entry.getKey().label(), entry.getValue());
+    }
+    writer.histogram("languagetool_check_phase_duration_seconds", "Time spent in each phase of a check",
+            "phase", phases);
+  }
+
+  /**
+   * A histogram with fixed buckets. Recording is lock-free, so it's cheap enough to do for every check.
+   */
+  static class Histogram {
+
+    private final LongAdder[] bucketCounts = new LongAdder[LATENCY_BUCKETS.length + 1];  // last one is +Inf
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      double seconds = nanos / 1_000_000_000.0;
+      int i = 0;
+      while (i < LATENCY_BUCKETS.length && seconds > LATENCY_BUCKETS[i]) {
+        i++;
+      }
+      bucketCounts[i].increment();
+      sumNanos.add(nanos);
+    }
+
+    long getCount() {
+      long count = 0;
+      for (LongAdder bucketCount : bucketCounts) {
+        count += bucketCount.sum();
+      }
+      return count;
+    }
+
+    double getSumSeconds() {
+      return sumNanos.sum() / 1_000_000_000.0;
+    }
+
+    /**
+     * The cumulative counts, as used by Prometheus: element {@code i} is the number of values
+     * {@code <=} bucket {@code i}'s upper bound, the last element is the total count.
+     */
+    long[] getCumulativeCounts() {
+      long[] result = new long[bucketCounts.length];
+      long count = 0;
+      for (int i = 0; i < bucketCounts.length; i++) {
+        count += bucketCounts[i].sum();
+        result[i] = count;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Writes metrics in the Prometheus text format.
+   */
+  static class PrometheusWriter {
+
+    private final Writer writer;
+
+    PrometheusWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    void gauge(String name, String help, double value) throws IOException {
+      header(name, help, "gauge");
+      sample(name, "", value);
+    }
+
+    void counter(String name, String help, double value) throws IOException {
+      header(name, help, "counter");
+      sample(name, "", value);
+    }
+
+    void gauge(String name, String help, String labelName, Map<String, ? extends Number> values) throws IOException {
+      labeled(name, help, "gauge", labelName, values);
+    }
+
+    void counter(String name, String help, String labelName, Map<String, ? extends Number> values) throws IOException {
+      labeled(name, help, "counter", labelName, values);
+    }
+
+    void histogram(String name, String help, String labelName, Map<String, Histogram> histograms) throws IOException {
+      header(name, help, "histogram");
+      for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+        String label = labelName + "=\"" + escape(entry.getKey()) + "\"";
+        Histogram histogram = entry.getValue();
+        long[] counts = histogram.getCumulativeCounts();
+        for (int i = 0; i < counts.length; i++) {
+          String le = i < LATENCY_BUCKETS.length ? Double.toString(LATENCY_BUCKETS[i]) : "+Inf";
+          sample(name + "_bucket", "{" + label + ",le=\"" + le + "\"}", counts[i]);
+        }
+        sample(name + "_sum", "{" + label + "}", histogram.getSumSeconds());
+        sample(name + "_count", "{" + label + "}", counts[counts.length - 1]);
+      }
+    }
+
+    private void labeled(String name, String help, String type, String labelName, Map<String, ? extends Number> values) throws IOException {
+      header(name, help, type);
+      for (Map.Entry<String, ? extends Number> entry : values.entrySet()) {
+        sample(name, "{" + labelName + "=\"" + escape(entry.getKey()) + "\"}", entry.getValue().doubleValue());
+      }
+    }
+
+    private void header(String name, String help, String type) throws IOException {
+      writer.write("# HELP " + name + " " + help + "\n");
+      writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private void sample(String name, String labels, double value) throws IOException {
+      writer.write(name + labels + " " + format(value) + "\n");
+    }
+
+    private static String format(double value) {
+      if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+        return Long.toString((long) value);
+      }
+      return Double.toString(value);
+    }
+
+    private static String escape(String labelValue) {
+      return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+  }
+
+}
@@ -18,11 +18,16 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.languagetool.*;
+import org.languagetool.databroker.DefaultResourceDataBroker;
 import org.languagetool.gui.Configuration;
 import org.languagetool.language.LanguageIdentifier;
 import org.languagetool.markup.AnnotatedText;
@@ -30,13 +35,20 @@ import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.Tools;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.languagetool.server.ServerTools.print;
 
@@ -48,6 +60,23 @@ abstract class TextChecker {
   protected abstract void setHeaders(HttpExchange httpExchange);
   protected abstract String getResponse(AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
                                         List<RuleMatch> hiddenMatches, String incompleteResultReason);
+
+  /**
+   * Write matches found so far while the check is still running, as a single line.
+   * Used when the client asks for streamed results with {@code stream=true}.
+   * @since 4.3
+   */
+  protected abstract void writePartialResponse(OutputStream out, AnnotatedText text, List<RuleMatch> partialMatches) throws IOException;
+
+  /**
+   * Write the response to the given stream. The default implementation writes the result
+   * of {@link #getResponse}, subclasses can override this to stream the response instead.
+   * @since 4.3
+   */
+  protected void writeResponse(OutputStream out, AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultReason) throws IOException {
+    out.write(getResponse(text, lang, motherTongue, matches, hiddenMatches, incompleteResultReason).getBytes(ENCODING));
+  }
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants);
@@ -62,7 +91,10 @@ abstract class TextChecker {
   protected final HTTPServerConfig config;
 
   private static final String ENCODING = "UTF-8";
+  static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
   private static final int CACHE_STATS_PRINT = 500; // print cache stats every n cache requests
+  private static final int LANGUAGE_DETECTION_MAX_LENGTH = 1000; // characters, longer texts are cut for detection
+  private static final int DETECTED_LANGUAGE_CACHE_SIZE = 1000;
 
   private final Map<String,Integer> languageCheckCounts = new HashMap<>();
   private final boolean internalServer;
@@ -71,6 +103,12 @@ abstract class TextChecker {
   private final LanguageIdentifier identifier;
   private final ExecutorService executorService;
   private final ResultCache cache;
+  private final JLanguageToolPool pool;
+  private final CheckScheduler scheduler;
+  private final CheckPermits checkPermits;
+  private final ServerMetrics metrics = new ServerMetrics();
+  private final Cache<String, Optional<Language>> detectedLanguageCache;
+  private final Cache<Long, CheckSession> checkSessions;
   private final DatabaseLogger logger;
   private final Long logServerId;
 
@@ -81,8 +119,26 @@ abstract class TextChecker {
     this.reqCounter = reqCounter;
     this.identifier = new LanguageIdentifier();
     this.identifier.enableFasttext(config.getFasttextBinary(), config.getFasttextModel());
+    this.detectedLanguageCache = CacheBuilder.newBuilder().maximumSize(DETECTED_LANGUAGE_CACHE_SIZE).build();
+    this.checkSessions = config.getTextSessionCacheSize() > 0 ?
+            CacheBuilder.newBuilder().maximumSize(config.getTextSessionCacheSize()).expireAfterAccess(10, TimeUnit.MINUTES).build() : null;
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
-    this.cache = config.getCacheSize() > 0 ? new ResultCache(config.getCacheSize()) : null;
+    if (config.getCacheSizeInBytes() > 0) {
+      this.cache = ResultCache.createWithHeapBudget(config.getCacheSizeInBytes(), 5, TimeUnit.MINUTES);
+    } else {
+      this.cache = config.getCacheSize() > 0 ? new ResultCache(config.getCacheSize()) : null;
+    }
+    if (cache != null && config.getCacheSecondTierSizeInBytes() > 0) {
+      initCacheSecondTier();
+    }
+    for (Map.Entry<String, Integer> entry : config.getSynthesizerCacheSizes().entrySet()) {
+      DefaultResourceDataBroker.setSynthesizerCacheSize(entry.getKey(), entry.getValue());
+    }
+    this.pool = config.getInstancePoolMaxIdlePerKey() > 0 ?
+            new JLanguageToolPool(config.getInstancePoolMaxIdlePerKey(), config.getInstancePoolMaxKeys(), 10, TimeUnit.MINUTES) : null;
+    this.scheduler = config.getLaneScheduling() ?
+            new CheckScheduler(config.getMaxCheckThreads(), config.getLaneMaxWaiting(), config.getLaneMaxQueueMillis(), config.getLaneBatchTextLength()) : null;
+    this.checkPermits = scheduler == null && config.getIoThreads() > 0 ? new CheckPermits(config.getCheckPermits(), executorService) : null;
     this.logger = DatabaseLogger.getInstance();
     if (logger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -91,8 +147,34 @@ abstract class TextChecker {
     }
   }
 
+  private void initCacheSecondTier() {
+    cache.setSecondTier(new SerializedMatchesStore(config.getCacheSecondTierSizeInBytes()));
+    File cacheFile = config.getCacheFile();
+    if (cacheFile != null) {
+      if (cacheFile.exists()) {
+        try {
+          int count = cache.loadSecondTier(cacheFile.toPath());
+          print("Loaded " + count + " cache entries from " + cacheFile);
+        } catch (IOException e) {
+          print("Could not load cache from " + cacheFile + ", starting with an empty cache: " + e);
+        }
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          cache.saveSecondTier(cacheFile.toPath());
+          print("Saved " + cache.getSecondTier().getEntryCount() + " cache entries to " + cacheFile);
+        } catch (IOException e) {
+          print("Could not save cache to " + cacheFile + ": " + e);
+        }
+      }, "lt-cache-save"));
+    }
+  }
+
   void shutdownNow() {
     executorService.shutdownNow();
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
   }
 
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter,
@@ -124,7 +206,11 @@ abstract class TextChecker {
     //print("Check start: " + text.length() + " chars, " + langParam);
     boolean autoDetectLanguage = getLanguageAutoDetect(parameters);
     List<String> preferredVariants = getPreferredVariants(parameters);
+    long detectionStart = System.nanoTime();
     DetectedLanguage detLang = getLanguage(aText.getPlainText(), parameters, preferredVariants);
+    long detectionNanos = System.nanoTime() - detectionStart;
+    long detectionMillis = TimeUnit.NANOSECONDS.toMillis(detectionNanos);
+    metrics.recordPhase(ServerMetrics.Phase.DETECTION, detectionNanos);
     Language lang = detLang.getGivenLanguage();
     Integer count = languageCheckCounts.get(lang.getLocale().toLanguageTag());
     if (count == null) {
@@ -165,27 +251,93 @@ abstract class TextChecker {
     } catch(NumberFormatException ignored) {
     }
     int textSize = aText.getPlainText().length();
-
+    // results are looked up by content, so a session sent by another client only means less is re-used:
+    Long sessionKey = checkSessions != null ? textSessionId : null;
+    // the check takes the session itself, so a check that is rejected or cancelled before it runs doesn't lose it:
+    AtomicReference<CheckSession> usedSession = new AtomicReference<>();
 
     List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
+    boolean streamResults = "true".equals(parameters.get("stream"));
+    // empty marks the end of the check:
+    BlockingQueue<Optional<RuleMatch>> streamedMatches = streamResults ? new LinkedBlockingQueue<>() : null;
 
-    Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
+    Callable<List<RuleMatch>> checkCallable = new Callable<List<RuleMatch>>() {
       @Override
       public List<RuleMatch> call() throws Exception {
         // use to fake OOM in thread for testing:
         /*if (Math.random() < 0.1) {
           throw new OutOfMemoryError();
         }*/
-        return getRuleMatches(aText, lang, motherTongue, params, userConfig, f -> ruleMatchesSoFar.add(f));
+        CheckSession session = sessionKey != null ? takeCheckSession(sessionKey) : null;
+        usedSession.set(session);
+        try {
+          if (streamedMatches == null) {
+            return getRuleMatches(aText, lang, motherTongue, params, userConfig, session, f -> ruleMatchesSoFar.add(f));
+          }
+          try {
+            return getRuleMatches(aText, lang, motherTongue, params, userConfig, session, f -> {
+              ruleMatchesSoFar.add(f);
+              streamedMatches.add(Optional.of(f));
+            });
+          } finally {
+            streamedMatches.add(Optional.empty());
+          }
+        } finally {
+          // only put back when no other thread uses it anymore:
+          if (session != null) {
+            checkSessions.put(sessionKey, session);
+          }
+        }
+      }
+    };
+    Future<List<RuleMatch>> future;
+    CheckScheduler.ScheduledCheck<List<RuleMatch>> scheduledCheck = null;
+    if (scheduler != null) {
+      if (reqCounter.getRequestCount() % CACHE_STATS_PRINT == 0) {
+        print("Lane stats: " + scheduler);
       }
-    });
+      CheckScheduler.Lane lane = scheduler.getLane(textSize, mode, limits.getPremiumUid() != null);
+      scheduledCheck = scheduler.submit(lane, checkCallable);
+      try {
+        // waiting in the queue doesn't count as checking time:
+        scheduledCheck.awaitStart();
+      } catch (InterruptedException e) {
+        scheduledCheck.cancel(true);
+        throw e;
+      }
+      future = scheduledCheck;
+    } else if (checkPermits != null) {
+      if (reqCounter.getRequestCount() % CACHE_STATS_PRINT == 0) {
+        print("Check permits: " + checkPermits);
+      }
+      // waiting for a permit doesn't count as checking time:
+      future = checkPermits.submit(checkCallable, limits.getMaxCheckTimeMillis());
+    } else {
+      future = executorService.submit(checkCallable);
+    }
+    long checkStart = System.currentTimeMillis();
+    // a check that is done but hasn't added the end marker was rejected without running, don't stream then:
+    if (streamedMatches != null && !(future.isDone() && streamedMatches.isEmpty())) {
+      setHeaders(httpExchange);
+      httpExchange.getResponseHeaders().set("Content-Type", NDJSON_CONTENT_TYPE);
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      long deadline = limits.getMaxCheckTimeMillis() < 0 ? -1 : checkStart + limits.getMaxCheckTimeMillis();
+      try {
+        streamPartialMatches(streamedMatches, aText, deadline, httpExchange.getResponseBody());
+      } catch (IOException e) {
+        // the client is disconnected or the matches cannot be serialized, no need to finish the check
+        future.cancel(true);
+        throw e;
+      }
+    }
     String incompleteResultReason = null;
     List<RuleMatch> matches;
     if (limits.getMaxCheckTimeMillis() < 0) {
       matches = future.get();
     } else {
       try {
-        matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
+        long remainingMillis = Math.max(0, limits.getMaxCheckTimeMillis() - (System.currentTimeMillis() - checkStart));
+        matches = future.get(remainingMillis, TimeUnit.MILLISECONDS);
       } catch (ExecutionException e) {
         future.cancel(true);
 
@@ -229,7 +381,9 @@ abstract class TextChecker {
       }
     }
 
-    setHeaders(httpExchange);
+    if (streamedMatches == null) {
+      setHeaders(httpExchange);
+    }
     List<RuleMatch> hiddenMatches = new ArrayList<>();
     if (config.getHiddenMatchesServer() != null && params.enableHiddenRules && config.getHiddenMatchesLanguages().contains(lang)) {
       ResultExtender resultExtender = new ResultExtender(config.getHiddenMatchesServer(), config.getHiddenMatchesServerTimeout());
@@ -243,12 +397,27 @@ abstract class TextChecker {
         print("Warn: Failed to query hidden matches server at " + config.getHiddenMatchesServer() + ": " + e.getClass() + ": " + e.getMessage());
       }
     }
-    String response = getResponse(aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
     String messageSent = "sent";
     String languageMessage = lang.getLocale().toLanguageTag();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      if (streamedMatches == null) {
+        // length 0 means chunked transfer encoding, so we don't need the whole response in memory to know its length:
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      }
+      long serializationStart = System.nanoTime();
+      if (streamedMatches != null) {
+        // the last line must be complete even if serialization fails, so an error can be sent as a line of its own:
+        ByteArrayOutputStream lastLine = new ByteArrayOutputStream();
+        writeResponse(lastLine, aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
+        lastLine.write('\n');
+        lastLine.writeTo(httpExchange.getResponseBody());
+      } else {
+        writeResponse(httpExchange.getResponseBody(), aText, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason);
+      }
+      metrics.recordPhase(ServerMetrics.Phase.SERIALIZATION, System.nanoTime() - serializationStart);
+    } catch (JsonProcessingException exception) {
+      // not a disconnected client but a serialization bug, so the handler logs it and aborts the response:
+      throw exception;
     } catch (IOException exception) {
       // the client is disconnected
       messageSent = "notSent: " + exception.getMessage();
@@ -261,10 +430,13 @@ abstract class TextChecker {
     }
     languageCheckCounts.put(lang.getLocale().toLanguageTag(), count);
     int computationTime = (int) (System.currentTimeMillis() - timeStart);
+    metrics.recordCheck(lang.getLocale().toLanguageTag(), computationTime);
     print("Check done: " + aText.getPlainText().length() + " chars, " + languageMessage + ", #" + count + ", " + referrer + ", "
             + matches.size() + " matches, "
-            + computationTime + "ms, agent:" + agent
+            + computationTime + "ms, langDetection:" + detectionMillis + "ms, agent:" + agent
             + ", " + messageSent + ", q:" + (workQueue != null ? workQueue.size() : "?")
+            + (usedSession.get() != null ? ", session:[" + usedSession.get() + "]" : "")
+            + (scheduledCheck != null ? ", lane:" + scheduledCheck.getLane() + ", queueTime:" + scheduledCheck.getQueueMillis() + "ms" : "")
             + ", h:" + reqCounter.getHandleCount() + ", distinctH:" + reqCounter.getDistinctIps()
             + ", r:" + reqCounter.getRequestCount());
 
@@ -282,6 +454,50 @@ abstract class TextChecker {
     logger.log(logEntry);
   }
 
+  /**
+   * Send the matches found so far as one line each time the check finds new matches, until the
+   * check is done or the deadline ({@code -1} for none) has passed.
+   */
+  private void streamPartialMatches(BlockingQueue<Optional<RuleMatch>> streamedMatches, AnnotatedText aText,
+                                    long deadline, OutputStream out) throws IOException, InterruptedException {
+    List<Optional<RuleMatch>> newMatches = new ArrayList<>();
+    List<RuleMatch> partialMatches = new ArrayList<>();
+    while (true) {
+      Optional<RuleMatch> first;
+      if (deadline < 0) {
+        first = streamedMatches.take();
+      } else {
+        first = streamedMatches.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+          return;  // timeout, handled like in the non-streaming case
+        }
+      }
+      newMatches.add(first);
+      streamedMatches.drainTo(newMatches);
+      boolean done = false;
+      for (Optional<RuleMatch> match : newMatches) {
+        if (match.isPresent()) {
+          partialMatches.add(match.get());
+        } else {
+          done = true;
+        }
+      }
+      if (partialMatches.size() > 0) {
+        // like the last line, a line must be complete even if serialization fails:
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        writePartialResponse(line, aText, partialMatches);
+        line.write('\n');
+        line.writeTo(out);
+        out.flush();
+      }
+      if (done) {
+        return;
+      }
+      newMatches.clear();
+      partialMatches.clear();
+    }
+  }
+
   private List<String> getUserDictWords(Long userId) {
     DatabaseAccess db = DatabaseAccess.getInstance();
     return db.getUserDictWords(userId);
@@ -293,16 +509,185 @@ abstract class TextChecker {
     }
   }
 
-  private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang,
-                                         Language motherTongue, QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+  /**
+   * Take the session of the text out of the cache, so that concurrent re-checks of the same text
+   * don't use the same session, which is not thread-safe.
+   */
+  private CheckSession takeCheckSession(long textSessionId) {
+    CheckSession session = checkSessions.asMap().remove(textSessionId);
+    return session != null ? session : new CheckSession();
+  }
+
+  private List<RuleMatch> getRuleMatches(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params,
+                                         UserConfig userConfig, CheckSession session, RuleMatchListener listener) throws Exception {
     if (cache != null && cache.requestCount() > 0 && cache.requestCount() % CACHE_STATS_PRINT == 0) {
       double hitRate = cache.hitRate();
       String hitPercentage = String.format(Locale.ENGLISH, "%.2f", hitRate * 100.0f);
-      print("Cache stats: " + hitPercentage + "% hit rate");
+      print("Cache stats: " + hitPercentage + "% hit rate (matches: " + cache.getMatchesStats() + "; sentences: " + cache.getSentenceStats() + ")");
       logger.log(new DatabaseCacheStatsLogEntry(logServerId, (float) hitRate));
     }
-    JLanguageTool lt = getLanguageToolInstance(lang, motherTongue, params, userConfig);
-    return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode);
+    if (pool == null) {
+      JLanguageTool lt = getLanguageToolInstance(lang, motherTongue, params, userConfig);
+      List<RuleMatch> matches = check(lt, aText, params, session, listener);
+      recordCheckPhases(lt);
+      return matches;
+    }
+    long poolRequests = pool.getHitCount() + pool.getMissCount();
+    if (poolRequests > 0 && poolRequests % CACHE_STATS_PRINT == 0) {
+      print("Instance pool stats: " + pool);
+    }
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, motherTongue, userConfig, params.enabledRules, params.disabledRules,
+            params.enabledCategories, params.disabledCategories, params.useEnabledOnly);
+    JLanguageTool lt = pool.borrow(key, () -> getLanguageToolInstance(lang, motherTongue, params, userConfig));
+    List<RuleMatch> matches = check(lt, aText, params, session, listener);
+    recordCheckPhases(lt);
+    // only give back instances after successful checks, an exception might leave an instance in a bad state:
+    pool.release(key, lt);
+    return matches;
+  }
+
+  private List<RuleMatch> check(JLanguageTool lt, AnnotatedText aText, QueryParams params, CheckSession session, RuleMatchListener listener) throws Exception {
+    if (session == null) {
+      return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode);
+    }
+    return lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener, params.mode, session);
+  }
+
+  private void recordCheckPhases(JLanguageTool lt) {
+    metrics.recordPhase(ServerMetrics.Phase.ANALYSIS, lt.getLastAnalysisNanos());
+    metrics.recordPhase(ServerMetrics.Phase.RULE_MATCHING, lt.getLastRuleMatchingNanos());
+  }
+
+  /**
+   * Write latency histograms, queue sizes, cache statistics and JVM memory usage in the
+   * Prometheus text format.
+   * @since 4.3
+   */
+  void writeMetrics(Writer out) throws IOException {
+    ServerMetrics.PrometheusWriter writer = new ServerMetrics.PrometheusWriter(out);
+    metrics.writeHistograms(writer);
+    writer.counter("languagetool_requests_total", "Number of requests since the server was started", reqCounter.getRequestCount());
+    writer.gauge("languagetool_requests_in_progress", "Number of requests currently handled", reqCounter.getHandleCount());
+    if (workQueue != null) {
+      writer.gauge("languagetool_work_queue_size", "Number of requests waiting for a server thread", workQueue.size());
+    }
+    if (scheduler != null) {
+      Map<String, Number> waiting = new LinkedHashMap<>();
+      Map<String, Number> started = new LinkedHashMap<>();
+      Map<String, Number> rejected = new LinkedHashMap<>();
+      Map<String, Number> queueSeconds = new LinkedHashMap<>();
+      for (CheckScheduler.Lane lane : CheckScheduler.Lane.values()) {
+        String name = lane.name().toLowerCase(Locale.ENGLISH);
+        CheckScheduler.LaneStats stats = scheduler.getStats(lane);
+        waiting.put(name, scheduler.getWaitingCount(lane));
+        started.put(name, stats.getStartedCount());
+        rejected.put(name, stats.getRejectedCount() + stats.getShedCount());
+        queueSeconds.put(name, stats.getTotalQueueMillis() / 1000.0);
+      }
+      writer.gauge("languagetool_lane_waiting", "Number of checks waiting in each lane", "lane", waiting);
+      writer.counter("languagetool_lane_started_total", "Number of checks started from each lane", "lane", started);
+      writer.counter("languagetool_lane_rejected_total", "Number of checks rejected or shed in each lane", "lane", rejected);
+      writer.counter("languagetool_lane_queue_seconds_total", "Total time checks waited in each lane", "lane", queueSeconds);
+    }
+    if (checkPermits != null) {
+      writer.gauge("languagetool_checks_running", "Number of checks currently running", checkPermits.getRunningCount());
+      writer.gauge("languagetool_checks_waiting", "Number of checks waiting for a permit", checkPermits.getWaitingCount());
+      writer.counter("languagetool_checks_rejected_total", "Number of checks rejected because no permit was available", checkPermits.getRejectedCount());
+    }
+    if (cache != null) {
+      Map<String, ResultCache.LayerStats> layers = new LinkedHashMap<>();
+      layers.put("matches", cache.getMatchesStats());
+      layers.put("sentences", cache.getSentenceStats());
+      Map<String, Number> hits = new LinkedHashMap<>();
+      Map<String, Number> misses = new LinkedHashMap<>();
+      Map<String, Number> evictions = new LinkedHashMap<>();
+      Map<String, Number> sizes = new LinkedHashMap<>();
+      Map<String, Number> weights = new LinkedHashMap<>();
+      for (Map.Entry<String, ResultCache.LayerStats> entry : layers.entrySet()) {
+        ResultCache.LayerStats stats = entry.getValue();
+        hits.put(entry.getKey(), stats.getHitCount());
+        misses.put(entry.getKey(), stats.getMissCount());
+        evictions.put(entry.getKey(), stats.getEvictionCount());
+        sizes.put(entry.getKey(), stats.getSize());
+        weights.put(entry.getKey(), stats.getWeight());
+      }
+      SerializedMatchesStore secondTier = cache.getSecondTier();
+      if (secondTier != null) {
+        hits.put("second_tier", secondTier.getHitCount());
+        misses.put("second_tier", secondTier.getMissCount());
+        sizes.put("second_tier", secondTier.getEntryCount());
+      }
+      writer.counter("languagetool_cache_hits_total", "Result cache hits per layer", "layer", hits);
+      writer.counter("languagetool_cache_misses_total", "Result cache misses per layer", "layer", misses);
+      writer.counter("languagetool_cache_evictions_total", "Result cache evictions per layer", "layer", evictions);
+      writer.gauge("languagetool_cache_entries", "Result cache entries per layer", "layer", sizes);
+      writer.gauge("languagetool_cache_weight", "Result cache weight per layer (estimated bytes for a cache with a heap budget)", "layer", weights);
+    }
+    Map<String, CacheStats> synthesizerStats = DefaultResourceDataBroker.getSynthesizerCacheStats();
+    if (!synthesizerStats.isEmpty()) {
+      Map<String, Number> hits = new LinkedHashMap<>();
+      Map<String, Number> misses = new LinkedHashMap<>();
+      Map<String, Number> evictions = new LinkedHashMap<>();
+      for (Map.Entry<String, CacheStats> entry : synthesizerStats.entrySet()) {
+        hits.put(entry.getKey(), entry.getValue().hitCount());
+        misses.put(entry.getKey(), entry.getValue().missCount());
+        evictions.put(entry.getKey(), entry.getValue().evictionCount());
+      }
+      writer.counter("languagetool_synthesizer_cache_hits_total", "Synthesizer word form cache hits per language", "language", hits);
+      writer.counter("languagetool_synthesizer_cache_misses_total", "Synthesizer word form cache misses per language", "language", misses);
+      writer.counter("languagetool_synthesizer_cache_evictions_total", "Synthesizer word form cache evictions per language", "language", evictions);
+    }
+    if (pool != null) {
+      writer.counter("languagetool_instance_pool_hits_total", "Checks that re-used a pooled LanguageTool instance", pool.getHitCount());
+      writer.counter("languagetool_instance_pool_misses_total", "Checks that created a new LanguageTool instance", pool.getMissCount());
+      writer.gauge("languagetool_instance_pool_idle", "Idle LanguageTool instances in the pool", pool.getIdleCount());
+    }
+    if (logger.isLogging()) {
+      writer.gauge("languagetool_db_log_queue_size", "Database log entries waiting to be written", logger.getQueueSize());
+      writer.counter("languagetool_db_log_dropped_total", "Database log entries dropped because the queue was full", logger.getDroppedCount());
+      writer.counter("languagetool_db_log_written_total", "Database log entries written", logger.getWrittenCount());
+      writer.counter("languagetool_db_log_failed_total", "Database log entries that could not be written", logger.getFailedCount());
+      writer.gauge("languagetool_db_log_batch_latency_seconds", "Average time to write a batch of database log entries", logger.getAverageBatchLatencyMillis() / 1000.0);
+    }
+    MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    Map<String, Number> memoryUsed = new LinkedHashMap<>();
+    memoryUsed.put("heap", memoryBean.getHeapMemoryUsage().getUsed());
+    memoryUsed.put("nonheap", memoryBean.getNonHeapMemoryUsage().getUsed());
+    Map<String, Number> memoryCommitted = new LinkedHashMap<>();
+    memoryCommitted.put("heap", memoryBean.getHeapMemoryUsage().getCommitted());
+    memoryCommitted.put("nonheap", memoryBean.getNonHeapMemoryUsage().getCommitted());
+    writer.gauge("jvm_memory_bytes_used", "Used JVM memory", "area", memoryUsed);
+    writer.gauge("jvm_memory_bytes_committed", "Committed JVM memory", "area", memoryCommitted);
+    writer.gauge("jvm_memory_bytes_max", "Maximum JVM heap size", Runtime.getRuntime().maxMemory());
+    writer.gauge("jvm_threads_current", "Number of live JVM threads", ManagementFactory.getThreadMXBean().getThreadCount());
+  }
+
+  ServerMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * The scheduler that runs checks in lanes or {@code null} if lane scheduling is not enabled.
+   * @since 4.3
+   */
+  CheckScheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * The permits that limit the number of running checks or {@code null} if {@code ioThreads} is not set.
+   * @since 4.3
+   */
+  CheckPermits getCheckPermits() {
+    return checkPermits;
+  }
+
+  /**
+   * The pool of {@link JLanguageTool} instances or {@code null} if instances are not pooled.
+   * @since 4.3
+   */
+  JLanguageToolPool getPool() {
+    return pool;
   }
 
   @NotNull
@@ -326,7 +711,7 @@ abstract class TextChecker {
   }
 
   Language detectLanguageOfString(String text, String fallbackLanguage, List<String> preferredVariants) {
-    Language lang = identifier.detectLanguage(text);
+    Language lang = detectLanguageOfPrefix(text);
     if (lang == null) {
       lang = Languages.getLanguage(fallbackLanguage != null ? fallbackLanguage : "en");
     }
@@ -351,6 +736,19 @@ abstract class TextChecker {
     return lang;
   }
 
+  /**
+   * Detect the language using only the beginning of the text, which is enough for a reliable
+   * detection. Results are cached, as the same texts often get checked more than once.
+   */
+  private Language detectLanguageOfPrefix(String text) {
+    String prefix = text.length() > LANGUAGE_DETECTION_MAX_LENGTH ? text.substring(0, LANGUAGE_DETECTION_MAX_LENGTH) : text;
+    try {
+      return detectedLanguageCache.get(prefix, () -> Optional.ofNullable(identifier.detectLanguage(prefix))).orElse(null);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
   /**
    * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
    *
@@ -27,6 +27,8 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 import static org.languagetool.server.ServerTools.setCommonHeaders;
@@ -56,6 +58,20 @@ class V2TextChecker extends TextChecker {
             lang.getGivenLanguage(), lang.getDetectedLanguage(), incompleteResultsReason);
   }
 
+  @Override
+  protected void writeResponse(OutputStream out, AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultsReason) throws IOException {
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
+    serializer.ruleMatchesToJson(matches, hiddenMatches, text, CONTEXT_SIZE,
+            lang.getGivenLanguage(), lang.getDetectedLanguage(), incompleteResultsReason, out);
+  }
+
+  @Override
+  protected void writePartialResponse(OutputStream out, AnnotatedText text, List<RuleMatch> partialMatches) throws IOException {
+    RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer();
+    serializer.partialMatchesToJson(partialMatches, text, CONTEXT_SIZE, out);
+  }
+
   @NotNull
   @Override
   protected List<String> getEnabledRuleIds(Map<String, String> parameters) {
@@ -102,12 +118,15 @@ class V2TextChecker extends TextChecker {
   @NotNull
   protected DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants) {
     String langParam = parameters.get("language");
-    Language detectedLang = detectLanguageOfString(text, null, preferredVariants);
+    Language detectedLang;
     Language givenLang;
     if (getLanguageAutoDetect(parameters)) {
+      detectedLang = detectLanguageOfString(text, null, preferredVariants);
       givenLang = detectedLang;
     } else {
       givenLang = Languages.getLanguage(langParam);
+      // the detected language is only informational here, so detection can be skipped:
+      detectedLang = config.getDetectGivenLanguage() ? detectLanguageOfString(text, null, preferredVariants) : null;
     }
     return new DetectedLanguage(givenLang, detectedLang);
   }
@@ -0,0 +1,75 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CheckPermitsTest {
+
+  private final ExecutorService executorService = Executors.newCachedThreadPool();
+  private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    releaseBlocker.countDown();
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testLimitAndRelease() throws Exception {
+    CheckPermits permits = new CheckPermits(1, executorService);
+    CountDownLatch blockerStarted = new CountDownLatch(1);
+    Future<String> blocker = permits.submit(() -> {
+      blockerStarted.countDown();
+      releaseBlocker.await();
+      return "blocker";
+    }, -1);
+    blockerStarted.await();
+    assertThat(permits.getRunningCount(), is(1));
+    try {
+      permits.submit(() -> "rejected", 50);
+      fail();
+    } catch (ServerBusyException expected) {}
+    assertThat(permits.getRejectedCount(), is(1L));
+    releaseBlocker.countDown();
+    assertThat(blocker.get(), is("blocker"));
+    assertThat(permits.submit(() -> "next", 1000).get(), is("next"));
+  }
+
+  @Test
+  public void testPermitReleasedAfterCancel() throws Exception {
+    CheckPermits permits = new CheckPermits(1, executorService);
+    CountDownLatch blockerStarted = new CountDownLatch(1);
+    Future<String> blocker = permits.submit(() -> {
+      blockerStarted.countDown();
+      Thread.sleep(60_000);
+      return "blocker";
+    }, -1);
+    blockerStarted.await();
+    blocker.cancel(true);  // like a check that took too long
+    assertThat(permits.submit(() -> "next", 1000).get(), is("next"));
+  }
+
+}
@@ -0,0 +1,154 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.After;
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.languagetool.server.CheckScheduler.Lane.*;
+
+public class CheckSchedulerTest {
+
+  private final CountDownLatch blockerStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+  private CheckScheduler scheduler;
+
+  @After
+  public void tearDown() {
+    releaseBlocker.countDown();
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testGetLane() {
+    scheduler = new CheckScheduler(1, 10, 0, 1000);
+    assertThat(scheduler.getLane(10, JLanguageTool.Mode.ALL, false), is(INTERACTIVE));
+    assertThat(scheduler.getLane(10, JLanguageTool.Mode.ALL, true), is(PREMIUM));
+    assertThat(scheduler.getLane(10, JLanguageTool.Mode.TEXTLEVEL_ONLY, false), is(RECHECK));
+    assertThat(scheduler.getLane(1000, JLanguageTool.Mode.ALL, false), is(BATCH));
+    assertThat(scheduler.getLane(1000, JLanguageTool.Mode.ALL, true), is(BATCH));
+  }
+
+  @Test
+  public void testWeightedOrder() throws Exception {
+    scheduler = new CheckScheduler(1, 100, 0, 1000);
+    block();
+    List<CheckScheduler.Lane> order = Collections.synchronizedList(new ArrayList<>());
+    List<CheckScheduler.ScheduledCheck<Object>> checks = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      checks.add(scheduler.submit(BATCH, () -> order.add(BATCH)));
+    }
+    for (int i = 0; i < 4; i++) {
+      checks.add(scheduler.submit(INTERACTIVE, () -> order.add(INTERACTIVE)));
+    }
+    assertThat(scheduler.getWaitingCount(), is(8));
+    releaseBlocker.countDown();
+    for (CheckScheduler.ScheduledCheck<Object> check : checks) {
+      check.get();
+    }
+    // interactive checks get 4 turns for each turn of a batch check, even though they were queued later:
+    assertThat(order, is(Arrays.asList(INTERACTIVE, INTERACTIVE, BATCH, INTERACTIVE, INTERACTIVE, BATCH, BATCH, BATCH)));
+    assertThat(scheduler.getStats(BATCH).getStartedCount(), is(4L));
+    assertTrue(scheduler.getStats(BATCH).getMaxQueueMillis() >= scheduler.getStats(INTERACTIVE).getMaxQueueMillis());
+  }
+
+  @Test
+  public void testRejectWhenTooManyWaiting() throws Exception {
+    scheduler = new CheckScheduler(1, 2, 0, 1000);
+    block();
+    scheduler.submit(INTERACTIVE, () -> "a");
+    scheduler.submit(BATCH, () -> "b");
+    try {
+      scheduler.submit(INTERACTIVE, () -> "c");
+      fail();
+    } catch (ServerBusyException expected) {}
+    assertThat(scheduler.getStats(INTERACTIVE).getRejectedCount(), is(1L));
+  }
+
+  @Test
+  public void testShedAfterMaxQueueTime() throws Exception {
+    scheduler = new CheckScheduler(1, 10, 50, 1000);
+    block();
+    CheckScheduler.ScheduledCheck<String> check = scheduler.submit(BATCH, () -> "too late");
+    Thread.sleep(100);
+    releaseBlocker.countDown();
+    check.awaitStart();
+    try {
+      check.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertThat(expected.getCause(), instanceOf(ServerBusyException.class));
+    }
+    assertThat(scheduler.getStats(BATCH).getShedCount(), is(1L));
+    assertThat(scheduler.getStats(BATCH).getStartedCount(), is(0L));
+  }
+
+  @Test
+  public void testCancelRunningCheck() throws Exception {
+    scheduler = new CheckScheduler(1, 10, 0, 1000);
+    CheckScheduler.ScheduledCheck<Object> running = submitRunningCheck();
+    CheckScheduler.ScheduledCheck<Boolean> queued = scheduler.submit(INTERACTIVE, () -> Thread.currentThread().isInterrupted());
+    assertTrue(running.cancel(true));  // interrupts the worker, as TextChecker does on a timeout
+    assertFalse("Check runs with interrupt flag set", queued.get(5, TimeUnit.SECONDS));
+
+    // nothing is waiting when the check is cancelled, so the worker will wait for the next check:
+    assertTrue(submitRunningCheck().cancel(true));
+    assertThat(scheduler.submit(INTERACTIVE, () -> "still running").get(5, TimeUnit.SECONDS), is("still running"));
+  }
+
+  // a check that, like most checks, doesn't react to interrupts and so doesn't clear the interrupt flag:
+  private CheckScheduler.ScheduledCheck<Object> submitRunningCheck() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CheckScheduler.ScheduledCheck<Object> check = scheduler.submit(BATCH, () -> {
+      started.countDown();
+      long endTime = System.currentTimeMillis() + 10_000;
+      while (!Thread.currentThread().isInterrupted() && System.currentTimeMillis() < endTime) {
+        Thread.yield();
+      }
+      return null;
+    });
+    started.await();
+    return check;
+  }
+
+  // keeps the only thread busy so that the next checks need to wait:
+  private void block() throws InterruptedException {
+    scheduler.submit(INTERACTIVE, () -> {
+      blockerStarted.countDown();
+      releaseBlocker.await();
+      return null;
+    });
+    blockerStarted.await();
+  }
+
+}
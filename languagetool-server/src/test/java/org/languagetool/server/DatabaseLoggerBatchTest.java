@@ -0,0 +1,169 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class DatabaseLoggerBatchTest {
+
+  private SqlSessionFactory factory;
+  private DatabaseLogger logger;
+
+  @Before
+  public void setUp() throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty("driver", "org.hsqldb.jdbcDriver");
+    properties.setProperty("url", "jdbc:hsqldb:mem:batchtestdb");
+    properties.setProperty("username", "");
+    properties.setProperty("password", "");
+    try (InputStream inputStream = Resources.getResourceAsStream("org/languagetool/server/mybatis-config.xml")) {
+      factory = new SqlSessionFactoryBuilder().build(inputStream, properties);
+    }
+    logger = new DatabaseLogger();
+  }
+
+  @After
+  public void tearDown() {
+    logger.disableLogging();
+    logger.dropTestTables();
+  }
+
+  @Test
+  public void testBatchedWrites() throws Exception {
+    logger.start(factory, 10, 1000, 100);
+    logger.createTestTables();
+    for (int i = 0; i < 50; i++) {
+      logger.log(new DatabaseMiscLogEntry(1L, null, null, "message " + i));
+    }
+    waitUntilDone(50);
+    assertThat(logger.getWrittenCount(), is(50L));
+    assertThat(logger.getDroppedCount(), is(0L));
+    assertThat(logger.getFailedCount(), is(0L));
+    assertThat(logger.getQueueSize(), is(0));
+    assertTrue("Expected batches, got " + logger.getBatchCount() + " for 50 entries", logger.getBatchCount() < 50);
+    assertTrue(logger.getAverageBatchLatencyMillis() > 0);
+    assertThat(countRows(), is(50L));
+  }
+
+  @Test
+  public void testFullQueueDropsEntries() throws Exception {
+    logger.start(factory, 1, 0, 1);
+    logger.createTestTables();
+    for (int i = 0; i < 1000; i++) {
+      logger.log(new DatabaseMiscLogEntry(1L, null, null, "message " + i));
+    }
+    assertTrue(logger.getDroppedCount() > 0);
+    waitUntilDone(1000 - logger.getDroppedCount());
+    assertThat(logger.getWrittenCount() + logger.getDroppedCount(), is(1000L));
+    assertThat(countRows(), is(logger.getWrittenCount()));
+  }
+
+  @Test
+  public void testBatchedWritesWithGeneratedKeys() throws Exception {
+    logger.start(factory, 10, 1000, 100);
+    logger.createTestTables();
+    Language lang = Languages.getLanguage("en-US");
+    Set<Long> checkIds = Collections.synchronizedSet(new HashSet<>());
+    for (int i = 0; i < 5; i++) {
+      logger.log(new DatabaseCheckLogEntry(null, null, 1L, 20, 1, lang, null, 10, null) {
+        @Override
+        public void followup(Map<Object, Object> parameters) {
+          // the rule matches of a check are logged in the followup and need the generated id:
+          checkIds.add((Long) parameters.get("id"));
+        }
+      });
+    }
+    waitUntilDone(5);
+    assertThat(logger.getWrittenCount(), is(5L));
+    assertThat(count("SELECT COUNT(*) FROM check_log"), is(5L));
+    assertThat(checkIds.size(), is(5));
+    assertFalse(checkIds.contains(null));
+  }
+
+  @Test
+  public void testFailingFollowupKeepsWorkerRunning() throws Exception {
+    logger.start(factory, 1, 0, 100);
+    logger.createTestTables();
+    Set<String> followups = Collections.synchronizedSet(new HashSet<>());
+    for (int i = 0; i < 3; i++) {
+      logger.log(new DatabaseMiscLogEntry(1L, null, null, "failing " + i) {
+        @Override
+        public void followup(Map<Object, Object> parameters) {
+          throw new ClassCastException("simulated error in followup");
+        }
+      });
+    }
+    logger.log(new DatabaseMiscLogEntry(1L, null, null, "last") {
+      @Override
+      public void followup(Map<Object, Object> parameters) {
+        followups.add("last");
+      }
+    });
+    long endTime = System.currentTimeMillis() + 10_000;
+    while (followups.isEmpty() && System.currentTimeMillis() < endTime) {
+      Thread.sleep(20);
+    }
+    assertTrue("Worker stopped after a failing followup", followups.contains("last"));
+    assertThat(logger.getWrittenCount(), is(4L));
+    assertThat(logger.getFailedCount(), is(3L));
+    assertThat(countRows(), is(4L));
+  }
+
+  private void waitUntilDone(long expectedCount) throws InterruptedException {
+    long endTime = System.currentTimeMillis() + 10_000;
+    while (logger.getWrittenCount() + logger.getFailedCount() < expectedCount && System.currentTimeMillis() < endTime) {
+      Thread.sleep(20);
+    }
+  }
+
+  private long countRows() throws SQLException {
+    return count("SELECT COUNT(*) FROM misc_log");
+  }
+
+  private long count(String sql) throws SQLException {
+    try (SqlSession session = factory.openSession(true);
+         Statement statement = session.getConnection().createStatement();
+         ResultSet result = statement.executeQuery(sql)) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+}
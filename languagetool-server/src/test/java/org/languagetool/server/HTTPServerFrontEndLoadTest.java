@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares the default set-up, where the same threads read requests and run checks, with
+ * {@code ioThreads}/{@code checkPermits}, where reading and writing happens in separate threads.
+ * Some clients send their requests very slowly while others send normal requests; the latency of
+ * the normal requests is printed for both set-ups.
+ */
+public class HTTPServerFrontEndLoadTest {
+
+  private static final int CHECK_THREADS = 4;
+  private static final int IO_THREADS = 64;
+  private static final int SLOW_CLIENTS = 8;
+  private static final int SLOW_CLIENT_BYTE_DELAY_MILLIS = 100;
+  private static final int FAST_CLIENTS = 8;
+  private static final int FAST_CLIENT_REQUESTS = 20;
+  private static final String TEXT = "This is a example text with a error. But it's not to long, so it's quick to check.";
+
+  @Test
+  @Ignore("for interactive use only")
+  public void test() throws Exception {
+    HTTPServerConfig config1 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config1.setMaxCheckThreads(CHECK_THREADS);
+    runWithServer("threads for I/O and checks: " + CHECK_THREADS, config1);
+
+    HTTPServerConfig config2 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config2.setIoThreads(IO_THREADS);
+    config2.setCheckPermits(CHECK_THREADS);
+    runWithServer("I/O threads: " + IO_THREADS + ", check permits: " + CHECK_THREADS, config2);
+  }
+
+  private void runWithServer(String description, HTTPServerConfig config) throws Exception {
+    HTTPServer server = new HTTPServer(config);
+    try {
+      server.run();
+      checkOnServer();  // warm up
+      ExecutorService slowClients = Executors.newFixedThreadPool(SLOW_CLIENTS);
+      for (int i = 0; i < SLOW_CLIENTS; i++) {
+        slowClients.submit(() -> { sendSlowly(); return null; });
+      }
+      Thread.sleep(500);  // let the slow clients connect first
+      ExecutorService fastClients = Executors.newFixedThreadPool(FAST_CLIENTS);
+      List<Future<List<Long>>> futures = new ArrayList<>();
+      long startTime = System.currentTimeMillis();
+      for (int i = 0; i < FAST_CLIENTS; i++) {
+        futures.add(fastClients.submit(this::runFastClient));
+      }
+      List<Long> latencies = new ArrayList<>();
+      for (Future<List<Long>> future : futures) {
+        latencies.addAll(future.get());
+      }
+      long runTime = System.currentTimeMillis() - startTime;
+      slowClients.shutdownNow();
+      fastClients.shutdown();
+      Collections.sort(latencies);
+      System.out.printf(Locale.ENGLISH, "%s: %d requests in %dms (%.1f/s), latency p50: %dms, p95: %dms, max: %dms%n",
+              description, latencies.size(), runTime, latencies.size() * 1000.0 / runTime,
+              percentile(latencies, 50), percentile(latencies, 95), latencies.get(latencies.size() - 1));
+    } finally {
+      server.stop();
+    }
+  }
+
+  private List<Long> runFastClient() throws IOException {
+    List<Long> latencies = new ArrayList<>();
+    for (int i = 0; i < FAST_CLIENT_REQUESTS; i++) {
+      long startTime = System.currentTimeMillis();
+      checkOnServer();
+      latencies.add(System.currentTimeMillis() - startTime);
+    }
+    return latencies;
+  }
+
+  private void checkOnServer() throws IOException {
+    URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/check");
+    HTTPTools.checkAtUrlByPost(url, "language=en-US&text=" + URLEncoder.encode(TEXT, "UTF-8"));
+  }
+
+  // like a client on a bad mobile connection:
+  private void sendSlowly() throws IOException, InterruptedException {
+    byte[] body = ("language=en-US&text=" + URLEncoder.encode(TEXT, "UTF-8")).getBytes(StandardCharsets.UTF_8);
+    try (Socket socket = new Socket("localhost", HTTPTools.getDefaultPort())) {
+      OutputStream out = socket.getOutputStream();
+      String header = "POST /v2/check HTTP/1.1\r\n" +
+              "Host: localhost\r\n" +
+              "Content-Type: application/x-www-form-urlencoded\r\n" +
+              "Content-Length: " + body.length + "\r\n\r\n";
+      out.write(header.getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      for (byte b : body) {
+        out.write(b);
+        out.flush();
+        Thread.sleep(SLOW_CLIENT_BYTE_DELAY_MILLIS);
+      }
+      socket.getInputStream().read();
+    }
+  }
+
+  private long percentile(List<Long> sortedValues, int percentile) {
+    return sortedValues.get(Math.min(sortedValues.size() - 1, sortedValues.size() * percentile / 100));
+  }
+
+}
@@ -350,6 +350,25 @@ public class HTTPServerTest {
     }
   }
 
+  @Test
+  public void testStreamedResults() throws Exception {
+    HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false);
+    try {
+      server.run();
+      String result = checkV2(new AmericanEnglish(), "This is an test. I has a error. This is fine.", "&stream=true");
+      String[] lines = result.trim().split("\n");
+      assertTrue("Expected partial results and a final result, got: " + result, lines.length > 1);
+      for (int i = 0; i < lines.length - 1; i++) {
+        assertTrue(lines[i], lines[i].startsWith("{\"partialMatches\":[{"));
+      }
+      String finalResult = lines[lines.length - 1];
+      assertTrue(finalResult, finalResult.startsWith("{\"software\":"));
+      assertTrue(finalResult, finalResult.contains("EN_A_VS_AN"));
+    } finally {
+      server.stop();
+    }
+  }
+
   private String checkV1(Language lang, String text) throws IOException {
     return checkV1(lang, null, text);
   }
@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.UserConfig;
+import org.languagetool.rules.CategoryId;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class JLanguageToolPoolTest {
+
+  @Test
+  public void testBorrowAndRelease() throws Exception {
+    Language lang = Languages.getLanguage("en-US");
+    JLanguageToolPool pool = new JLanguageToolPool(2, 10, 5, TimeUnit.MINUTES);
+    JLanguageToolPool.Key key1 = key(lang, new UserConfig(), Arrays.asList("ID1", "ID2"));
+    JLanguageToolPool.Key key1b = key(lang, new UserConfig(), Arrays.asList("ID2", "ID1"));
+    JLanguageToolPool.Key key2 = key(lang, new UserConfig(Arrays.asList("word")), Arrays.asList("ID1", "ID2"));
+    assertThat(key1, is(key1b));
+    assertNotEquals(key1, key2);
+
+    JLanguageTool lt1 = pool.borrow(key1, () -> new JLanguageTool(lang));
+    JLanguageTool lt2 = pool.borrow(key1, () -> new JLanguageTool(lang));
+    assertNotSame(lt1, lt2);
+    assertThat(pool.getMissCount(), is(2L));
+    pool.release(key1, lt1);
+    assertThat(pool.getIdleCount(), is(1));
+
+    assertSame(lt1, pool.borrow(key1b, () -> { throw new AssertionError("instance should be taken from pool"); }));
+    assertThat(pool.getHitCount(), is(1L));
+    JLanguageTool lt3 = pool.borrow(key2, () -> new JLanguageTool(lang));
+    assertNotSame(lt1, lt3);
+    assertThat(pool.getHitRate(), is(0.25));
+
+    pool.release(key1, lt1);
+    pool.release(key1, lt2);
+    pool.release(key1, new JLanguageTool(lang));  // more than maxIdlePerKey, will be discarded
+    assertThat(pool.getIdleCount(), is(2));
+  }
+
+  private JLanguageToolPool.Key key(Language lang, UserConfig userConfig, List<String> disabledRules) {
+    return new JLanguageToolPool.Key(lang, null, userConfig, Collections.emptyList(), disabledRules,
+            Collections.<CategoryId>emptyList(), Collections.<CategoryId>emptyList(), false);
+  }
+
+}
@@ -0,0 +1,128 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.languagetool.Language;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LanguageToolHttpHandlerTest {
+
+  private HttpServer server;
+  private Exception serializationError = new IllegalStateException("Simulated error during serialization");
+
+  @Before
+  public void setUp() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    TextChecker checker = new V2TextChecker(config, false, null, new RequestCounter()) {
+      @Override
+      protected void writeResponse(OutputStream out, AnnotatedText text, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
+                                   List<RuleMatch> hiddenMatches, String incompleteResultsReason) throws IOException {
+        out.write("{\"software\":".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        if (serializationError instanceof IOException) {
+          throw (IOException) serializationError;
+        }
+        throw (RuntimeException) serializationError;
+      }
+    };
+    server = HttpServer.create(new InetSocketAddress("localhost", HTTPTools.getDefaultPort()), 0);
+    server.createContext("/", new LanguageToolHttpHandler(config, checker));
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    if (server != null) {
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testSerializationErrorAbortsResponse() throws Exception {
+    HttpURLConnection connection = openCheck("");
+    assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+    try {
+      readBody(connection);
+      fail("A response with an error during serialization must not be complete");
+    } catch (IOException expected) {
+    }
+    // the server still works:
+    URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/healthcheck");
+    assertEquals("OK", HTTPTools.checkAtUrl(url));
+  }
+
+  @Test
+  public void testJsonGenerationErrorAbortsResponse() throws Exception {
+    // an IOException, but not one caused by the client:
+    serializationError = new JsonGenerationException("Simulated error during serialization", (JsonGenerator) null);
+    HttpURLConnection connection = openCheck("");
+    assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+    try {
+      readBody(connection);
+      fail("A response with an error during serialization must not be complete");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testSerializationErrorWhenStreaming() throws Exception {
+    HttpURLConnection connection = openCheck("&stream=true");
+    assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+    String body = readBody(connection);
+    String[] lines = body.trim().split("\n");
+    // no partial last line, but an error line:
+    assertFalse(body, body.contains("{\"software\":"));
+    assertTrue(body, lines[lines.length - 1].startsWith("{\"error\":"));
+  }
+
+  private HttpURLConnection openCheck(String params) throws IOException {
+    URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v2/check?language=en-US&text=This+is+an+test" + params);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Connection", "close");
+    return connection;
+  }
+
+  private String readBody(HttpURLConnection connection) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    byte[] buffer = new byte[1024];
+    int length;
+    while ((length = connection.getInputStream().read(buffer)) != -1) {
+      sb.append(new String(buffer, 0, length, StandardCharsets.UTF_8));
+    }
+    return sb.toString();
+  }
+
+}
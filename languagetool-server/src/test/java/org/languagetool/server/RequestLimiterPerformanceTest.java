@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compare the throughput of {@link RequestLimiter} with the implementation it replaced, which kept
+ * the latest 1000 requests of all IPs in a {@link CopyOnWriteArrayList} and scanned them for every
+ * request. Not a unit test, for interactive use only.
+ */
+final class RequestLimiterPerformanceTest {
+
+  private static final int THREADS = 8;
+  private static final int IPS = 500;
+  private static final int SECONDS = 5;
+
+  private RequestLimiterPerformanceTest() {
+  }
+
+  private void run(String name, Limiter limiter) throws Exception {
+    LongAdder requests = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    long endTime = System.currentTimeMillis() + SECONDS * 1000;
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int seed = t;
+      futures.add(executor.submit(() -> {
+        Random random = new Random(seed);
+        Map<String, String> params = new HashMap<>();
+        params.put("text", "This is a short text.");
+        while (System.currentTimeMillis() < endTime) {
+          for (int i = 0; i < 100; i++) {
+            limiter.checkAccess("10.0.0." + random.nextInt(IPS), params);
+            requests.increment();
+          }
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    System.out.printf(Locale.ENGLISH, "%-20s %,12d requests/s%n", name + ":", requests.sum() / SECONDS);
+  }
+
+  interface Limiter {
+    void checkAccess(String ipAddress, Map<String, String> parameters);
+  }
+
+  /**
+   * The old implementation, without logging.
+   */
+  static class CopyOnWriteRequestLimiter implements Limiter {
+
+    private final List<Object[]> requestEvents = new CopyOnWriteArrayList<>();
+    private final int requestLimit;
+    private final int requestLimitPeriodInSeconds;
+
+    CopyOnWriteRequestLimiter(int requestLimit, int requestLimitPeriodInSeconds) {
+      this.requestLimit = requestLimit;
+      this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+    }
+
+    @Override
+    public void checkAccess(String ipAddress, Map<String, String> parameters) {
+      while (requestEvents.size() > 1000) {
+        requestEvents.remove(0);
+      }
+      requestEvents.add(new Object[] {ipAddress, new Date(), parameters.get("text").length()});
+      int requestsByIp = 0;
+      Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000);
+      for (Object[] event : requestEvents) {
+        if (event[0].equals(ipAddress) && ((Date) event[1]).after(thresholdDate)) {
+          requestsByIp++;
+          if (requestsByIp > requestLimit) {
+            throw new TooManyRequestsException("limit exceeded");
+          }
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    RequestLimiterPerformanceTest test = new RequestLimiterPerformanceTest();
+    System.out.println(THREADS + " threads, " + IPS + " IPs");
+    for (int i = 0; i < 2; i++) {
+      test.run("CopyOnWriteArrayList", new CopyOnWriteRequestLimiter(Integer.MAX_VALUE, 60));
+      RequestLimiter limiter = new RequestLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, 60);
+      test.run("RequestLimiter", limiter::checkAccess);
+    }
+  }
+
+}
@@ -23,6 +23,8 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 public class RequestLimiterTest {
@@ -63,6 +65,19 @@ public class RequestLimiterTest {
     assertOkay(limiter, secondIp, params);
   }
 
+  @Test
+  public void testInactiveIpsAreRemoved() throws Exception {
+    RequestLimiter limiter = new RequestLimiter(3, 0, 1);
+    Map<String, String> params = new HashMap<>();
+    for (int i = 0; i < 999; i++) {
+      assertOkay(limiter, "10.0." + (i / 256) + "." + (i % 256), params);
+    }
+    assertThat(limiter.getIpCount(), is(999));
+    Thread.sleep(1050);
+    assertOkay(limiter, "192.168.10.1", params);  // 1000th request, triggers the clean up
+    assertThat(limiter.getIpCount(), is(1));
+  }
+
   private void assertOkay(RequestLimiter limiter, String ip, Map<String, String> params) {
     try {
       limiter.checkAccess(ip, params);
@@ -0,0 +1,70 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ServerMetricsTest {
+
+  @Test
+  public void testHistogram() {
+    ServerMetrics.Histogram histogram = new ServerMetrics.Histogram();
+    histogram.record(500_000);          // 0.5ms
+    histogram.record(1_000_000);        // 1ms, bucket bounds are inclusive
+    histogram.record(20_000_000);       // 20ms
+    histogram.record(100_000_000_000L); // 100s
+    long[] counts = histogram.getCumulativeCounts();
+    assertThat(counts[0], is(2L));   // <= 1ms
+    assertThat(counts[3], is(2L));   // <= 10ms
+    assertThat(counts[4], is(3L));   // <= 25ms
+    assertThat(counts[counts.length - 2], is(3L));  // <= 60s
+    assertThat(counts[counts.length - 1], is(4L));  // +Inf
+    assertThat(histogram.getCount(), is(4L));
+    assertEquals(100.0215, histogram.getSumSeconds(), 0.00001);
+  }
+
+  @Test
+  public void testPrometheusFormat() throws Exception {
+    ServerMetrics metrics = new ServerMetrics();
+    metrics.recordCheck("en-US", 30);
+    metrics.recordCheck("en-US", 300);
+    metrics.recordPhase(ServerMetrics.Phase.RULE_MATCHING, 2_000_000);
+    StringWriter sw = new StringWriter();
+    ServerMetrics.PrometheusWriter writer = new ServerMetrics.PrometheusWriter(sw);
+    metrics.writeHistograms(writer);
+    writer.gauge("test_queue_size", "A \"gauge\"", 7);
+    String result = sw.toString();
+    assertThat(result, containsString("# TYPE languagetool_check_duration_seconds histogram\n"));
+    assertThat(result, containsString("languagetool_check_duration_seconds_bucket{language=\"en-US\",le=\"0.025\"} 0\n"));
+    assertThat(result, containsString("languagetool_check_duration_seconds_bucket{language=\"en-US\",le=\"0.05\"} 1\n"));
+    assertThat(result, containsString("languagetool_check_duration_seconds_bucket{language=\"en-US\",le=\"+Inf\"} 2\n"));
+    assertThat(result, containsString("languagetool_check_duration_seconds_sum{language=\"en-US\"} 0.33\n"));
+    assertThat(result, containsString("languagetool_check_duration_seconds_count{language=\"en-US\"} 2\n"));
+    assertThat(result, containsString("languagetool_check_phase_duration_seconds_count{phase=\"rule_matching\"} 1\n"));
+    assertThat(result, containsString("languagetool_check_phase_duration_seconds_count{phase=\"detection\"} 0\n"));
+    assertThat(result, containsString("# TYPE test_queue_size gauge\ntest_queue_size 7\n"));
+  }
+
+}
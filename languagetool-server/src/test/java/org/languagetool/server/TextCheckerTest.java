@@ -34,6 +34,7 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -44,6 +45,7 @@ import static org.junit.Assert.*;
 public class TextCheckerTest {
 
   private final String english = "This is clearly an English text, should be easy to detect.";
+  private final String germanText = "Das hier ist klar ein deutscher Text, sollte gut zu erkennen sein.";
   private TextChecker checker;
 
   @Before
@@ -123,6 +125,27 @@ public class TextCheckerTest {
     assertThat(checker.detectLanguageOfString(german, "fr", Arrays.asList()).getLocale().getLanguage(), is("de-DE"));
   }
 
+  @Test
+  public void testGetLanguage() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("language", "en-US");
+    DetectedLanguage lang1 = checker.getLanguage(germanText, params, Collections.emptyList());
+    assertThat(lang1.getGivenLanguage().getLocale().toLanguageTag(), is("en-US"));
+    assertThat(lang1.getDetectedLanguage().getLocale().toLanguageTag(), is("de-DE"));
+
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setDetectGivenLanguage(false);
+    TextChecker checker2 = new V2TextChecker(config, false, null, new RequestCounter());
+    DetectedLanguage lang2 = checker2.getLanguage(germanText, params, Collections.emptyList());
+    assertThat(lang2.getGivenLanguage().getLocale().toLanguageTag(), is("en-US"));
+    assertNull(lang2.getDetectedLanguage());
+
+    params.put("language", "auto");
+    DetectedLanguage lang3 = checker2.getLanguage(germanText, params, Collections.emptyList());
+    assertThat(lang3.getGivenLanguage().getLocale().toLanguageTag(), is("de-DE"));
+    assertThat(lang3.getDetectedLanguage().getLocale().toLanguageTag(), is("de-DE"));
+  }
+
   @Test(expected = RuntimeException.class)
   public void testInvalidPreferredVariant() {
     checker.detectLanguageOfString(english, "de", Arrays.asList("en"));  // that's not a variant
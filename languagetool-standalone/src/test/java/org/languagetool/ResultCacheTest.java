@@ -19,9 +19,14 @@
 package org.languagetool;
 
 import org.junit.Test;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
@@ -68,4 +73,90 @@ public class ResultCacheTest {
     assertNull(cache.getIfPresent(input1aUc2));
   }
 
+  @Test
+  public void testLayerStats() {
+    ResultCache cache = new ResultCache(100);
+    SimpleInputSentence key = new SimpleInputSentence("foo", Languages.getLanguage("de"));
+    assertNull(cache.getIfPresent(key));
+    cache.put(key, new AnalyzedSentence(new AnalyzedTokenReadings[]{}));
+    assertNotNull(cache.getIfPresent(key));
+    assertNotNull(cache.getIfPresent(key));
+    ResultCache.LayerStats sentenceStats = cache.getSentenceStats();
+    assertThat(sentenceStats.getHitCount(), is(2L));
+    assertThat(sentenceStats.getMissCount(), is(1L));
+    assertThat(sentenceStats.getLoadCount(), is(1L));
+    assertThat(sentenceStats.getSize(), is(1L));
+    ResultCache.LayerStats matchesStats = cache.getMatchesStats();
+    assertThat(matchesStats.getHitCount(), is(0L));
+    assertThat(matchesStats.getLoadCount(), is(0L));
+    assertThat(matchesStats.getHitRate(), is(1.0));
+  }
+
+  @Test
+  public void testHeapBudget() throws Exception {
+    JLanguageTool lt = new JLanguageTool(Languages.getLanguage("en"));
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is a test sentence with a few more words than usual.");
+    long sentenceSize = ResultCache.RetainedSize.of(sentence);
+    assertTrue(sentenceSize > 1000);
+    assertTrue(ResultCache.RetainedSize.of(lt.getAnalyzedSentence("A short one.")) < sentenceSize);
+    ResultCache cache = ResultCache.createWithHeapBudget(sentenceSize * 10, 5, TimeUnit.MINUTES);
+    for (int i = 0; i < 20; i++) {
+      cache.put(new SimpleInputSentence("sentence " + i, Languages.getLanguage("en")), sentence);
+    }
+    ResultCache.LayerStats stats = cache.getSentenceStats();
+    assertThat(stats.getLoadCount(), is(20L));
+    assertTrue(stats.getSize() > 0 && stats.getSize() < 5);
+    assertThat(stats.getEvictionCount(), is(20L - stats.getSize()));
+    assertTrue(stats.getWeight() > 0 && stats.getWeight() <= sentenceSize * 5);
+  }
+
+  @Test
+  public void testSecondTier() throws Exception {
+    Language lang = Languages.getLanguage("en");
+    JLanguageTool lt = new JLanguageTool(lang);
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is is a test.");
+    List<RuleMatch> matches = lt.checkAnalyzedSentence(JLanguageTool.ParagraphHandling.NORMAL, lt.getAllActiveRules(), sentence);
+    assertFalse(matches.isEmpty());
+    InputSentence key = new InputSentence(sentence.getText(), lang, null, new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>(), null, JLanguageTool.Mode.ALL);
+    ResultCache cache = new ResultCache(100);
+    cache.setSecondTier(new SerializedMatchesStore(1 << 16));
+    cache.put(key, matches);
+    File file = File.createTempFile(ResultCacheTest.class.getSimpleName(), ".tmp");
+    try {
+      cache.saveSecondTier(file.toPath());
+      ResultCache newCache = new ResultCache(100);
+      newCache.setSecondTier(new SerializedMatchesStore(1 << 16));
+      assertThat(newCache.loadSecondTier(file.toPath()), is(1));
+      assertNull(newCache.getIfPresent(key));
+      List<RuleMatch> loaded = newCache.getIfPresent(key, sentence, id -> getRule(lt, id));
+      assertNotNull(loaded);
+      assertThat(loaded.size(), is(matches.size()));
+      for (int i = 0; i < matches.size(); i++) {
+        assertThat(loaded.get(i).getRule(), is(matches.get(i).getRule()));
+        assertThat(loaded.get(i).getFromPos(), is(matches.get(i).getFromPos()));
+        assertThat(loaded.get(i).getToPos(), is(matches.get(i).getToPos()));
+        assertThat(loaded.get(i).getMessage(), is(matches.get(i).getMessage()));
+        assertThat(loaded.get(i).getSuggestedReplacements(), is(matches.get(i).getSuggestedReplacements()));
+      }
+      // moved back to the heap cache:
+      assertNotNull(newCache.getIfPresent(key));
+      // rules that can't be found make the entry unusable:
+      ResultCache otherCache = new ResultCache(100);
+      otherCache.setSecondTier(new SerializedMatchesStore(1 << 16));
+      otherCache.loadSecondTier(file.toPath());
+      assertNull(otherCache.getIfPresent(key, sentence, id -> null));
+    } finally {
+      file.delete();
+    }
+  }
+
+  private Rule getRule(JLanguageTool lt, String key) {
+    for (Rule rule : lt.getAllActiveRules()) {
+      if (RuleMatchCodec.getRuleKey(rule).equals(key)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
 }
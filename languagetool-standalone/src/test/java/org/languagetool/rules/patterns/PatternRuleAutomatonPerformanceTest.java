@@ -0,0 +1,103 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.Rule;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare the per-rule pattern matching with matching only the candidate rules found
+ * by the {@link PatternRuleAutomaton}, at the start positions it found. Not a unit test, for interactive use only.
+ */
+final class PatternRuleAutomatonPerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private PatternRuleAutomatonPerformanceTest() {
+  }
+
+  private void run(Language language, File textFile) throws Exception {
+    String text = StringTools.readStream(new FileInputStream(textFile), "utf-8");
+    JLanguageTool lt = new JLanguageTool(language);
+    List<AnalyzedSentence> sentences = lt.analyzeText(text);
+    List<PatternRule> rules = new ArrayList<>();
+    for (Rule rule : lt.getAllActiveRules()) {
+      if (rule instanceof PatternRule) {
+        rules.add((PatternRule) rule);
+      }
+    }
+    long startTime = System.currentTimeMillis();
+    PatternRuleAutomaton automaton = new PatternRuleAutomaton(rules);
+    System.out.println("Language: " + language + ", " + sentences.size() + " sentences, " + rules.size() + " pattern rules");
+    System.out.println("Automaton: " + automaton.getStateCount() + " states, built in " + (System.currentTimeMillis() - startTime) + "ms");
+    for (int i = 0; i < RUNS; i++) {
+      long perRuleStart = System.currentTimeMillis();
+      int perRuleMatches = 0;
+      int perRuleCalls = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        for (PatternRule rule : rules) {
+          if (!rule.canBeIgnoredFor(sentence)) {
+            perRuleCalls++;
+            perRuleMatches += rule.match(sentence).length;
+          }
+        }
+      }
+      long perRuleTime = System.currentTimeMillis() - perRuleStart;
+
+      long automatonStart = System.currentTimeMillis();
+      int automatonMatches = 0;
+      int automatonCalls = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        PatternRuleAutomaton.Candidates candidates = automaton.getCandidates(sentence);
+        for (PatternRule rule : rules) {
+          if (candidates.mightMatch(rule) && !rule.canBeIgnoredFor(sentence)) {
+            automatonCalls++;
+            automatonMatches += rule.match(sentence, candidates.getStartPositions(rule)).length;
+          }
+        }
+      }
+      long automatonTime = System.currentTimeMillis() - automatonStart;
+      System.out.println("Run " + (i + 1) + (i == 0 ? " (warmup)" : "") + ":");
+      System.out.println("  per rule:  " + perRuleTime + "ms, " + perRuleCalls + " match() calls, " + perRuleMatches + " matches");
+      System.out.println("  automaton: " + automatonTime + "ms, " + automatonCalls + " match() calls, " + automatonMatches + " matches");
+      if (perRuleMatches != automatonMatches) {
+        System.out.println("  WARNING: number of matches differs");
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      System.out.println("Usage: " + PatternRuleAutomatonPerformanceTest.class.getSimpleName() + " <languageCode> <text_file>");
+      System.exit(1);
+    }
+    PatternRuleAutomatonPerformanceTest test = new PatternRuleAutomatonPerformanceTest();
+    test.run(Languages.getLanguage(args[0]), new File(args[1]));
+  }
+
+}
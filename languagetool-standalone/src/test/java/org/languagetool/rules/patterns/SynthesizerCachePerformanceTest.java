@@ -0,0 +1,112 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import com.google.common.cache.CacheStats;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.*;
+
+/**
+ * Runs the pattern rules that synthesize suggestions over the sentences of a text, with and
+ * without the {@link DefaultResourceDataBroker#setSynthesizerCacheSize(String, int) synthesizer cache}, and prints the time
+ * and the cache statistics. Not a unit test, for interactive use only.
+ */
+final class SynthesizerCachePerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private SynthesizerCachePerformanceTest() {
+  }
+
+  private void run(Language lang, String text, int cacheSize) throws Exception {
+    List<AbstractPatternRule> rules = getSynthesizingRules(lang);
+    if (rules.isEmpty()) {
+      System.out.println(lang + ": no rules with synthesized suggestions, skipping");
+      return;
+    }
+    // the rules use the synthesizer of their own language object, so set the cache for the whole language:
+    String langCode = lang.getLocale().getLanguage();
+    List<AnalyzedSentence> sentences = new JLanguageTool(lang).analyzeText(text);
+    System.out.println(lang + ": " + rules.size() + " rules with synthesized suggestions, " + sentences.size() + " sentences");
+    for (int i = 0; i < RUNS; i++) {
+      DefaultResourceDataBroker.setSynthesizerCacheSize(langCode, 0);
+      long startTime = System.nanoTime();
+      int matches = match(rules, sentences);
+      System.out.printf("  no cache:    %6dms, %d matches%n", (System.nanoTime() - startTime) / 1_000_000, matches);
+
+      DefaultResourceDataBroker.setSynthesizerCacheSize(langCode, cacheSize);
+      for (String pass : new String[] {"cold cache:", "warm cache:"}) {
+        startTime = System.nanoTime();
+        matches = match(rules, sentences);
+        CacheStats stats = DefaultResourceDataBroker.getSynthesizerCacheStats().getOrDefault(langCode, new CacheStats(0, 0, 0, 0, 0, 0));
+        System.out.printf("  %s  %6dms, %d matches, %d hits, %d misses, %d evictions%n", pass,
+                (System.nanoTime() - startTime) / 1_000_000, matches, stats.hitCount(), stats.missCount(), stats.evictionCount());
+      }
+    }
+    DefaultResourceDataBroker.setSynthesizerCacheSize(langCode, 0);
+  }
+
+  private static List<AbstractPatternRule> getSynthesizingRules(Language lang) throws Exception {
+    List<AbstractPatternRule> rules = new ArrayList<>();
+    for (AbstractPatternRule rule : lang.getUseDataBroker().getPatternRules()) {
+      List<Match> suggestionMatches = new ArrayList<>(rule.getSuggestionMatches());
+      suggestionMatches.addAll(rule.getSuggestionMatchesOutMsg());
+      for (Match match : suggestionMatches) {
+        if (match.getPosTag() != null) {
+          rules.add(rule);
+          break;
+        }
+      }
+    }
+    return rules;
+  }
+
+  private static int match(List<AbstractPatternRule> rules, List<AnalyzedSentence> sentences) throws Exception {
+    int matches = 0;
+    for (AnalyzedSentence sentence : sentences) {
+      for (AbstractPatternRule rule : rules) {
+        matches += rule.match(sentence).length;
+      }
+    }
+    return matches;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 3 || args.length % 2 != 1) {
+      System.out.println("Usage: " + SynthesizerCachePerformanceTest.class.getSimpleName() + " <cacheSize> <langCode> <textFile> [<langCode> <textFile>]...");
+      System.exit(1);
+    }
+    SynthesizerCachePerformanceTest test = new SynthesizerCachePerformanceTest();
+    int cacheSize = Integer.parseInt(args[0]);
+    for (int i = 1; i < args.length; i += 2) {
+      Language lang = Languages.getLanguage(args[i]);
+      String text = StringTools.readStream(new FileInputStream(new File(args[i + 1])), "utf-8");
+      test.run(lang, text, cacheSize);
+    }
+  }
+
+}
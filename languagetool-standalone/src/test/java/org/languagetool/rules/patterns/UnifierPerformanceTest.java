@@ -0,0 +1,140 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the pattern rules and disambiguation rules that use {@link Unifier unification} over
+ * the sentences of a text and prints time and bytes allocated per sentence, plus a checksum
+ * of the results, so a change to the unifier can be compared with the version before it.
+ * Not a unit test, for interactive use only.
+ */
+final class UnifierPerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private UnifierPerformanceTest() {
+  }
+
+  private void run(Language lang, String text) throws Exception {
+    List<AbstractPatternRule> rules = new ArrayList<>();
+    for (AbstractPatternRule rule : lang.getUseDataBroker().getPatternRules()) {
+      if (rule.isTestUnification()) {
+        rules.add(rule);
+      }
+    }
+    List<DisambiguationPatternRule> disambiguationRules = new ArrayList<>();
+    for (DisambiguationPatternRule rule : getDisambiguationRules(lang)) {
+      if (rule.isTestUnification()) {
+        disambiguationRules.add(rule);
+      }
+    }
+    JLanguageTool lt = new JLanguageTool(lang);
+    List<AnalyzedSentence> analyzedSentences = lt.analyzeText(text);
+    List<String> sentences = lt.sentenceTokenize(text);
+    System.out.println(lang + ": " + rules.size() + " rules and " + disambiguationRules.size()
+            + " disambiguation rules with unification, " + sentences.size() + " sentences");
+    for (int i = 0; i < RUNS; i++) {
+      long startBytes = getAllocatedBytes();
+      long startTime = System.nanoTime();
+      int matches = 0;
+      int checksum = 0;
+      for (AnalyzedSentence sentence : analyzedSentences) {
+        for (AbstractPatternRule rule : rules) {
+          for (RuleMatch match : rule.match(sentence)) {
+            matches++;
+            checksum = 31 * checksum + (match.getRule().getId() + match.getFromPos() + "-" + match.getToPos()
+                    + match.getSuggestedReplacements()).hashCode();
+          }
+        }
+      }
+      print("rules         ", startTime, startBytes, sentences.size(), matches + " matches", checksum);
+
+      // disambiguation modifies the readings, so each run needs its own sentences:
+      List<AnalyzedSentence> rawSentences = new ArrayList<>();
+      for (String sentence : sentences) {
+        rawSentences.add(lt.getRawAnalyzedSentence(sentence));
+      }
+      startBytes = getAllocatedBytes();
+      startTime = System.nanoTime();
+      int changed = 0;
+      checksum = 0;
+      for (AnalyzedSentence sentence : rawSentences) {
+        AnalyzedSentence result = sentence;
+        for (DisambiguationPatternRule rule : disambiguationRules) {
+          result = rule.replace(result);
+        }
+        if (result != sentence) {
+          changed++;
+        }
+        checksum = 31 * checksum + result.toString().hashCode();
+      }
+      print("disambiguation", startTime, startBytes, sentences.size(), changed + " changed", checksum);
+    }
+  }
+
+  private static List<DisambiguationPatternRule> getDisambiguationRules(Language lang) throws Exception {
+    DefaultResourceDataBroker broker = (DefaultResourceDataBroker) lang.getUseDataBroker();
+    String file = String.format(DefaultResourceDataBroker.DISAMBIGUATION_FILE, lang.getLocale().getLanguage());
+    if (!broker.resourceDirPathExists(file)) {
+      return Collections.emptyList();
+    }
+    return DefaultResourceDataBroker.createDisambiguationPatternRules(broker.getResourceDirPath(file), broker.getRuleFilterCreator());
+  }
+
+  private void print(String name, long startTime, long startBytes, int sentenceCount, String result, int checksum) {
+    long micros = (System.nanoTime() - startTime) / 1000;
+    long bytes = getAllocatedBytes() - startBytes;
+    System.out.printf("  %s: %6dms, %.1fus/sentence, %8.0f bytes/sentence, %s, checksum %08x%n",
+            name, micros / 1000, (double) micros / sentenceCount, (double) bytes / sentenceCount, result, checksum);
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0 || args.length % 2 != 0) {
+      System.out.println("Usage: " + UnifierPerformanceTest.class.getSimpleName() + " <langCode> <textFile> [<langCode> <textFile>]...");
+      System.exit(1);
+    }
+    UnifierPerformanceTest test = new UnifierPerformanceTest();
+    for (int i = 0; i < args.length; i += 2) {
+      Language lang = Languages.getLanguage(args[i]);
+      String text = StringTools.readStream(new FileInputStream(new File(args[i + 1])), "utf-8");
+      test.run(lang, text);
+    }
+  }
+
+}
@@ -0,0 +1,98 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.spelling.hunspell;
+
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Looks up the words of a text in the Hunspell dictionary of a language, once word by word
+ * and once as a single list, and prints time and bytes allocated per word.
+ * Not a unit test, for interactive use only.
+ */
+final class HunspellPerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private HunspellPerformanceTest() {
+  }
+
+  private void run(Language lang, String text) throws Exception {
+    DefaultResourceDataBroker broker = (DefaultResourceDataBroker) lang.getUseDataBroker();
+    Hunspell.Dictionary dict = broker.createHunspellDictionaryFromResourcePath(
+            lang.getLocale().getLanguage() + "_" + lang.getLocale().getCountry());
+    List<String> words = new ArrayList<>();
+    for (String token : lang.getWordTokenizer().tokenize(text)) {
+      if (!token.trim().isEmpty()) {
+        words.add(token);
+      }
+    }
+    System.out.println(lang + ": " + words.size() + " words");
+    for (int i = 0; i < RUNS; i++) {
+      long startBytes = getAllocatedBytes();
+      long startTime = System.nanoTime();
+      int misspelled = 0;
+      for (String word : words) {
+        if (dict.misspelled(word)) {
+          misspelled++;
+        }
+      }
+      print("word by word", startTime, startBytes, words.size(), misspelled);
+
+      startBytes = getAllocatedBytes();
+      startTime = System.nanoTime();
+      BitSet result = dict.misspelled(words);
+      print("list        ", startTime, startBytes, words.size(), result.cardinality());
+    }
+  }
+
+  private void print(String name, long startTime, long startBytes, int wordCount, int misspelled) {
+    long micros = (System.nanoTime() - startTime) / 1000;
+    long bytes = getAllocatedBytes() - startBytes;
+    System.out.printf("  %s: %6dms, %.2fus/word, %6.1f bytes/word, %d misspelled%n",
+            name, micros / 1000, (double) micros / wordCount, (double) bytes / wordCount, misspelled);
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0 || args.length % 2 != 0) {
+      System.out.println("Usage: " + HunspellPerformanceTest.class.getSimpleName() + " <langCode> <textFile> [<langCode> <textFile>]...");
+      System.exit(1);
+    }
+    HunspellPerformanceTest test = new HunspellPerformanceTest();
+    for (int i = 0; i < args.length; i += 2) {
+      Language lang = Languages.getLanguage(args[i]);
+      String text = StringTools.readStream(new FileInputStream(new File(args[i + 1])), "utf-8");
+      test.run(lang, text);
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.synthesis;
+
+import morfologik.stemming.DictionaryLookup;
+import morfologik.stemming.IStemmer;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultEnglishResourceDataBroker;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+/**
+ * Synthesizes forms for the lemmas of a text from several threads at the same time, with
+ * {@link BaseSynthesizer} and, for comparison, the way it used to work: one stemmer shared by
+ * all threads under a lock, and a new regex for each call that is matched against all tags.
+ * Prints throughput per thread count. Not a unit test, for interactive use only.
+ */
+final class SynthesizerPerformanceTest {
+
+  private static final List<String> POS_TAG_REGEXES = Arrays.asList("VBD", "VB[DN]", "NNS?", "VBG|VBZ", "JJ[RS]", "VB.*");
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+  private static final int RUNS = 3;
+
+  private SynthesizerPerformanceTest() {
+  }
+
+  private void run(List<String> lemmas, IStemmer stemmer, Set<String> tags) throws Exception {
+    DictionaryLookup lookup = (DictionaryLookup) stemmer;
+    // a stemmer that BaseSynthesizer cannot create copies of, so its lookups are synchronized:
+    BaseSynthesizer lockedSynthesizer = new BaseSynthesizer(word -> lookup.lookup(word), tags);
+    BaseSynthesizer synthesizer = new BaseSynthesizer(new DictionaryLookup(lookup.getDictionary()), tags);
+    System.out.println(lemmas.size() + " lemmas, " + POS_TAG_REGEXES.size() + " POS tag regexes, "
+            + Runtime.getRuntime().availableProcessors() + " processors");
+    for (int i = 0; i < RUNS; i++) {
+      for (int threads : THREAD_COUNTS) {
+        long before = measure(threads, lemmas, (lemma, regex) -> synthesizeAsBefore(lockedSynthesizer, lemma, regex));
+        long after = measure(threads, lemmas, (lemma, regex) -> synthesizer.synthesize(new AnalyzedToken(lemma, null, lemma), regex, true).length);
+        System.out.printf("  %d threads: before: %8d calls/s, after: %8d calls/s%n", threads, before, after);
+      }
+    }
+  }
+
+  private static int synthesizeAsBefore(BaseSynthesizer synthesizer, String lemma, String regex) {
+    Pattern p = Pattern.compile(regex);
+    List<String> results = new ArrayList<>();
+    for (String tag : synthesizer.getPossibleTags()) {
+      if (p.matcher(tag).matches()) {
+        synthesizer.lookup(lemma, tag, results);
+      }
+    }
+    return results.size();
+  }
+
+  private long measure(int threadCount, List<String> lemmas, SynthesizerCall call) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      long startTime = System.nanoTime();
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        futures.add(executor.submit(() -> {
+          int forms = 0;
+          for (String lemma : lemmas) {
+            for (String regex : POS_TAG_REGEXES) {
+              forms += call.synthesize(lemma, regex);
+            }
+          }
+          return forms;
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        future.get();
+      }
+      long calls = (long) threadCount * lemmas.size() * POS_TAG_REGEXES.size();
+      return calls * 1_000_000_000L / (System.nanoTime() - startTime);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  interface SynthesizerCall {
+    int synthesize(String lemma, String posTagRegex);
+  }
+
+  private static List<String> getLemmas(JLanguageTool lt, String text) throws Exception {
+    List<String> lemmas = new ArrayList<>();
+    for (AnalyzedSentence sentence : lt.analyzeText(text)) {
+      for (AnalyzedTokenReadings readings : sentence.getTokensWithoutWhitespace()) {
+        String lemma = readings.getReadings().get(0).getLemma();
+        if (lemma != null) {
+          lemmas.add(lemma);
+        }
+      }
+    }
+    return lemmas;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 1) {
+      System.out.println("Usage: " + SynthesizerPerformanceTest.class.getSimpleName() + " <englishTextFile>");
+      System.exit(1);
+    }
+    Language english = Languages.getLanguage("en-US");
+    DefaultEnglishResourceDataBroker broker = (DefaultEnglishResourceDataBroker) english.getUseDataBroker();
+    String text = StringTools.readStream(new FileInputStream(new File(args[0])), "utf-8");
+    List<String> lemmas = getLemmas(new JLanguageTool(english), text);
+    new SynthesizerPerformanceTest().run(lemmas, broker.getIStemmer(), broker.getSynthesizerWordTags());
+  }
+
+}
@@ -0,0 +1,120 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import morfologik.stemming.Dictionary;
+import morfologik.stemming.DictionaryLookup;
+import morfologik.stemming.WordData;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultEnglishResourceDataBroker;
+import org.languagetool.databroker.DefaultGermanResourceDataBroker;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tags the tokens of a text with {@link MorfologikTagger} and, for comparison, with a new
+ * {@link DictionaryLookup} per word, as the tagger used to do it. Prints time and bytes
+ * allocated per token. Not a unit test, for interactive use only.
+ */
+final class MorfologikTaggerPerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private MorfologikTaggerPerformanceTest() {
+  }
+
+  private void run(Language lang, String dictPath, List<String> tokens) throws Exception {
+    Dictionary dictionary = ((DefaultResourceDataBroker) lang.getUseDataBroker()).getMorfologikBinaryDictionaryFromResourcePath(dictPath);
+    MorfologikTagger tagger = new MorfologikTagger(dictionary);
+    System.out.println(lang + ": " + tokens.size() + " tokens");
+    for (int i = 0; i < RUNS; i++) {
+      long startBytes = getAllocatedBytes();
+      long startTime = System.nanoTime();
+      int readings = 0;
+      for (String token : tokens) {
+        readings += tagger.tag(token).size();
+      }
+      print("MorfologikTagger     ", startTime, startBytes, tokens.size(), readings);
+
+      startBytes = getAllocatedBytes();
+      startTime = System.nanoTime();
+      readings = 0;
+      for (String token : tokens) {
+        readings += tagWithNewLookup(dictionary, token).size();
+      }
+      print("DictionaryLookup/word", startTime, startBytes, tokens.size(), readings);
+    }
+  }
+
+  private List<TaggedWord> tagWithNewLookup(Dictionary dictionary, String word) {
+    List<TaggedWord> result = new ArrayList<>();
+    for (WordData wordData : new DictionaryLookup(dictionary).lookup(word)) {
+      String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
+      if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
+        tag = tag.substring(0, tag.length() - 1);
+      }
+      String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+      result.add(new TaggedWord(stem, tag));
+    }
+    return result;
+  }
+
+  private void print(String name, long startTime, long startBytes, int tokenCount, int readings) {
+    long micros = (System.nanoTime() - startTime) / 1000;
+    long bytes = getAllocatedBytes() - startBytes;
+    System.out.printf("  %s: %6dms, %.2fus/token, %6.0f bytes/token, %d readings%n",
+            name, micros / 1000, (double) micros / tokenCount, (double) bytes / tokenCount, readings);
+  }
+
+  private static long getAllocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static List<String> getTokens(Language lang, String text) throws Exception {
+    List<String> tokens = new ArrayList<>();
+    for (String token : lang.getWordTokenizer().tokenize(text)) {
+      if (!token.trim().isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      System.out.println("Usage: " + MorfologikTaggerPerformanceTest.class.getSimpleName() + " <englishTextFile> <germanTextFile>");
+      System.exit(1);
+    }
+    MorfologikTaggerPerformanceTest test = new MorfologikTaggerPerformanceTest();
+    Language english = Languages.getLanguage("en-US");
+    Language german = Languages.getLanguage("de-DE");
+    String englishText = StringTools.readStream(new FileInputStream(new File(args[0])), "utf-8");
+    String germanText = StringTools.readStream(new FileInputStream(new File(args[1])), "utf-8");
+    test.run(english, String.format(DefaultEnglishResourceDataBroker.WORD_TAGGER_DICT_FILE_NAME, "en"), getTokens(english, englishText));
+    test.run(german, String.format(DefaultGermanResourceDataBroker.WORD_TAGGER_DICT_FILE_NAME, "de"), getTokens(german, germanText));
+  }
+
+}
@@ -0,0 +1,113 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2018 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging.disambiguation.rules;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.databroker.DefaultResourceDataBroker;
+import org.languagetool.tools.StringTools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Disambiguates the sentences of a text with {@link XmlRuleDisambiguator} and, for comparison,
+ * by applying all its rules one after the other, as the disambiguator used to do it. Fails if
+ * the results differ. Prints time per sentence. Not a unit test, for interactive use only.
+ */
+final class XmlRuleDisambiguatorPerformanceTest {
+
+  private static final int RUNS = 5;
+
+  private XmlRuleDisambiguatorPerformanceTest() {
+  }
+
+  private void run(Language lang, String text) throws Exception {
+    DefaultResourceDataBroker broker = (DefaultResourceDataBroker) lang.getUseDataBroker();
+    String file = String.format(DefaultResourceDataBroker.DISAMBIGUATION_FILE, lang.getLocale().getLanguage());
+    if (!broker.resourceDirPathExists(file)) {
+      System.out.println(lang + ": no " + file + ", skipping");
+      return;
+    }
+    Path path = broker.getResourceDirPath(file);
+    XmlRuleDisambiguator disambiguator = new XmlRuleDisambiguator(
+            DefaultResourceDataBroker.createDisambiguationPatternRules(path, broker.getRuleFilterCreator()));
+    JLanguageTool lt = new JLanguageTool(lang);
+    List<String> sentences = lt.sentenceTokenize(text);
+    System.out.println(lang + ": " + disambiguator.getRules().size() + " rules, " + sentences.size() + " sentences");
+    for (int i = 0; i < RUNS; i++) {
+      // disambiguation modifies the readings, so each run needs its own sentences:
+      List<AnalyzedSentence> input = analyze(lt, sentences);
+      long startTime = System.nanoTime();
+      List<String> expected = new ArrayList<>();
+      for (AnalyzedSentence sentence : input) {
+        for (DisambiguationPatternRule rule : disambiguator.getRules()) {
+          sentence = rule.replace(sentence);
+        }
+        expected.add(sentence.toString());
+      }
+      print("all rules", startTime, sentences.size());
+
+      input = analyze(lt, sentences);
+      startTime = System.nanoTime();
+      List<String> actual = new ArrayList<>();
+      for (AnalyzedSentence sentence : input) {
+        actual.add(disambiguator.disambiguate(sentence).toString());
+      }
+      print("indexed  ", startTime, sentences.size());
+      for (int j = 0; j < expected.size(); j++) {
+        if (!expected.get(j).equals(actual.get(j))) {
+          throw new RuntimeException("Different result for '" + sentences.get(j) + "':\n" + expected.get(j) + "\n" + actual.get(j));
+        }
+      }
+    }
+  }
+
+  private static List<AnalyzedSentence> analyze(JLanguageTool lt, List<String> sentences) throws Exception {
+    List<AnalyzedSentence> result = new ArrayList<>();
+    for (String sentence : sentences) {
+      result.add(lt.getRawAnalyzedSentence(sentence));
+    }
+    return result;
+  }
+
+  private void print(String name, long startTime, int sentenceCount) {
+    long micros = (System.nanoTime() - startTime) / 1000;
+    System.out.printf("  %s: %6dms, %.1fus/sentence%n", name, micros / 1000, (double) micros / sentenceCount);
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0 || args.length % 2 != 0) {
+      System.out.println("Usage: " + XmlRuleDisambiguatorPerformanceTest.class.getSimpleName() + " <langCode> <textFile> [<langCode> <textFile>]...");
+      System.exit(1);
+    }
+    XmlRuleDisambiguatorPerformanceTest test = new XmlRuleDisambiguatorPerformanceTest();
+    for (int i = 0; i < args.length; i += 2) {
+      Language lang = Languages.getLanguage(args[i]);
+      String text = StringTools.readStream(new FileInputStream(new File(args[i + 1])), "utf-8");
+      test.run(lang, text);
+    }
+  }
+
+}